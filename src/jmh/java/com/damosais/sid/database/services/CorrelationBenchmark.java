@@ -0,0 +1,196 @@
+package com.damosais.sid.database.services;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math3.linear.BlockRealMatrix;
+import org.apache.commons.math3.stat.correlation.PearsonsCorrelation;
+import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.damosais.sid.database.beans.CorrelationResult;
+import com.damosais.sid.database.beans.CountryVariableValue;
+import com.damosais.sid.database.beans.Event;
+import com.damosais.sid.database.beans.SocioeconomicVariable;
+import com.damosais.sid.database.services.Timeline.Granularity;
+import com.neovisionaries.i18n.CountryCode;
+
+import net.sourceforge.jdistlib.disttest.NormalityTest;
+import net.sourceforge.jdistlib.util.Utilities;
+
+/**
+ * This class measures each stage of the simple correlations of a hypothesis (see CorrelationHypothesisService.calculateHyphotesisSimpleCorrelations) over
+ * synthetic data, so it does not need a database. The length of the period, the number of known values of the variable, the number of events and the
+ * granularity of the timeline can be changed with the JMH parameters, for example: mvn -P benchmarks compile exec:exec -Djmh.args="-p months=600 -p events=1000000"
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorrelationBenchmark {
+    private static final long SEED = 20170101L;
+    private static final long FIRST_MONTH = Timeline.toEpochMonth(YearMonth.of(1990, 1));
+
+    @Param({ "60", "240" })
+    private int months;
+
+    @Param({ "10", "40" })
+    private int values;
+
+    @Param({ "1000", "100000" })
+    private int events;
+
+    @Param({ "MONTH", "QUARTER" })
+    private Granularity granularity;
+
+    private CorrelationHypothesisService service;
+    private CountryVariableSeries series;
+    private List<Event> eventList;
+    private EventMonthlyCounts eventCounts;
+    private Timeline timeline;
+    private double[] valuesArray;
+    private double[] eventsArray;
+    private BlockRealMatrix matrix;
+    private final CorrelationKernel kernel = new CorrelationKernel();
+
+    /**
+     * Generates the synthetic values and events. The values are spread evenly through the period, so the months in between have to be interpolated, and
+     * the events are placed on random months of the period
+     */
+    @Setup(Level.Trial)
+    public void generateData() {
+        final Random random = new Random(SEED);
+        service = new CorrelationHypothesisService();
+
+        // 1st) We generate the values of the variable
+        final List<CountryVariableValue> variableValues = new ArrayList<>(values);
+        for (int i = 0; i < values; i++) {
+            final CountryVariableValue value = new CountryVariableValue();
+            value.setCountry(CountryCode.ES);
+            value.setVariable(SocioeconomicVariable.GDP_CURRENT_DOLLARS);
+            value.setDate(Timeline.toDate(FIRST_MONTH + (long) i * (months - 1) / Math.max(1, values - 1)));
+            value.setValue(1000d + i * 10d + random.nextGaussian() * 50d);
+            variableValues.add(value);
+        }
+        series = new CountryVariableSeries(CountryCode.ES, SocioeconomicVariable.GDP_CURRENT_DOLLARS, variableValues);
+
+        // 2nd) We then generate the events
+        eventList = new ArrayList<>(events);
+        eventCounts = new EventMonthlyCounts();
+        for (int i = 0; i < events; i++) {
+            final Event event = new Event();
+            event.setDate(Timeline.toDate(FIRST_MONTH + random.nextInt(months)));
+            eventList.add(event);
+            eventCounts.add(Timeline.toEpochMonth(event.getDate()), 1);
+        }
+
+        // 3rd) Finally we prepare the inputs of the later stages so each one can be measured alone
+        timeline = timeline();
+        valuesArray = service.getValuesArray(series, timeline, new CorrelationResult());
+        eventsArray = service.getEventsDataArray(eventList, timeline);
+        matrix = new BlockRealMatrix(timeline.size(), 2);
+        matrix.setColumn(0, valuesArray);
+        matrix.setColumn(1, eventsArray);
+    }
+
+    @Benchmark
+    public double[] eventsArray() {
+        return service.getEventsDataArray(eventList, timeline);
+    }
+
+    /**
+     * Measures the way the events array is built from the event counts kept in memory (see EventCountCube): the counts are aggregated and then read per
+     * time bucket
+     *
+     * @return The frequency of the events per time bucket
+     */
+    @Benchmark
+    public double[] eventsArrayFromCounts() {
+        final EventMonthlyCounts aggregated = new EventMonthlyCounts();
+        aggregated.addAll(eventCounts);
+        final double[] array = new double[timeline.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = aggregated.getCount(timeline.getStartMonth(i), timeline.getEndMonth(i));
+        }
+        return array;
+    }
+
+    /**
+     * Measures the way the coefficients are calculated now (see CorrelationKernel): Pearson, Spearman and normality in one go reusing the same buffers
+     *
+     * @return The sum of the coefficients so they are not optimised away
+     */
+    @Benchmark
+    public double kernel() {
+        kernel.calculate(valuesArray, eventsArray);
+        return kernel.getPearsonCorrelationCoefficient() + kernel.getpValuePearson() + kernel.getStandardError() + kernel.getSpearmanCorrelationCoefficient() + kernel.getpValueSpearman() + kernel.getValuesNormality() + kernel.getEventsNormality();
+    }
+
+    /**
+     * Measures the scan of the lagged correlations over 24 months in each direction
+     *
+     * @return The strongest lagged coefficient
+     */
+    @Benchmark
+    public double lagScan() {
+        kernel.scanLags(valuesArray, eventsArray, 24 / granularity.getMonths());
+        return kernel.getBestLagCoefficient();
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public double[] normality() {
+        final double[] sortedValues = Arrays.copyOf(valuesArray, valuesArray.length);
+        final double[] sortedEvents = Arrays.copyOf(eventsArray, eventsArray.length);
+        Utilities.sort(sortedValues);
+        Utilities.sort(sortedEvents);
+        if (sortedValues.length < 30) {
+            return new double[] { NormalityTest.shapiro_wilk_statistic(sortedValues), NormalityTest.shapiro_wilk_statistic(sortedEvents) };
+        } else {
+            return new double[] { NormalityTest.kolmogorov_smirnov_statistic(sortedValues), NormalityTest.kolmogorov_smirnov_statistic(sortedEvents) };
+        }
+    }
+
+    @Benchmark
+    public double pearson() {
+        final PearsonsCorrelation pearsonCorrelation = new PearsonsCorrelation(matrix);
+        return pearsonCorrelation.getCorrelationMatrix().getEntry(0, 1) + pearsonCorrelation.getCorrelationPValues().getEntry(0, 1) + pearsonCorrelation.getCorrelationStandardErrors().getEntry(0, 1);
+    }
+
+    @Benchmark
+    public double spearman() {
+        final SpearmansCorrelation spearmanCorrelation = new SpearmansCorrelation(matrix);
+        return spearmanCorrelation.getCorrelationMatrix().getEntry(0, 1) + spearmanCorrelation.getRankCorrelation().getCorrelationPValues().getEntry(0, 1);
+    }
+
+    @Benchmark
+    public Timeline timeline() {
+        return new Timeline(FIRST_MONTH, FIRST_MONTH + months - 1, granularity);
+    }
+
+    @Benchmark
+    public double[] valuesArray() {
+        return service.getValuesArray(series, timeline, new CorrelationResult());
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Properties;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.context.web.SpringBootServletInitializer;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * This class initialises the web application
@@ -14,6 +15,7 @@ import org.springframework.boot.context.web.SpringBootServletInitializer;
  * @since 1.0
  */
 @SpringBootApplication
+@EnableScheduling
 public class ServletInitializer extends SpringBootServletInitializer {
     static Properties getProperties() {
         final Properties props = new Properties();
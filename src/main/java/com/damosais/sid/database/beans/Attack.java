@@ -11,13 +11,17 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.OrderBy;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -30,8 +34,13 @@ import org.hibernate.annotations.UpdateTimestamp;
  * @since 1.0
  */
 @Entity
-@Table(name = "Attacks")
+@BatchSize(size = 100)
+@Table(name = "Attacks", indexes = @Index(name = "idx_attacks_incident", columnList = "incidentId"))
+@NamedEntityGraph(name = Attack.WITH_EVENTS, attributeNodes = @NamedAttributeNode("events"))
 public class Attack {
+    // Fetch plan for the screens showing the start and end of the attacks, which come from their events
+    public static final String WITH_EVENTS = "Attack.events";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     @Column(name = "id")
@@ -45,7 +54,7 @@ public class Attack {
     @JoinColumn(name = "vulnerabilityId")
     private Vulnerability vulnerability;
     
-    @OneToMany(mappedBy = "attack", fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "attack", fetch = FetchType.LAZY)
     @OrderBy("date asc")
     private Set<Event> events;
 
@@ -60,7 +69,7 @@ public class Attack {
     @Column(name = "created")
     private Date created;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "createdBy", nullable = false)
     private User createdBy;
 
@@ -68,7 +77,7 @@ public class Attack {
     @Column(name = "lastUpdate")
     private Date updated;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updatedBy")
     private User updatedBy;
 
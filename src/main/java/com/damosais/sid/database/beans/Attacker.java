@@ -3,6 +3,7 @@ package com.damosais.sid.database.beans;
 import java.util.Date;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -18,6 +19,8 @@ import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -32,6 +35,8 @@ import com.neovisionaries.i18n.CountryCode;
  */
 @Entity
 @Table(name = "Attackers", uniqueConstraints = @UniqueConstraint(columnNames = { "name" }))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Attacker {
     @Id
     @Column(name = "id")
@@ -56,7 +61,7 @@ public class Attacker {
     @Column(name = "created")
     private Date created;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "createdBy", nullable = false)
     private User createdBy;
 
@@ -64,7 +69,7 @@ public class Attacker {
     @Column(name = "lastUpdate")
     private Date updated;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updatedBy")
     private User updatedBy;
 
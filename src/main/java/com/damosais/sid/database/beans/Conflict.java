@@ -3,6 +3,7 @@ package com.damosais.sid.database.beans;
 import java.util.Date;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
@@ -15,7 +16,12 @@ import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import com.neovisionaries.i18n.CountryCode;
@@ -28,7 +34,10 @@ import com.neovisionaries.i18n.CountryCode;
  * @since 1.0
  */
 @Entity
+@BatchSize(size = 100)
 @Table(name = "Conflicts", uniqueConstraints = @UniqueConstraint(columnNames = { "name" }))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Conflict {
     @Id
     @Column(name = "id")
@@ -47,14 +56,18 @@ public class Conflict {
     @Column(name = "location", nullable = false)
     private CountryCode location;
     
-    @ElementCollection(fetch = FetchType.EAGER)
+    // The parties are read by the correlations and the screens through the services, which load them for up to 100 conflicts at a time
+    @ElementCollection(fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SELECT)
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<CountryCode> partiesInvolved;
     
     @CreationTimestamp
     @Column(name = "created")
     private Date created;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "createdBy", nullable = false)
     private User createdBy;
 
@@ -62,7 +75,7 @@ public class Conflict {
     @Column(name = "lastUpdate")
     private Date updated;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updatedBy")
     private User updatedBy;
     
@@ -14,7 +14,10 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import com.neovisionaries.i18n.CountryCode;
@@ -50,20 +53,28 @@ public class CorrelationHypothesis {
     @Column(name = "targetCountry", nullable = false)
     private CountryCode targetCountry;
     
-    @ElementCollection(fetch = FetchType.EAGER)
+    // The collections are part of the equality and are used by the correlations running in the background. They are loaded by the services after the
+    // hypotheses, each of them with its own query for a batch of hypotheses, as joining them all would multiply the rows
+    @ElementCollection(fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SELECT)
+    @BatchSize(size = 100)
     private Set<CountryCode> sourceCountries;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SELECT)
+    @BatchSize(size = 100)
     private Set<SocioeconomicVariable> variables;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SELECT)
+    @BatchSize(size = 100)
     private Set<CorrelationResult> results;
 
     @CreationTimestamp
     @Column(name = "created")
     private Date created;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "createdBy", nullable = false)
     private User createdBy;
 
@@ -71,7 +82,7 @@ public class CorrelationHypothesis {
     @Column(name = "lastUpdate")
     private Date updated;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updatedBy")
     private User updatedBy;
 
@@ -3,7 +3,9 @@ package com.damosais.sid.database.beans;
 import java.util.Date;
 
 import javax.persistence.Column;
+import javax.persistence.Embedded;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
@@ -64,11 +66,20 @@ public class CorrelationResult {
     @Column(name = "eventsNormality", nullable = false)
     private double eventsNormality;
 
+    @Column(name = "bestLag", nullable = false)
+    private int bestLag;
+
+    @Column(name = "bestLagCoefficient", nullable = false)
+    private double bestLagCoefficient;
+
+    @Embedded
+    private CorrelationStatistics statistics;
+
     @CreationTimestamp
     @Column(name = "created")
     private Date created;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "createdBy", nullable = false)
     private User createdBy;
 
@@ -76,10 +87,24 @@ public class CorrelationResult {
     @Column(name = "lastUpdate")
     private Date updated;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updatedBy")
     private User updatedBy;
     
+    /**
+     * Returns the number of months the events were shifted to find the strongest correlation with the variable. A positive lag means that the changes of
+     * the variable precede the attacks and a negative one that they follow them
+     *
+     * @return the lag in months
+     */
+    public int getBestLag() {
+        return bestLag;
+    }
+
+    public double getBestLagCoefficient() {
+        return bestLagCoefficient;
+    }
+
     public CountryCode getCountry() {
         return country;
     }
@@ -120,6 +145,10 @@ public class CorrelationResult {
         return standardError;
     }
 
+    public CorrelationStatistics getStatistics() {
+        return statistics;
+    }
+
     public Date getUpdated() {
         return updated;
     }
@@ -140,6 +169,14 @@ public class CorrelationResult {
         return interpolatedData;
     }
 
+    public void setBestLag(int bestLag) {
+        this.bestLag = bestLag;
+    }
+
+    public void setBestLagCoefficient(double bestLagCoefficient) {
+        this.bestLagCoefficient = bestLagCoefficient;
+    }
+
     public void setCountry(CountryCode country) {
         this.country = country;
     }
@@ -183,6 +220,10 @@ public class CorrelationResult {
     public void setStandardError(double standardError) {
         this.standardError = standardError;
     }
+
+    public void setStatistics(CorrelationStatistics statistics) {
+        this.statistics = statistics;
+    }
     
     public void setUpdated(Date updated) {
         this.updated = updated;
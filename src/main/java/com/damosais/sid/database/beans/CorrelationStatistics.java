@@ -0,0 +1,165 @@
+package com.damosais.sid.database.beans;
+
+import java.util.Arrays;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.Lob;
+
+/**
+ * This class holds the data behind a correlation result: the value of the variable and the number of events on each time bucket plus the running sums
+ * needed to calculate the Pearson's correlation (the sufficient statistics). When the data of a single bucket changes the sums are updated by removing the
+ * old contribution of the bucket and adding the new one, so the correlation does not need to be calculated again from scratch. The sums are kept over the
+ * data shifted by the first bucket to avoid losing precision with large values
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+@Embeddable
+public class CorrelationStatistics {
+    @Column(name = "statisticsStartMonth")
+    private long startMonth;
+
+    @Column(name = "valuesShift")
+    private double valuesShift;
+
+    @Column(name = "eventsShift")
+    private double eventsShift;
+
+    @Column(name = "sumValues")
+    private double sumValues;
+
+    @Column(name = "sumEvents")
+    private double sumEvents;
+
+    @Column(name = "sumSquaredValues")
+    private double sumSquaredValues;
+
+    @Column(name = "sumSquaredEvents")
+    private double sumSquaredEvents;
+
+    @Column(name = "sumProducts")
+    private double sumProducts;
+
+    @Lob
+    @Column(name = "bucketValues")
+    private double[] values;
+
+    @Lob
+    @Column(name = "bucketEvents")
+    private double[] events;
+
+    /**
+     * Empty constructor needed by JPA
+     */
+    public CorrelationStatistics() {
+    }
+
+    /**
+     * Creates the statistics for the given data
+     *
+     * @param startMonth
+     *            The first month of the first bucket as number of months since January 1970
+     * @param values
+     *            The value of the variable on each bucket
+     * @param events
+     *            The number of events on each bucket
+     */
+    public CorrelationStatistics(long startMonth, double[] values, double[] events) {
+        this.startMonth = startMonth;
+        this.values = Arrays.copyOf(values, values.length);
+        this.events = Arrays.copyOf(events, events.length);
+        valuesShift = values.length > 0 ? values[0] : 0d;
+        eventsShift = events.length > 0 ? events[0] : 0d;
+        for (int bucket = 0; bucket < values.length; bucket++) {
+            accumulate(bucket, 1d);
+        }
+    }
+
+    /**
+     * Adds or removes the contribution of a bucket to the sums
+     *
+     * @param bucket
+     *            The position of the bucket
+     * @param sign
+     *            1 to add the contribution or -1 to remove it
+     */
+    private void accumulate(int bucket, double sign) {
+        final double value = values[bucket] - valuesShift;
+        final double eventCount = events[bucket] - eventsShift;
+        sumValues += sign * value;
+        sumEvents += sign * eventCount;
+        sumSquaredValues += sign * value * value;
+        sumSquaredEvents += sign * eventCount * eventCount;
+        sumProducts += sign * value * eventCount;
+    }
+
+    /**
+     * Checks if the statistics were calculated for the given time buckets
+     *
+     * @param firstMonth
+     *            The first month of the first bucket as number of months since January 1970
+     * @param buckets
+     *            The number of buckets
+     * @return true if the statistics have the data of those buckets
+     */
+    public boolean covers(long firstMonth, int buckets) {
+        return values != null && events != null && startMonth == firstMonth && values.length == buckets;
+    }
+
+    public double[] getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns the Pearson's correlation coefficient calculated from the sums
+     *
+     * @return the Pearson's correlation coefficient or NaN if any of the data sets is constant
+     */
+    public double getPearsonCorrelationCoefficient() {
+        final int n = getSampleSize();
+        final double covariance = n * sumProducts - sumValues * sumEvents;
+        final double valuesVariance = n * sumSquaredValues - sumValues * sumValues;
+        final double eventsVariance = n * sumSquaredEvents - sumEvents * sumEvents;
+        if (valuesVariance <= 0d || eventsVariance <= 0d) {
+            return Double.NaN;
+        }
+        // The sums are updated incrementally so we make sure rounding errors do not take the coefficient out of its range
+        return Math.max(-1d, Math.min(1d, covariance / Math.sqrt(valuesVariance * eventsVariance)));
+    }
+
+    /**
+     * Returns the number of buckets
+     *
+     * @return the number of buckets
+     */
+    public int getSampleSize() {
+        return values == null ? 0 : values.length;
+    }
+
+    public long getStartMonth() {
+        return startMonth;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * Replaces the data of a bucket updating the sums
+     *
+     * @param bucket
+     *            The position of the bucket
+     * @param value
+     *            The new value of the variable
+     * @param eventCount
+     *            The new number of events
+     */
+    public void update(int bucket, double value, double eventCount) {
+        accumulate(bucket, -1d);
+        values[bucket] = value;
+        events[bucket] = eventCount;
+        accumulate(bucket, 1d);
+    }
+}
@@ -6,9 +6,11 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -27,7 +29,7 @@ import com.neovisionaries.i18n.CountryCode;
  * @since 1.0
  */
 @Entity
-@Table(name = "CountryVariableValues", uniqueConstraints = @UniqueConstraint(columnNames = { "variable", "country", "date" }))
+@Table(name = "CountryVariableValues", uniqueConstraints = @UniqueConstraint(columnNames = { "variable", "country", "date" }), indexes = { @Index(name = "idx_values_variable_date", columnList = "variable, date"), @Index(name = "idx_values_country_date", columnList = "country, date") })
 public class CountryVariableValue {
     @Id
     @Column(name = "id")
@@ -52,7 +54,7 @@ public class CountryVariableValue {
     @Column(name = "created")
     private Date created;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "createdBy", nullable = false)
     private User createdBy;
 
@@ -60,7 +62,7 @@ public class CountryVariableValue {
     @Column(name = "lastUpdate")
     private Date updated;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updatedBy")
     private User updatedBy;
     
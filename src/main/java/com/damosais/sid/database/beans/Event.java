@@ -7,9 +7,11 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -26,7 +28,7 @@ import org.hibernate.annotations.UpdateTimestamp;
  * @since 1.0
  */
 @Entity
-@Table(name = "Events")
+@Table(name = "Events", indexes = { @Index(name = "idx_events_target_date", columnList = "targetId, date"), @Index(name = "idx_events_attack_date", columnList = "attackId, date") })
 public class Event {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -52,7 +54,7 @@ public class Event {
     @Column(name = "created")
     private Date created;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "createdBy", nullable = false)
     private User createdBy;
 
@@ -60,7 +62,7 @@ public class Event {
     @Column(name = "lastUpdate")
     private Date updated;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updatedBy")
     private User updatedBy;
 
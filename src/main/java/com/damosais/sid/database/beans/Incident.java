@@ -18,11 +18,17 @@ import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.UpdateTimestamp;
 
 /**
@@ -33,8 +39,13 @@ import org.hibernate.annotations.UpdateTimestamp;
  * @since 1.0
  */
 @Entity
+@BatchSize(size = 100)
 @Table(name = "Incidents", uniqueConstraints = @UniqueConstraint(columnNames = "name"))
+@NamedEntityGraph(name = Incident.WITH_ATTACKS, attributeNodes = @NamedAttributeNode(value = "attacks", subgraph = "events"), subgraphs = @NamedSubgraph(name = "events", attributeNodes = @NamedAttributeNode("events")))
 public class Incident {
+    // Fetch plan for the screens showing the start and end of the incidents, which come from the events of their attacks
+    public static final String WITH_ATTACKS = "Incident.attacks";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     @Column(name = "id")
@@ -43,11 +54,14 @@ public class Incident {
     @Column(name = "name")
     private String name;
 
-    @ManyToMany(targetEntity = Attacker.class, cascade = CascadeType.MERGE, fetch = FetchType.EAGER)
+    // The attackers are part of the equality of the incident, so the services load them (in batches of incidents) before handing the incidents out
+    @ManyToMany(targetEntity = Attacker.class, cascade = CascadeType.MERGE, fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SELECT)
+    @BatchSize(size = 100)
     @JoinTable(name = "IncidentAttackers", joinColumns = @JoinColumn(name = "incidentId"), inverseJoinColumns = @JoinColumn(name = "attackerId"))
     private Set<Attacker> attackers;
     
-    @OneToMany(mappedBy = "incident", fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "incident", fetch = FetchType.LAZY)
     private Set<Attack> attacks;
     
     @Enumerated(EnumType.STRING)
@@ -58,7 +72,7 @@ public class Incident {
     @Column(name = "created")
     private Date created;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "createdBy", nullable = false)
     private User createdBy;
     
@@ -66,7 +80,7 @@ public class Incident {
     @Column(name = "lastUpdate")
     private Date updated;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updatedBy")
     private User updatedBy;
 
@@ -82,16 +96,6 @@ public class Incident {
             return false;
         }
         final Incident other = (Incident) obj;
-        if (attackers == null) {
-            if (other.attackers != null) {
-                return false;
-            }
-        } else if (!attackers.equals(other.attackers)) {
-            return false;
-        }
-        if (motivation != other.motivation) {
-            return false;
-        }
         if (name == null) {
             if (other.name != null) {
                 return false;
@@ -158,8 +162,6 @@ public class Incident {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + (attackers == null ? 0 : attackers.hashCode());
-        result = prime * result + (motivation == null ? 0 : motivation.hashCode());
         result = prime * result + (name == null ? 0 : name.hashCode());
         return result;
     }
@@ -3,6 +3,7 @@ package com.damosais.sid.database.beans;
 import java.util.Date;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -17,6 +18,9 @@ import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -30,7 +34,10 @@ import com.neovisionaries.i18n.CountryCode;
  * @since 1.0
  */
 @Entity
+@BatchSize(size = 100)
 @Table(name = "Owners", uniqueConstraints = @UniqueConstraint(columnNames = { "name" }))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Owner {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -55,7 +62,7 @@ public class Owner {
     @Column(name = "created")
     private Date created;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "createdBy", nullable = false)
     private User createdBy;
     
@@ -63,7 +70,7 @@ public class Owner {
     @Column(name = "lastUpdate")
     private Date updated;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updatedBy")
     private User updatedBy;
     
@@ -1,5 +1,15 @@
 package com.damosais.sid.database.beans;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * This class represents the different types of sectors on which the owner of a target (victim) operates
  *
@@ -310,28 +320,56 @@ public enum Sector {
 					SPORTS_FACILITIES(SPORTS_INFRASTRUCTURE, "Sports facilities");
 	//@formatter:on
     
+    // The sectors indexed by their name in lower case
+    private static final Map<String, Sector> BY_NAME = new HashMap<>();
+
+    private final Sector parent;
+    
+    private final String name;
+
+    // Position of the sector on a pre-order walk of the tree and position of its last descendant, so the subtree is the interval between both
+    private int first;
+
+    private int last;
+
+    private Set<Sector> subsectors;
+
     /**
-     * Returns the sector with the matching name
-     *
-     * @param name
-     *            The name of the sector which is being searched
-     * @return The matching sector or null if none matches
+     * The hierarchy is indexed once all the sectors have been created: each sector gets the interval of its subtree on a pre-order walk of the tree, the
+     * set of its subsectors and its entry on the index of names
      */
-    public static Sector getByName(String name) {
-        Sector matching = null;
-        for (final Sector sector : Sector.values()) {
-            if (sector.getName().equalsIgnoreCase(name)) {
-                matching = sector;
-                break;
+    static {
+        // 1st) We group the sectors by their parent keeping the order of declaration
+        final Map<Sector, List<Sector>> children = new EnumMap<>(Sector.class);
+        for (final Sector sector : values()) {
+            if (sector.parent != null) {
+                children.computeIfAbsent(sector.parent, key -> new ArrayList<>()).add(sector);
+            }
+        }
+
+        // 2nd) We walk the tree from the root sectors numbering them in pre-order
+        int position = 0;
+        for (final Sector sector : values()) {
+            if (sector.parent == null) {
+                position = index(sector, children, position);
+            }
+        }
+
+        // 3rd) Finally we keep the subsectors of each sector and the names
+        final Sector[] preOrder = new Sector[position];
+        for (final Sector sector : values()) {
+            preOrder[sector.first] = sector;
+        }
+        for (final Sector sector : values()) {
+            final Set<Sector> subtree = EnumSet.noneOf(Sector.class);
+            for (int i = sector.first; i <= sector.last; i++) {
+                subtree.add(preOrder[i]);
             }
+            sector.subsectors = Collections.unmodifiableSet(subtree);
+            BY_NAME.putIfAbsent(sector.name.toLowerCase(Locale.ROOT), sector);
         }
-        return matching;
     }
 
-    private final Sector parent;
-    
-    private final String name;
-    
     /**
      * The constructor just requires the parent sector and its name
      *
@@ -344,7 +382,39 @@ public enum Sector {
         this.parent = parent;
         this.name = name;
     }
-    
+
+    /**
+     * Returns the sector with the matching name (ignoring the case)
+     *
+     * @param name
+     *            The name of the sector which is being searched
+     * @return The matching sector or null if none matches
+     */
+    public static Sector getByName(String name) {
+        return name == null ? null : BY_NAME.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Numbers a sector and all its descendants in pre-order
+     *
+     * @param sector
+     *            The sector to number
+     * @param children
+     *            The children of each sector
+     * @param position
+     *            The first free position
+     * @return The next free position after the subtree of the sector
+     */
+    private static int index(Sector sector, Map<Sector, List<Sector>> children, int position) {
+        int next = position;
+        sector.first = next++;
+        for (final Sector child : children.getOrDefault(sector, Collections.emptyList())) {
+            next = index(child, children, next);
+        }
+        sector.last = next - 1;
+        return next;
+    }
+
     public String getName() {
         return name;
     }
@@ -352,25 +422,25 @@ public enum Sector {
     public Sector getParent() {
         return parent;
     }
+
+    /**
+     * Returns this sector and all the sectors below it. The set is calculated once and cannot be modified
+     *
+     * @return The sectors that are child of this one (including itself)
+     */
+    public Set<Sector> getSubsectors() {
+        return subsectors;
+    }
     
     /**
-     * This method returns if a sector is son of a given sector
+     * This method returns if a sector is son of a given sector. As the subtree of a sector is an interval of the pre-order walk of the tree it only needs
+     * to check if this sector falls inside that interval
      *
      * @param sector
      *            The sector for which we are checking the paternity
      * @return true if the sector is parent (root is parent of root), false otherwise
      */
     public boolean isChildOf(Sector sector) {
-        // 1st) We check if the sector is ROOT
-        if (ROOT == sector) {
-            return true;
-        } else {
-            // 2nd) Otherwise we check if this sector is the given sector
-            if (this == sector) {
-                return true;
-            } else {
-                return getParent() == null ? false : getParent().isChildOf(sector);
-            }
-        }
+        return sector != null && sector.first <= first && first <= sector.last;
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package com.damosais.sid.database.beans;
 import java.util.Date;
 import java.util.List;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
@@ -13,13 +14,20 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import com.neovisionaries.i18n.CountryCode;
@@ -32,7 +40,10 @@ import com.neovisionaries.i18n.CountryCode;
  * @since 1.0
  */
 @Entity
-@Table(name = "Targets", uniqueConstraints = @UniqueConstraint(columnNames = { "siteName" }))
+@BatchSize(size = 100)
+@Table(name = "Targets", uniqueConstraints = @UniqueConstraint(columnNames = { "siteName" }), indexes = { @Index(name = "idx_targets_country", columnList = "country"), @Index(name = "idx_targets_owner", columnList = "ownerId") })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Target {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -46,7 +57,11 @@ public class Target {
     @Column(name = "siteName", nullable = false)
     private String siteName;
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
+    // The IPs are part of the equality of the target, so the services initialise them for a whole batch of targets with one query
+    @ElementCollection(targetClass = String.class, fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SELECT)
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @CollectionTable(name = "TargetIps", joinColumns = @JoinColumn(name = "targetId"))
     @Column(name = "targetIpsId")
     private List<String> ips;
@@ -59,7 +74,7 @@ public class Target {
     @Column(name = "created")
     private Date created;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "createdBy", nullable = false)
     private User createdBy;
 
@@ -67,7 +82,7 @@ public class Target {
     @Column(name = "lastUpdate")
     private Date updated;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updatedBy")
     private User updatedBy;
 
@@ -83,16 +98,6 @@ public class Target {
             return false;
         }
         final Target other = (Target) obj;
-        if (country != other.country) {
-            return false;
-        }
-        if (ips == null) {
-            if (other.ips != null) {
-                return false;
-            }
-        } else if (!StringUtils.join(ips, ",").equals(StringUtils.join(other.ips, ","))) {
-            return false;
-        }
         if (siteName == null) {
             if (other.siteName != null) {
                 return false;
@@ -143,8 +148,6 @@ public class Target {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + (country == null ? 0 : country.hashCode());
-        result = prime * result + (ips == null ? 0 : StringUtils.join(ips, ",").hashCode());
         result = prime * result + (siteName == null ? 0 : siteName.hashCode());
         return result;
     }
@@ -192,7 +195,7 @@ public class Target {
         if (country != null) {
             sb.append(" (").append(country.getName()).append(")");
         }
-        if (ips != null && !ips.isEmpty()) {
+        if (ips != null && Hibernate.isInitialized(ips) && !ips.isEmpty()) {
             sb.append(" [").append(StringUtils.join(ips, ",")).append("]");
         }
         return sb.toString();
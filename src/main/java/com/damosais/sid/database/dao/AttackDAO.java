@@ -1,10 +1,15 @@
 package com.damosais.sid.database.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import javax.transaction.Transactional;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import com.damosais.sid.database.beans.Attack;
 import com.damosais.sid.database.beans.Incident;
@@ -17,13 +22,35 @@ import com.damosais.sid.database.beans.Incident;
  * @since 1.0
  */
 @Transactional
-public interface AttackDAO extends CrudRepository<Attack, Long> {
+public interface AttackDAO extends PagingAndSortingRepository<Attack, Long>, JpaSpecificationExecutor<Attack> {
     /**
-     * Returns the attacks of an specific incident
+     * Returns the attacks of an specific incident together with their events
      *
      * @param incident
      *            The incident being searched
      * @return a list with the attacks of that attack
      */
-    public List<Attack> findByIncident(Incident incident);
-}
\ No newline at end of file
+    @EntityGraph(Attack.WITH_EVENTS)
+    @Query("select distinct a from Attack a where a.incident = :incident")
+    public List<Attack> findByIncident(@Param("incident") Incident incident);
+
+    /**
+     * Returns the attacks which are not part of any incident together with their events
+     *
+     * @return a list with the attacks without incident
+     */
+    @EntityGraph(Attack.WITH_EVENTS)
+    @Query("select distinct a from Attack a where a.incident is null")
+    public List<Attack> findByIncidentIsNull();
+
+    /**
+     * Returns a set of attacks together with their events
+     *
+     * @param ids
+     *            The identifiers of the attacks
+     * @return a list with the attacks (in no specific order)
+     */
+    @EntityGraph(Attack.WITH_EVENTS)
+    @Query("select distinct a from Attack a where a.id in :ids")
+    public List<Attack> findWithEventsByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,7 +1,9 @@
 package com.damosais.sid.database.dao;
 
+import javax.persistence.QueryHint;
 import javax.transaction.Transactional;
 
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import com.damosais.sid.database.beans.Attacker;
@@ -15,4 +17,12 @@ import com.damosais.sid.database.beans.Attacker;
  */
 @Transactional
 public interface AttackerDAO extends CrudRepository<Attacker, Long> {
+    /**
+     * Returns all the attackers, keeping the result in the query cache until any of them is saved or deleted
+     *
+     * @return all the attackers
+     */
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    public Iterable<Attacker> findAll();
 }
\ No newline at end of file
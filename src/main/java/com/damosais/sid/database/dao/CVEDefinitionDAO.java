@@ -1,19 +1,30 @@
 package com.damosais.sid.database.dao;
 
+import java.util.Collection;
+import java.util.List;
+
 import javax.transaction.Transactional;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.PagingAndSortingRepository;
 
 import com.damosais.sid.database.beans.CVEDefinition;
 
 /**
- * This interface expresses the database operations that can be performed on a CVE definition
+ * This interface defines the actions that can be performed in the database with a CVE definition
  *
  * @author Pablo Casais Solano
  * @version 1.0
  * @since 1.0
  */
 @Transactional
-public interface CVEDefinitionDAO extends CrudRepository<CVEDefinition, Long> {
-
-}
\ No newline at end of file
+public interface CVEDefinitionDAO extends PagingAndSortingRepository<CVEDefinition, Long>, JpaSpecificationExecutor<CVEDefinition> {
+    /**
+     * Returns the CVE definitions with the given names
+     *
+     * @param names
+     *            The names of the CVE definitions
+     * @return a list with the CVE definitions found
+     */
+    public List<CVEDefinition> findByNameIn(Collection<String> names);
+}
@@ -1,10 +1,17 @@
 package com.damosais.sid.database.dao;
 
+import java.util.Collection;
+import java.util.List;
+
 import javax.transaction.Transactional;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import com.damosais.sid.database.beans.CorrelationHypothesis;
+import com.damosais.sid.database.beans.SocioeconomicVariable;
+import com.neovisionaries.i18n.CountryCode;
 
 /**
  * This interface expresses the database operations that can be performed on a correlation
@@ -15,4 +22,34 @@ import com.damosais.sid.database.beans.CorrelationHypothesis;
  */
 @Transactional
 public interface CorrelationHypothesisDAO extends CrudRepository<CorrelationHypothesis, Long> {
+    /**
+     * Returns the correlations which already have results
+     *
+     * @return a list with the correlations with results
+     */
+    @Query("select h from CorrelationHypothesis h where h.results is not empty")
+    public List<CorrelationHypothesis> findWithResults();
+
+    /**
+     * Returns the correlations with results whose events are against one of the given countries, either the location of their conflict or their target
+     * country when they have no conflict
+     *
+     * @param countries
+     *            The countries of the targets
+     * @return a list with the matching correlations
+     */
+    @Query("select h from CorrelationHypothesis h left join h.conflict c where h.results is not empty and (c.location in :countries or c is null and h.targetCountry in :countries)")
+    public List<CorrelationHypothesis> findWithResultsByEffectiveTargetCountryIn(@Param("countries") Collection<CountryCode> countries);
+
+    /**
+     * Returns the correlations with a result for one of the given countries and one of the given variables
+     *
+     * @param countries
+     *            The countries of the results
+     * @param variables
+     *            The variables of the results
+     * @return a list with the matching correlations
+     */
+    @Query("select distinct h from CorrelationHypothesis h join h.results r where r.country in :countries and r.variable in :variables")
+    public List<CorrelationHypothesis> findByResultCountryInAndResultVariableIn(@Param("countries") Collection<CountryCode> countries, @Param("variables") Collection<SocioeconomicVariable> variables);
 }
\ No newline at end of file
@@ -6,7 +6,8 @@ import java.util.Set;
 
 import javax.transaction.Transactional;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.PagingAndSortingRepository;
 
 import com.damosais.sid.database.beans.CountryVariableValue;
 import com.damosais.sid.database.beans.SocioeconomicVariable;
@@ -20,7 +21,7 @@ import com.neovisionaries.i18n.CountryCode;
  * @since 1.0
  */
 @Transactional
-public interface CountryVariableValueDAO extends CrudRepository<CountryVariableValue, Long> {
+public interface CountryVariableValueDAO extends PagingAndSortingRepository<CountryVariableValue, Long>, JpaSpecificationExecutor<CountryVariableValue> {
     
     /**
      * Returns all the socioeconomic variable values for a specific country between the specific dates
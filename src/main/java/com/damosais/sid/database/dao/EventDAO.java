@@ -1,13 +1,22 @@
 package com.damosais.sid.database.dao;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.damosais.sid.database.beans.Attack;
+import com.damosais.sid.database.beans.Attacker;
 import com.damosais.sid.database.beans.Event;
+import com.damosais.sid.database.beans.Incident;
+import com.damosais.sid.database.beans.Owner;
+import com.damosais.sid.database.beans.Sector;
+import com.damosais.sid.database.beans.Target;
 import com.neovisionaries.i18n.CountryCode;
 
 /**
@@ -18,7 +27,7 @@ import com.neovisionaries.i18n.CountryCode;
  * @since 1.0
  */
 @Transactional
-public interface EventDAO extends CrudRepository<Event, Long> {
+public interface EventDAO extends PagingAndSortingRepository<Event, Long>, JpaSpecificationExecutor<Event> {
     /**
      * Returns the events of an specific attack
      *
@@ -40,4 +49,154 @@ public interface EventDAO extends CrudRepository<Event, Long> {
      * @return a list with the events that match
      */
     public List<Event> findByDateBetweenAndTargetCountry(Date start, Date end, CountryCode country);
-}
\ No newline at end of file
+
+    /**
+     * Returns the fields that identify each of the existing events without loading the events
+     *
+     * @return a list with the date, the action and the identifier of the target of each event
+     */
+    @Query("select e.date, e.action, e.target.id from Event e")
+    public List<Object[]> findAllKeys();
+
+    /**
+     * Returns the fields needed to count each of the existing events without loading the events
+     *
+     * @return a list with the identifier, the date, the country of the target and the sector of the owner (null if the target has no owner) of each event
+     */
+    @Query("select e.id, e.date, t.country, o.sector from Event e join e.target t left join t.owner o")
+    public List<Object[]> findAllCountingKeys();
+
+    /**
+     * Returns the fields needed to count some events without loading the events
+     *
+     * @param ids
+     *            The identifiers of the events
+     * @return a list with the identifier, the date, the country of the target and the sector of the owner (null if the target has no owner) of each event
+     */
+    @Query("select e.id, e.date, t.country, o.sector from Event e join e.target t left join t.owner o where e.id in :ids")
+    public List<Object[]> findCountingKeysByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Returns the countries of the attackers behind some events without loading the events
+     *
+     * @param ids
+     *            The identifiers of the events
+     * @return a list with the identifier of the event and the country of each of the attackers of its incident
+     */
+    @Query("select distinct e.id, a.country from Event e join e.attack k join k.incident i join i.attackers a where e.id in :ids")
+    public List<Object[]> findAttackerCountriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Returns the identifiers of the events of an attack
+     *
+     * @param attack
+     *            The attack of the events
+     * @return a list with the identifiers of the events
+     */
+    @Query("select e.id from Event e where e.attack = :attack")
+    public List<Long> findIdsByAttack(@Param("attack") Attack attack);
+
+    /**
+     * Returns the identifiers of the events of the attacks of an incident
+     *
+     * @param incident
+     *            The incident of the attacks
+     * @return a list with the identifiers of the events
+     */
+    @Query("select e.id from Event e where e.attack.incident = :incident")
+    public List<Long> findIdsByIncident(@Param("incident") Incident incident);
+
+    /**
+     * Returns the identifiers of the events of the incidents where an attacker took part
+     *
+     * @param attacker
+     *            The attacker of the incidents
+     * @return a list with the identifiers of the events
+     */
+    @Query("select distinct e.id from Event e join e.attack k join k.incident i join i.attackers a where a = :attacker")
+    public List<Long> findIdsByAttacker(@Param("attacker") Attacker attacker);
+
+    /**
+     * Returns the identifiers of the events against a target
+     *
+     * @param target
+     *            The target of the events
+     * @return a list with the identifiers of the events
+     */
+    @Query("select e.id from Event e where e.target = :target")
+    public List<Long> findIdsByTarget(@Param("target") Target target);
+
+    /**
+     * Returns the identifiers of the events against the targets of an owner
+     *
+     * @param owner
+     *            The owner of the targets
+     * @return a list with the identifiers of the events
+     */
+    @Query("select e.id from Event e where e.target.owner = :owner")
+    public List<Long> findIdsByOwner(@Param("owner") Owner owner);
+
+    /**
+     * Returns the countries of the attackers behind each of the existing events without loading the events
+     *
+     * @return a list with the identifier of the event and the country of each of the attackers of its incident
+     */
+    @Query("select distinct e.id, a.country from Event e join e.attack k join k.incident i join i.attackers a")
+    public List<Object[]> findAllAttackerCountries();
+
+    /**
+     * Returns the number of events per month against each country, without loading the events
+     *
+     * @return a list with the country of the target, the year, the month and the number of events of each month with events
+     */
+    @Query("select t.country, year(e.date), month(e.date), count(e) from Event e join e.target t group by t.country, year(e.date), month(e.date)")
+    public List<Object[]> countMonthlyByTargetCountry();
+
+    /**
+     * Returns the number of events per month against each country where at least one of the attackers comes from each other country, without loading the
+     * events. An event with attackers from several countries is counted once for each of them
+     *
+     * @return a list with the country of the target, the country of the attackers, the year, the month and the number of events of each month with events
+     */
+    @Query("select t.country, a.country, year(e.date), month(e.date), count(distinct e.id) from Event e join e.target t join e.attack k join k.incident i join i.attackers a group by t.country, a.country, year(e.date), month(e.date)")
+    public List<Object[]> countMonthlyByTargetAndSourceCountry();
+
+    /**
+     * Returns the number of events per month against a country whose owners belong to the given sectors, without loading the events
+     *
+     * @param start
+     *            The start of the period (included)
+     * @param end
+     *            The end of the period (excluded)
+     * @param country
+     *            The country of the target
+     * @param allSectors
+     *            If true the events of all the sectors are counted (including the targets without owner)
+     * @param sectors
+     *            The sectors of the owners of the targets (it must not be empty)
+     * @return a list with the year, the month and the number of events of each month with events
+     */
+    @Query("select year(e.date), month(e.date), count(e) from Event e join e.target t left join t.owner o where e.date >= :start and e.date < :end and t.country = :country and (:allSectors = true or o.sector in :sectors) group by year(e.date), month(e.date)")
+    public List<Object[]> countMonthly(@Param("start") Date start, @Param("end") Date end, @Param("country") CountryCode country, @Param("allSectors") boolean allSectors, @Param("sectors") Collection<Sector> sectors);
+
+    /**
+     * Returns the number of events per month against a country whose owners belong to the given sectors and where at least one of the attackers comes
+     * from the given countries, without loading the events
+     *
+     * @param start
+     *            The start of the period (included)
+     * @param end
+     *            The end of the period (excluded)
+     * @param country
+     *            The country of the target
+     * @param allSectors
+     *            If true the events of all the sectors are counted (including the targets without owner)
+     * @param sectors
+     *            The sectors of the owners of the targets (it must not be empty)
+     * @param sourceCountries
+     *            The countries of the attackers (it must not be empty)
+     * @return a list with the year, the month and the number of events of each month with events
+     */
+    @Query("select year(e.date), month(e.date), count(e) from Event e join e.target t left join t.owner o where e.date >= :start and e.date < :end and t.country = :country and (:allSectors = true or o.sector in :sectors) and exists (select a.id from Incident i join i.attackers a where i = e.attack.incident and a.country in :sourceCountries) group by year(e.date), month(e.date)")
+    public List<Object[]> countMonthly(@Param("start") Date start, @Param("end") Date end, @Param("country") CountryCode country, @Param("allSectors") boolean allSectors, @Param("sectors") Collection<Sector> sectors, @Param("sourceCountries") Collection<CountryCode> sourceCountries);
+}
@@ -1,8 +1,15 @@
 package com.damosais.sid.database.dao;
 
+import java.util.Collection;
+import java.util.List;
+
 import javax.transaction.Transactional;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import com.damosais.sid.database.beans.Incident;
 
@@ -14,6 +21,15 @@ import com.damosais.sid.database.beans.Incident;
  * @since 1.0
  */
 @Transactional
-public interface IncidentDAO extends CrudRepository<Incident, Long> {
-
-}
\ No newline at end of file
+public interface IncidentDAO extends PagingAndSortingRepository<Incident, Long>, JpaSpecificationExecutor<Incident> {
+    /**
+     * Returns a set of incidents together with their attacks and the events of those attacks
+     *
+     * @param ids
+     *            The identifiers of the incidents
+     * @return a list with the incidents (in no specific order)
+     */
+    @EntityGraph(Incident.WITH_ATTACKS)
+    @Query("select distinct i from Incident i where i.id in :ids")
+    public List<Incident> findWithAttacksByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,6 +1,10 @@
 package com.damosais.sid.database.dao;
 
-import org.springframework.data.repository.CrudRepository;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.damosais.sid.database.beans.Owner;
@@ -13,6 +17,13 @@ import com.damosais.sid.database.beans.Owner;
  * @since 1.0
  */
 @Transactional
-public interface OwnerDAO extends CrudRepository<Owner, Long> {
-    
+public interface OwnerDAO extends PagingAndSortingRepository<Owner, Long>, JpaSpecificationExecutor<Owner> {
+    /**
+     * Returns all the owners, keeping the result in the query cache until any of them is saved or deleted
+     *
+     * @return all the owners
+     */
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    public Iterable<Owner> findAll();
 }
\ No newline at end of file
@@ -2,6 +2,9 @@ package com.damosais.sid.database.dao;
 
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,7 +20,15 @@ import com.damosais.sid.database.beans.Target;
  */
 @Transactional
 public interface TargetDAO extends CrudRepository<Target, Long> {
-    
+    /**
+     * Returns all the targets, keeping the result in the query cache until any of them is saved or deleted
+     *
+     * @return all the targets
+     */
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    public Iterable<Target> findAll();
+
     /**
      * Returns the targets of an specific owner
      *
@@ -25,5 +36,6 @@ public interface TargetDAO extends CrudRepository<Target, Long> {
      *            The owner being searched
      * @return a list with the targets of that owner
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     public List<Target> findByOwner(Owner owner);
-}
+}
\ No newline at end of file
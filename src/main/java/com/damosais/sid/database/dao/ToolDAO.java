@@ -1,7 +1,9 @@
 package com.damosais.sid.database.dao;
 
+import javax.persistence.QueryHint;
 import javax.transaction.Transactional;
 
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import com.damosais.sid.database.beans.Tool;
@@ -15,5 +17,12 @@ import com.damosais.sid.database.beans.Tool;
  */
 @Transactional
 public interface ToolDAO extends CrudRepository<Tool, Long> {
-
+    /**
+     * Returns all the tools, keeping the result in the query cache until any of them is saved or deleted
+     *
+     * @return all the tools
+     */
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    public Iterable<Tool> findAll();
 }
\ No newline at end of file
@@ -2,7 +2,8 @@ package com.damosais.sid.database.dao;
 
 import javax.transaction.Transactional;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.PagingAndSortingRepository;
 
 import com.damosais.sid.database.beans.Vulnerability;
 
@@ -14,6 +15,6 @@ import com.damosais.sid.database.beans.Vulnerability;
  * @since 1.0
  */
 @Transactional
-public interface VulnerabilityDAO extends CrudRepository<Vulnerability, Long> {
+public interface VulnerabilityDAO extends PagingAndSortingRepository<Vulnerability, Long>, JpaSpecificationExecutor<Vulnerability> {
 
 }
\ No newline at end of file
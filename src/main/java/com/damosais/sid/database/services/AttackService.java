@@ -1,14 +1,19 @@
 package com.damosais.sid.database.services;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import com.damosais.sid.database.beans.Attack;
 import com.damosais.sid.database.beans.Incident;
 import com.damosais.sid.database.dao.AttackDAO;
+import com.damosais.sid.database.dao.EventDAO;
 
 /**
  * This service is responsible of retrieving, creating, deleting and updating any attack in the database
@@ -18,10 +23,19 @@ import com.damosais.sid.database.dao.AttackDAO;
  * @since 1.0
  */
 @Service
-public class AttackService {
+public class AttackService implements PagedService<Attack> {
     @Autowired
     private AttackDAO attackDao;
 
+    @Autowired
+    private FetchPlanService fetchPlanService;
+
+    @Autowired
+    private EventDAO eventDao;
+
+    @Autowired
+    private EventCountCube eventCountCube;
+
     /**
      * Deletes an attack from the database
      *
@@ -29,18 +43,31 @@ public class AttackService {
      *            The attack to be deleted
      */
     public void delete(Attack attack) {
-        attackDao.delete(attack);
+        eventCountCube.recount(eventDao.findIdsByAttack(attack), () -> attackDao.delete(attack));
+    }
+
+    @Override
+    public long count(Specification<Attack> filter) {
+        return attackDao.count(filter);
     }
 
     /**
-     * Returns the existing attacks in the database
+     * Returns the existing attacks in the database without their events
      *
      * @return The existing attacks in the database
      */
     public List<Attack> list() {
-        final List<Attack> attacks = new ArrayList<>();
-        attackDao.findAll().forEach(attacks::add);
-        return attacks;
+        return fetchPlanService.load(() -> {
+            final List<Attack> attacks = new ArrayList<>();
+            attackDao.findAll().forEach(attacks::add);
+            return attacks;
+        }, FetchPlanService::initializeAttacks);
+    }
+
+    @Override
+    public Page<Attack> list(Specification<Attack> filter, Pageable page) {
+        // The start and end shown for each attack come from its events, so we load them for the whole page at once
+        return fetchPlanService.load(() -> PagedService.reload(attackDao.findAll(filter, page), page, Attack::getId, attackDao::findWithEventsByIdIn), FetchPlanService::initializeAttacks);
     }
 
     /**
@@ -51,7 +78,16 @@ public class AttackService {
      * @return a list with the attacks that are part of the incident
      */
     public List<Attack> listByIncident(Incident incident) {
-        return attackDao.findByIncident(incident);
+        return fetchPlanService.load(() -> attackDao.findByIncident(incident), FetchPlanService::initializeAttacks);
+    }
+
+    /**
+     * Returns the attacks that are not part of any incident yet
+     *
+     * @return a list with the attacks without incident
+     */
+    public List<Attack> listWithoutIncident() {
+        return fetchPlanService.load(attackDao::findByIncidentIsNull, FetchPlanService::initializeAttacks);
     }
 
     /**
@@ -61,6 +97,8 @@ public class AttackService {
      *            The existing attack
      */
     public void save(Attack attack) {
-        attackDao.save(attack);
+        // Moving the attack to another incident changes the attackers its events are counted for (a new attack has no events yet)
+        final List<Long> eventIds = attack.getId() != null ? eventDao.findIdsByAttack(attack) : Collections.emptyList();
+        eventCountCube.recount(eventIds, () -> attackDao.save(attack));
     }
 }
\ No newline at end of file
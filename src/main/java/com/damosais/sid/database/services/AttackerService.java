@@ -1,6 +1,7 @@
 package com.damosais.sid.database.services;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +9,7 @@ import org.springframework.stereotype.Service;
 
 import com.damosais.sid.database.beans.Attacker;
 import com.damosais.sid.database.dao.AttackerDAO;
+import com.damosais.sid.database.dao.EventDAO;
 
 /**
  * This service is responsible of retrieving, creating, deleting and updating any attacker in the database
@@ -21,6 +23,12 @@ public class AttackerService {
     @Autowired
     private AttackerDAO attackerDao;
 
+    @Autowired
+    private EventDAO eventDao;
+
+    @Autowired
+    private EventCountCube eventCountCube;
+
     /**
      * Deletes an attacker from the database
      *
@@ -28,7 +36,7 @@ public class AttackerService {
      *            The attacker to be deleted
      */
     public void delete(Attacker attacker) {
-        attackerDao.delete(attacker);
+        eventCountCube.recount(eventDao.findIdsByAttacker(attacker), () -> attackerDao.delete(attacker));
     }
 
     /**
@@ -49,6 +57,8 @@ public class AttackerService {
      *            The existing attacker
      */
     public void save(Attacker attacker) {
-        attackerDao.save(attacker);
+        // The country of the attacker is one of the source countries of the events of its incidents (a new one has none yet)
+        final List<Long> eventIds = attacker.getId() != null ? eventDao.findIdsByAttacker(attacker) : Collections.emptyList();
+        eventCountCube.recount(eventIds, () -> attackerDao.save(attacker));
     }
 }
\ No newline at end of file
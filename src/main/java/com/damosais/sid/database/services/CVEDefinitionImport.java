@@ -0,0 +1,155 @@
+package com.damosais.sid.database.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+import org.apache.log4j.Logger;
+
+import com.damosais.sid.database.beans.CVEDefinition;
+import com.damosais.sid.database.beans.User;
+
+/**
+ * This class represents an import of CVE definitions being streamed to the database. The definitions received are placed on a bounded queue from which a
+ * writer thread takes them and saves them in batches, so the memory used does not depend on the size of the file being imported. When the queue is full
+ * the thread producing the definitions waits until the writer catches up
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+public class CVEDefinitionImport implements Consumer<CVEDefinition> {
+    private static final Logger LOGGER = Logger.getLogger(CVEDefinitionImport.class);
+    private static final CVEDefinition END_OF_IMPORT = new CVEDefinition();
+    private final CVEDefinitionService cveDefinitionService;
+    private final User user;
+    private final int batchSize;
+    private final BlockingQueue<CVEDefinition> queue;
+    private final List<String> errors;
+    private final Thread writer;
+    private volatile boolean cancelled;
+    private int received;
+    private volatile int saved;
+
+    /**
+     * The constructor starts the writer thread which saves the definitions
+     *
+     * @param cveDefinitionService
+     *            The service used to save the batches
+     * @param user
+     *            The user doing the import
+     * @param batchSize
+     *            The number of definitions saved on each transaction
+     */
+    CVEDefinitionImport(CVEDefinitionService cveDefinitionService, User user, int batchSize) {
+        this.cveDefinitionService = cveDefinitionService;
+        this.user = user;
+        this.batchSize = batchSize;
+        queue = new ArrayBlockingQueue<>(batchSize * 2);
+        errors = new ArrayList<>();
+        writer = new Thread(this::write, "cve-import-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Adds a parsed definition to the import, waiting if the writer is behind
+     *
+     * @param definition
+     *            The definition parsed
+     * @throws IllegalStateException
+     *             If the import has been cancelled or the writer has stopped
+     */
+    @Override
+    public void accept(CVEDefinition definition) {
+        if (cancelled || !writer.isAlive()) {
+            throw new IllegalStateException("The import of CVE definitions is not running");
+        }
+        try {
+            queue.put(definition);
+            received++;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to import CVE definition " + definition.getName(), e);
+        }
+    }
+
+    /**
+     * Cancels the import. The batches already saved are kept but the definitions still waiting on the queue are discarded
+     */
+    public void cancel() {
+        cancelled = true;
+        queue.clear();
+        writer.interrupt();
+    }
+
+    /**
+     * Signals that there are no more definitions to import and waits until the writer has saved all of them
+     *
+     * @return A list with the errors found while saving the definitions
+     */
+    public List<String> finish() {
+        try {
+            if (writer.isAlive()) {
+                queue.put(END_OF_IMPORT);
+            }
+            writer.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            errors.add("Interrupted while waiting for the import of CVE definitions to finish");
+        }
+        return errors;
+    }
+
+    /**
+     * Returns the number of definitions received so far
+     *
+     * @return the number of definitions received so far
+     */
+    public int getReceived() {
+        return received;
+    }
+
+    /**
+     * Returns the number of definitions inserted or updated so far (the ones which did not change are not saved)
+     *
+     * @return the number of definitions inserted or updated so far
+     */
+    public int getSaved() {
+        return saved;
+    }
+
+    /**
+     * This is the loop run by the writer thread: it takes the definitions from the queue and saves them in batches until the end of the import
+     */
+    private void write() {
+        final List<CVEDefinition> batch = new ArrayList<>(batchSize);
+        boolean finished = false;
+        while (!finished && !cancelled) {
+            try {
+                // 1st) We wait for the first definition of the batch and then take as many as available without waiting
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - batch.size());
+                // 2nd) If we reached the end of the import (always the last one received) we remove the mark
+                finished = batch.get(batch.size() - 1) == END_OF_IMPORT;
+                if (finished) {
+                    batch.remove(batch.size() - 1);
+                }
+                // 3rd) Finally we save the batch
+                if (!batch.isEmpty()) {
+                    saved += cveDefinitionService.saveBatch(batch, user, errors);
+                }
+            } catch (final InterruptedException e) {
+                LOGGER.debug("Import of CVE definitions interrupted", e);
+                finished = true;
+            } catch (final Exception e) {
+                LOGGER.error("Problem saving batch of CVE definitions", e);
+                errors.add("Problem saving batch of CVE definitions: " + e.getLocalizedMessage());
+            }
+            batch.clear();
+        }
+    }
+}
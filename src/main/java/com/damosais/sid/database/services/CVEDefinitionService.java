@@ -1,13 +1,24 @@
 package com.damosais.sid.database.services;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
 
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.damosais.sid.database.beans.CVEDefinition;
 import com.damosais.sid.database.beans.User;
@@ -21,12 +32,48 @@ import com.damosais.sid.database.dao.CVEDefinitionDAO;
  * @since 1.0
  */
 @Service
-public class CVEDefinitionService {
+public class CVEDefinitionService implements PagedService<CVEDefinition> {
     private static final Logger LOGGER = Logger.getLogger(CVEDefinitionService.class);
 
     @Autowired
     private CVEDefinitionDAO cveDefinitionDao;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${sid.import.cve.batchSize:500}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Copies into a parsed definition the identifiers and audit data of the definition already stored so saving it updates the existing one
+     *
+     * @param definition
+     *            The parsed definition
+     * @param existingOne
+     *            The definition stored in the database or null if it is a new one
+     * @param user
+     *            The user which is doing the update
+     */
+    private void prepareForSave(CVEDefinition definition, CVEDefinition existingOne, User user) {
+        if (existingOne != null) {
+            definition.setId(existingOne.getId());
+            definition.setCreated(existingOne.getCreated());
+            definition.setCreatedBy(existingOne.getCreatedBy());
+            definition.setUpdatedBy(user);
+        } else {
+            definition.setId(null);
+            definition.setCreatedBy(user);
+        }
+        if (definition.getLossType() != null) {
+            definition.getLossType().setId(existingOne != null && existingOne.getLossType() != null ? existingOne.getLossType().getId() : null);
+        }
+        if (definition.getRangeType() != null) {
+            definition.getRangeType().setId(existingOne != null && existingOne.getRangeType() != null ? existingOne.getRangeType().getId() : null);
+        }
+    }
+
     /**
      * Deletes a CVE definition from the database
      *
@@ -37,6 +84,11 @@ public class CVEDefinitionService {
         cveDefinitionDao.delete(definition);
     }
 
+    @Override
+    public long count(Specification<CVEDefinition> filter) {
+        return cveDefinitionDao.count(filter);
+    }
+
     /**
      * Returns the existing CVE definitions in the database
      *
@@ -48,6 +100,11 @@ public class CVEDefinitionService {
         return definitions;
     }
 
+    @Override
+    public Page<CVEDefinition> list(Specification<CVEDefinition> filter, Pageable page) {
+        return cveDefinitionDao.findAll(filter, page);
+    }
+
     /**
      * Saves an existing CVE definition to the database
      *
@@ -58,6 +115,124 @@ public class CVEDefinitionService {
         cveDefinitionDao.save(definition);
     }
     
+    /**
+     * Returns the message to show for a definition which could not be saved
+     *
+     * @param definition
+     *            The definition which failed
+     * @param e
+     *            The exception thrown when saving it
+     * @return The name of the definition with the root cause of the failure
+     */
+    private String getSaveError(CVEDefinition definition, Exception e) {
+        LOGGER.error("Problem inserting parsed CVE definition '" + definition.getName() + "'", e);
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return definition.getName() + ": " + cause.getLocalizedMessage();
+    }
+
+    /**
+     * Creates the template used to give each batch its own transaction
+     */
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Checks if a parsed definition is the same one already stored. As NVD updates the modified date (or sets it for the first time) every time it
+     * changes an entry, the definition is considered unchanged when both the published and modified dates match the stored ones
+     *
+     * @param definition
+     *            The parsed definition
+     * @param existingOne
+     *            The definition stored in the database or null if it is a new one
+     * @return true if the definition does not need to be saved, false otherwise
+     */
+    private boolean isUnchanged(CVEDefinition definition, CVEDefinition existingOne) {
+        return existingOne != null && isSameTime(definition.getPublished(), existingOne.getPublished()) && isSameTime(definition.getModified(), existingOne.getModified());
+    }
+
+    /**
+     * Compares two dates by their time as the ones read from the database are timestamps, which are never equal to a plain date
+     *
+     * @param date
+     *            The first date
+     * @param otherDate
+     *            The second date
+     * @return true if both are null or represent the same instant, false otherwise
+     */
+    private boolean isSameTime(Date date, Date otherDate) {
+        return date == null ? otherDate == null : otherDate != null && date.getTime() == otherDate.getTime();
+    }
+
+    /**
+     * Saves a batch of parsed definitions in a single transaction, inserting the new ones and updating the ones modified since they were stored. The
+     * definitions which have not changed are skipped. If the transaction fails the definitions are saved one by one so only the wrong ones are discarded
+     *
+     * @param batch
+     *            The parsed definitions
+     * @param user
+     *            The user which is doing the update
+     * @param errors
+     *            The list where the errors found during the processing are added
+     * @return The number of definitions inserted or updated
+     */
+    int saveBatch(List<CVEDefinition> batch, User user, List<String> errors) {
+        final Map<String, CVEDefinition> cvesByName = new HashMap<>();
+        final List<CVEDefinition> changed = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.execute(status -> {
+                // 1st) We find which of the definitions already exist (inside the transaction so saving them does not need to load them again)
+                cveDefinitionDao.findByNameIn(batch.stream().map(CVEDefinition::getName).collect(Collectors.toList())).forEach(definition -> cvesByName.put(definition.getName(), definition));
+                // 2nd) We only keep the ones which are new or have been modified
+                for (final CVEDefinition definition : batch) {
+                    final CVEDefinition existingOne = cvesByName.get(definition.getName());
+                    if (!isUnchanged(definition, existingOne)) {
+                        prepareForSave(definition, existingOne, user);
+                        changed.add(definition);
+                    }
+                }
+                // 3rd) And we save them all together
+                return cveDefinitionDao.save(changed);
+            });
+        } catch (final Exception batchException) {
+            LOGGER.warn("Problem saving batch of CVE definitions, saving them one by one", batchException);
+            // 4th) If it failed we save them one by one to find the ones with problems (discarding the identifiers assigned by the failed transaction)
+            if (changed.isEmpty()) {
+                errors.add("Problem saving batch of CVE definitions: " + batchException.getLocalizedMessage());
+            }
+            int saved = 0;
+            for (final CVEDefinition definition : changed) {
+                try {
+                    prepareForSave(definition, cvesByName.get(definition.getName()), user);
+                    cveDefinitionDao.save(definition);
+                    saved++;
+                } catch (final Exception e) {
+                    errors.add(getSaveError(definition, e));
+                }
+            }
+            return saved;
+        }
+        LOGGER.debug("Saved " + changed.size() + " CVE definitions, " + (batch.size() - changed.size()) + " were unchanged");
+        return changed.size();
+    }
+
+    /**
+     * Starts an import which saves the definitions in batches as they are received, so they do not need to be kept in memory. The definitions have to be
+     * given to the import (for example as the consumer of the CVENVDParser) and then the import must be finished to wait for the last batch
+     *
+     * @param user
+     *            The user which is doing the update
+     * @return The import which receives the definitions
+     */
+    public CVEDefinitionImport startImport(User user) {
+        return new CVEDefinitionImport(this, user, batchSize);
+    }
+
     /**
      * Updates existing CVE definitions and inserts new found ones
      *
@@ -68,35 +243,10 @@ public class CVEDefinitionService {
      * @return A list with the errors found during the processing
      */
     public List<String> update(List<CVEDefinition> parsedDefinitions, User user) {
-        // 1st) We map the existing CVEs
-        final Map<String, CVEDefinition> cvesByName = new HashMap<>();
-        cveDefinitionDao.findAll().forEach(definition -> cvesByName.put(definition.getName(), definition));
-        // 2nd) We create a list for the errors we may found
         final List<String> errors = new ArrayList<>();
-        // 3rd) We now go through each parsed item finding if it is an update or an insert
-        for (final CVEDefinition definition : parsedDefinitions) {
-            final CVEDefinition existingOne = cvesByName.get(definition.getName());
-            if (existingOne != null) {
-                definition.setId(existingOne.getId());
-                definition.setCreated(existingOne.getCreated());
-                definition.setCreatedBy(existingOne.getCreatedBy());
-                definition.setUpdatedBy(user);
-                definition.getLossType().setId(existingOne.getLossType().getId());
-                definition.getRangeType().setId(existingOne.getRangeType().getId());
-            } else {
-                definition.setCreatedBy(user);
-            }
-            try {
-                cveDefinitionDao.save(definition);
-            } catch (final Exception e) {
-                LOGGER.error("Problem inserting parsed CVE definition '" + definition.getName() + "'", e);
-                Throwable cause = e;
-                while (cause.getCause() != null) {
-                    cause = cause.getCause();
-                }
-                errors.add(definition.getName() + ": " + cause.getLocalizedMessage());
-            }
+        for (int start = 0; start < parsedDefinitions.size(); start += batchSize) {
+            saveBatch(parsedDefinitions.subList(start, Math.min(start + batchSize, parsedDefinitions.size())), user, errors);
         }
         return errors;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package com.damosais.sid.database.services;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.apache.log4j.Logger;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * This service reports how the second level and query caches of Hibernate are being used, so it can be checked how many reads of the reference entities
+ * are served from memory. The counters are only collected while hibernate.generate_statistics is enabled
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class CacheStatisticsService {
+    private static final Logger LOGGER = Logger.getLogger(CacheStatisticsService.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Returns the statistics of Hibernate, which include the hits, misses and puts of each cache region and of the query cache
+     *
+     * @return The statistics of Hibernate
+     */
+    public Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Logs the hits, misses and puts of each cache region and of the query cache
+     */
+    @Scheduled(fixedDelayString = "${sid.cache.statisticsDelay:3600000}")
+    public void logStatistics() {
+        final Statistics statistics = getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        for (final String region : statistics.getSecondLevelCacheRegionNames()) {
+            final SecondLevelCacheStatistics regionStatistics = statistics.getSecondLevelCacheStatistics(region);
+            LOGGER.info("Cache " + region + ": " + regionStatistics.getHitCount() + " hits, " + regionStatistics.getMissCount() + " misses, " + regionStatistics.getPutCount() + " puts, " + regionStatistics.getElementCountInMemory() + " elements in memory");
+        }
+        LOGGER.info("Query cache: " + statistics.getQueryCacheHitCount() + " hits, " + statistics.getQueryCacheMissCount() + " misses, " + statistics.getQueryCachePutCount() + " puts");
+    }
+}
@@ -21,6 +21,9 @@ public class ConflictService {
     @Autowired
     private ConflictDAO conflictDao;
 
+    @Autowired
+    private FetchPlanService fetchPlanService;
+
     /**
      * Deletes a conflict from the database
      *
@@ -37,9 +40,11 @@ public class ConflictService {
      * @return The existing conflicts in the database
      */
     public List<Conflict> list() {
-        final List<Conflict> conflicts = new ArrayList<>();
-        conflictDao.findAll().forEach(conflicts::add);
-        return conflicts;
+        return fetchPlanService.load(() -> {
+            final List<Conflict> conflicts = new ArrayList<>();
+            conflictDao.findAll().forEach(conflicts::add);
+            return conflicts;
+        }, FetchPlanService::initializeConflicts);
     }
 
     /**
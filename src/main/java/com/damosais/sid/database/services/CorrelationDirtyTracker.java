@@ -0,0 +1,197 @@
+package com.damosais.sid.database.services;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+
+import com.damosais.sid.database.beans.Event;
+import com.damosais.sid.database.beans.SocioeconomicVariable;
+import com.neovisionaries.i18n.CountryCode;
+
+/**
+ * This service remembers which data used by the correlations has changed since the results were last refreshed: the months with new, edited or deleted
+ * events of each target country and the variables of each country with new, edited or deleted values. The changes are kept in memory until they are taken
+ * to refresh the affected results
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class CorrelationDirtyTracker {
+    private Changes pending = new Changes();
+
+    /**
+     * This class holds a set of changes taken from the tracker
+     */
+    public static class Changes {
+        private final Map<CountryCode, Set<Long>> eventMonthsByCountry = new HashMap<>();
+        private final Map<CountryCode, Set<SocioeconomicVariable>> variablesByCountry = new HashMap<>();
+        private boolean allEvents;
+        private boolean allValues;
+
+        /**
+         * Returns the countries of the targets with changes on their events
+         *
+         * @return The countries of the targets (empty if there are no changes or all the months changed)
+         */
+        public Set<CountryCode> getEventCountries() {
+            return eventMonthsByCountry.keySet();
+        }
+
+        /**
+         * Returns the countries with changes on the values of any of their variables
+         *
+         * @return The countries of the values (empty if there are no changes or all the values changed)
+         */
+        public Set<CountryCode> getValueCountries() {
+            return variablesByCountry.keySet();
+        }
+
+        /**
+         * Returns the variables with changes on their values for any country
+         *
+         * @return The variables of the values (empty if there are no changes or all the values changed)
+         */
+        public Set<SocioeconomicVariable> getValueVariables() {
+            final Set<SocioeconomicVariable> variables = EnumSet.noneOf(SocioeconomicVariable.class);
+            variablesByCountry.values().forEach(variables::addAll);
+            return variables;
+        }
+
+        /**
+         * Returns the months with changes on the events against a country
+         *
+         * @param targetCountry
+         *            The country of the targets
+         * @return The months as number of months since January 1970 (empty if there are no changes or all the months changed)
+         */
+        public Set<Long> getEventMonths(CountryCode targetCountry) {
+            return eventMonthsByCountry.getOrDefault(targetCountry, Collections.emptySet());
+        }
+
+        /**
+         * Checks if there are changes on the events against a country
+         *
+         * @param targetCountry
+         *            The country of the targets
+         * @return true if there are changes on the events against the country
+         */
+        public boolean hasEventChanges(CountryCode targetCountry) {
+            return allEvents || eventMonthsByCountry.containsKey(targetCountry);
+        }
+
+        /**
+         * Checks if there are changes on the values of a variable of a country
+         *
+         * @param country
+         *            The country of the values
+         * @param variable
+         *            The socioeconomic variable
+         * @return true if there are changes on the values
+         */
+        public boolean hasValueChanges(CountryCode country, SocioeconomicVariable variable) {
+            return allValues || variablesByCountry.containsKey(country) && variablesByCountry.get(country).contains(variable);
+        }
+
+        /**
+         * Checks if the events changed in a way that cannot be tracked by month (for example when the attackers of an incident change)
+         *
+         * @return true if any month of any country may have changed
+         */
+        public boolean isAllEvents() {
+            return allEvents;
+        }
+
+        /**
+         * Checks if the values of all the variables may have changed
+         *
+         * @return true if any value of any country may have changed
+         */
+        public boolean isAllValues() {
+            return allValues;
+        }
+
+        /**
+         * Checks if there are no changes at all
+         *
+         * @return true if there are no changes
+         */
+        public boolean isEmpty() {
+            return !allEvents && !allValues && eventMonthsByCountry.isEmpty() && variablesByCountry.isEmpty();
+        }
+    }
+
+    /**
+     * Marks as changed all the months of all the events
+     */
+    public synchronized void markAllEvents() {
+        pending.allEvents = true;
+        pending.eventMonthsByCountry.clear();
+    }
+
+    /**
+     * Marks as changed the values of all the variables
+     */
+    public synchronized void markAllValues() {
+        pending.allValues = true;
+        pending.variablesByCountry.clear();
+    }
+
+    /**
+     * Marks as changed the month of an event against its target country
+     *
+     * @param event
+     *            The event created, edited or deleted
+     */
+    public void markEvent(Event event) {
+        if (event.getDate() != null && event.getTarget() != null && event.getTarget().getCountry() != null) {
+            markEvents(event.getTarget().getCountry(), Timeline.toEpochMonth(event.getDate()));
+        }
+    }
+
+    /**
+     * Marks as changed a month of the events against a country
+     *
+     * @param targetCountry
+     *            The country of the targets
+     * @param epochMonth
+     *            The month as number of months since January 1970
+     */
+    public synchronized void markEvents(CountryCode targetCountry, long epochMonth) {
+        if (!pending.allEvents) {
+            pending.eventMonthsByCountry.computeIfAbsent(targetCountry, key -> new HashSet<>()).add(epochMonth);
+        }
+    }
+
+    /**
+     * Marks as changed the values of a variable for a country. A single new value changes the interpolation of the months around it, so the variable is
+     * marked as a whole
+     *
+     * @param country
+     *            The country of the values
+     * @param variable
+     *            The socioeconomic variable
+     */
+    public synchronized void markValues(CountryCode country, SocioeconomicVariable variable) {
+        if (!pending.allValues) {
+            pending.variablesByCountry.computeIfAbsent(country, key -> EnumSet.noneOf(SocioeconomicVariable.class)).add(variable);
+        }
+    }
+
+    /**
+     * Returns the changes marked so far and starts tracking again from scratch
+     *
+     * @return The changes marked since the last time they were taken
+     */
+    public synchronized Changes takeChanges() {
+        final Changes changes = pending;
+        pending = new Changes();
+        return changes;
+    }
+}
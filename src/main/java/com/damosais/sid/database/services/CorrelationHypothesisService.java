@@ -1,33 +1,32 @@
 package com.damosais.sid.database.services;
 
-import java.time.LocalDate;
 import java.time.YearMonth;
-import java.time.ZoneId;
-import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-import org.apache.commons.math3.analysis.interpolation.SplineInterpolator;
-import org.apache.commons.math3.analysis.polynomials.PolynomialSplineFunction;
 import org.apache.commons.math3.exception.MathRuntimeException;
 import org.apache.commons.math3.exception.OutOfRangeException;
-import org.apache.commons.math3.linear.BlockRealMatrix;
-import org.apache.commons.math3.stat.correlation.PearsonsCorrelation;
-import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import com.damosais.sid.database.beans.Attacker;
 import com.damosais.sid.database.beans.CorrelationHypothesis;
 import com.damosais.sid.database.beans.CorrelationResult;
+import com.damosais.sid.database.beans.CorrelationStatistics;
 import com.damosais.sid.database.beans.CountryVariableValue;
 import com.damosais.sid.database.beans.Event;
 import com.damosais.sid.database.beans.Sector;
@@ -37,14 +36,15 @@ import com.damosais.sid.database.dao.CorrelationHypothesisDAO;
 import com.damosais.sid.database.dao.CorrelationResultDAO;
 import com.damosais.sid.database.dao.CountryVariableValueDAO;
 import com.damosais.sid.database.dao.EventDAO;
+import com.damosais.sid.database.services.CorrelationDirtyTracker.Changes;
+import com.damosais.sid.database.services.CountryVariableSeries.MonthlyValues;
+import com.damosais.sid.database.services.PermutationTestService.PValues;
+import com.damosais.sid.database.services.Timeline.Granularity;
 import com.damosais.sid.webapp.CorrelationsView;
 import com.damosais.sid.webapp.WebApplication;
 import com.neovisionaries.i18n.CountryCode;
 import com.vaadin.ui.Notification;
 
-import net.sourceforge.jdistlib.disttest.NormalityTest;
-import net.sourceforge.jdistlib.util.Utilities;
-
 /**
  * This service is responsible of retrieving, creating, deleting and updating any correlation in the database
  *
@@ -55,6 +55,9 @@ import net.sourceforge.jdistlib.util.Utilities;
 @Service
 public class CorrelationHypothesisService {
     private static final Logger LOGGER = Logger.getLogger(CorrelationHypothesisService.class);
+    private static final int MIN_SAMPLE_SIZE = 3;
+    // The searches calculate hypotheses on several threads so each one gets its own kernel
+    private static final ThreadLocal<CorrelationKernel> KERNELS = ThreadLocal.withInitial(CorrelationKernel::new);
 
     @Autowired
     private CorrelationResultDAO correlationResultDAO;
@@ -65,9 +68,49 @@ public class CorrelationHypothesisService {
     @Autowired
     private EventDAO eventDAO;
 
+    @Autowired
+    private FetchPlanService fetchPlanService;
+
     @Autowired
     private CountryVariableValueDAO countryVariableValueDAO;
 
+    @Autowired
+    private CountryVariableSeriesStore countryVariableSeriesStore;
+
+    @Autowired
+    private EventCountCube eventCountCube;
+
+    @Autowired
+    private CorrelationDirtyTracker correlationDirtyTracker;
+
+    @Autowired
+    private PermutationTestService permutationTestService;
+
+    // The searches hold the read lock and the refresh of the results the write lock, so they never save the same results at the same time
+    private final ReadWriteLock searchLock = new ReentrantReadWriteLock();
+
+    @Value("${sid.correlations.granularity:MONTH}")
+    private Granularity granularity;
+
+    @Value("${sid.correlations.maxLag:24}")
+    private int maxLag;
+
+    /**
+     * Adds to the counts the number of events of a month as returned by the aggregation queries of the events
+     *
+     * @param counts
+     *            The counts to update
+     * @param year
+     *            The year of the month
+     * @param month
+     *            The month of the year (starting on 1)
+     * @param count
+     *            The number of events
+     */
+    private static void addMonthlyCount(EventMonthlyCounts counts, Object year, Object month, Object count) {
+        counts.add(Timeline.toEpochMonth(YearMonth.of(((Number) year).intValue(), ((Number) month).intValue())), ((Number) count).intValue());
+    }
+
     /**
      * This method calculates the correlation coefficients for the events given with all the possible variables in the hypothesis
      *
@@ -76,21 +119,50 @@ public class CorrelationHypothesisService {
      * @param correlationsView
      *            The view which called the calculation
      */
-    @SuppressWarnings("deprecation")
     public void calculateHyphotesisSimpleCorrelations(CorrelationHypothesis correlationHypothesis, CorrelationsView correlationsView) throws MathRuntimeException {
-        // 1st) We need to get the event data
-        final List<Event> events = retrieveEventData(correlationHypothesis);
+        final List<String> errors = calculateHyphotesisSimpleCorrelations(correlationHypothesis, ((WebApplication) correlationsView.getUI()).getUser());
+        if (!errors.isEmpty()) {
+            new Notification("Failure", errors.toString(), Notification.Type.ERROR_MESSAGE).show(correlationsView.getUI().getPage());
+        }
+    }
 
-        // 2nd) We get the socioeconomic data
-        final Map<CountryCode, Map<SocioeconomicVariable, List<CountryVariableValue>>> valuesPerCountryAndVariable = retrieveSocioeconomicData(correlationHypothesis);
+    /**
+     * This method calculates the correlation coefficients for the events given with all the possible variables in the hypothesis and saves the results. As
+     * it does not interact with the UI it can be safely invoked from background threads
+     *
+     * @param correlationHypothesis
+     *            The correlation hypothesis for which we are trying to calculate the values
+     * @param user
+     *            The user who is running the calculation
+     * @return A list with the errors found during the calculation
+     */
+    public List<String> calculateHyphotesisSimpleCorrelations(CorrelationHypothesis correlationHypothesis, User user) throws MathRuntimeException {
+        final List<String> errors = computeHyphotesisSimpleCorrelations(correlationHypothesis, user);
+        saveWithResults(correlationHypothesis);
+        return errors;
+    }
 
-        // 3rd) We now need to generate the time buckets for the given period
-        final List<YearMonth> timeBuckets = generateTimeBuckets(correlationHypothesis);
+    /**
+     * This method calculates the correlation coefficients for the events given with all the possible variables in the hypothesis, leaving the results in
+     * the hypothesis without saving anything in the database. This way the hypothesis can be screened before deciding if they are worth keeping
+     *
+     * @param correlationHypothesis
+     *            The correlation hypothesis for which we are trying to calculate the values
+     * @param user
+     *            The user who is running the calculation
+     * @return A list with the errors found during the calculation
+     */
+    public List<String> computeHyphotesisSimpleCorrelations(CorrelationHypothesis correlationHypothesis, User user) throws MathRuntimeException {
+        // 1st) We get the socioeconomic data
+        final Map<CountryCode, Map<SocioeconomicVariable, CountryVariableSeries>> valuesPerCountryAndVariable = retrieveSocioeconomicData(correlationHypothesis);
+
+        // 2nd) We now need to generate the time buckets for the given period
+        final Timeline timeline = generateTimeline(correlationHypothesis);
         
-        // 4th) We now create the vector for the events using the time buckets
-        final double[] eventsArray = getEventsDataArray(events, timeBuckets);
+        // 3rd) We now create the vector for the events using the time buckets
+        final double[] eventsArray = getEventsDataArray(correlationHypothesis, timeline);
         
-        // 5th) Now we index any previous results from running analysis so they can be updated
+        // 4th) Now we index any previous results from running analysis so they can be updated
         final Map<CountryCode, Map<SocioeconomicVariable, CorrelationResult>> resultByCountryAndVariable = new HashMap<>();
         final Set<CorrelationResult> results = new HashSet<>();
         if (correlationHypothesis.getResults() != null && !correlationHypothesis.getResults().isEmpty()) {
@@ -106,10 +178,9 @@ public class CorrelationHypothesisService {
         }
         
         // 5th) Now we loop through the values calculating the correlations between them and the events
-        final User user = ((WebApplication) correlationsView.getUI()).getUser();
         final List<String> errors = new ArrayList<>();
         for (final CountryCode country : valuesPerCountryAndVariable.keySet()) {
-            final Map<SocioeconomicVariable, List<CountryVariableValue>> valuesPerVariable = valuesPerCountryAndVariable.get(country);
+            final Map<SocioeconomicVariable, CountryVariableSeries> valuesPerVariable = valuesPerCountryAndVariable.get(country);
             for (final SocioeconomicVariable variable : valuesPerVariable.keySet()) {
                 boolean newItem = false;
                 CorrelationResult result = resultByCountryAndVariable.get(country) != null ? resultByCountryAndVariable.get(country).get(variable) : null;
@@ -122,84 +193,93 @@ public class CorrelationHypothesisService {
                 } else {
                     result.setUpdatedBy(user);
                 }
-                // 5.1) First we generate a vector for the values of that variable
-                boolean errorInMatrix = false;
-                BlockRealMatrix matrix = null;
-                double[] valuesArray = null;
+                // 5.1) First we generate a vector for the values of that variable and keep it with the events as the statistics of the result
                 try {
-                    // 5.2) Now we generate the matrix with the data
-                    valuesArray = getValuesArray(valuesPerVariable.get(variable), timeBuckets, result);
-                    matrix = new BlockRealMatrix(timeBuckets.size(), 2);
-                    matrix.setColumn(0, valuesArray);
-                    matrix.setColumn(1, eventsArray);
+                    final double[] valuesArray = getValuesArray(valuesPerVariable.get(variable), timeline, result);
+                    result.setStatistics(new CorrelationStatistics(timeline.getStartMonth(0), valuesArray, eventsArray));
+                    // 5.2) Then we calculate the coefficients from them
+                    calculateCoefficients(result, timeline, errors);
                 } catch (final Exception e) {
                     LOGGER.error("Problem generating matrix of data for the correlations: " + e.getMessage(), e);
                     errors.add("Problem generating matrix of data for the correlations: " + e.getMessage());
-                    errorInMatrix = true;
                 }
-                
-                if (!errorInMatrix) {
-                    try {
-                        // 5.3) Then we calculate the Pearson's correlation level and the P-Value
-                        final PearsonsCorrelation pearsonCorrelation = new PearsonsCorrelation(matrix);
-                        result.setPearsonCorrelationCoefficient(pearsonCorrelation.getCorrelationMatrix().getEntry(0, 1));
-                        result.setpValuePearson(pearsonCorrelation.getCorrelationPValues().getEntry(0, 1));
-                        result.setStandardError(pearsonCorrelation.getCorrelationStandardErrors().getEntry(0, 1));
-                    } catch (final Exception e) {
-                        errors.add("Problem calculating Pearson's correlation coefficient for variable " + variable.getName() + " on " + country.getName() + " for period " + timeBuckets.get(0) + " - " + timeBuckets.get(timeBuckets.size() - 1) + ": " + e.getMessage());
-                        LOGGER.error("Failed to calculate Pearson's correlation coefficient for hypothesis coefficient for variable " + variable.getName() + " on " + country.getName() + " for period " + timeBuckets.get(0) + " - " + timeBuckets.get(timeBuckets.size() - 1) + ": " + e.getMessage(), e);
-                    }
-                    if (Double.isNaN(result.getPearsonCorrelationCoefficient())) {
-                        result.setPearsonCorrelationCoefficient(0d);
-                    }
-                    if (Double.isNaN(result.getpValuePearson())) {
-                        result.setpValuePearson(1.0d);
-                    }
-                    if (Double.isNaN(result.getStandardError())) {
-                        result.setStandardError(1.0d);
-                    }
-                    try {
-                        // 5.4) We then calculate the Spearman's correlation levels and the p-Value
-                        final SpearmansCorrelation spearmanCorrelation = new SpearmansCorrelation(matrix);
-                        result.setSpearmanCorrelationCoefficient(spearmanCorrelation.getCorrelationMatrix().getEntry(0, 1));
-                        result.setpValueSpearman(spearmanCorrelation.getRankCorrelation().getCorrelationPValues().getEntry(0, 1));
-                    } catch (final Exception e) {
-                        errors.add("Problem calculating Spearman's correlation coefficient for variable " + variable.getName() + " on " + country.getName() + " for period " + timeBuckets.get(0) + " - " + timeBuckets.get(timeBuckets.size() - 1) + ": " + e.getMessage());
-                        LOGGER.error("Failed to calculate Spearman's correlation coefficient for hypothesis coefficient for variable " + variable.getName() + " on " + country.getName() + " for period " + timeBuckets.get(0) + " - " + timeBuckets.get(timeBuckets.size() - 1) + ": " + e.getMessage(), e);
-                    }
-                    if (Double.isNaN(result.getSpearmanCorrelationCoefficient())) {
-                        result.setSpearmanCorrelationCoefficient(0d);
-                    }
-                    if (Double.isNaN(result.getpValueSpearman())) {
-                        result.setpValueSpearman(0d);
-                    }
-                    
-                    try {
-                        // 5.5) We calculate the normality of both data sets. To do that we need to sort the arrays before doing it
-                        Utilities.sort(valuesArray);
-                        Utilities.sort(eventsArray);
-                        if (valuesArray.length < 30) {
-                            result.setValuesNormality(NormalityTest.shapiro_wilk_statistic(valuesArray));
-                            result.setEventsNormality(NormalityTest.shapiro_wilk_statistic(eventsArray));
-                        } else {
-                            result.setValuesNormality(NormalityTest.kolmogorov_smirnov_statistic(valuesArray));
-                            result.setEventsNormality(NormalityTest.kolmogorov_smirnov_statistic(eventsArray));
-                        }
-                    } catch (final Exception e) {
-                        errors.add("Failure calculating the normality of the data distrubutions: " + e.getMessage());
-                        LOGGER.debug("Failure calculating the normality of the data distributions: " + e.getMessage(), e);
-                    }
-                }
-                correlationResultDAO.save(result);
                 if (newItem) {
                     results.add(result);
                 }
             }
         }
         correlationHypothesis.setResults(results);
-        correlationHypothesisDAO.save(correlationHypothesis);
-        if (!errors.isEmpty()) {
-            new Notification("Failure", errors.toString(), Notification.Type.ERROR_MESSAGE).show(correlationsView.getUI().getPage());
+        return errors;
+    }
+
+    /**
+     * Calculates the coefficients of a result from its statistics: the Pearson's correlation comes from the running sums while the Spearman's correlation
+     * and the normality of the data sets come from the values of each time bucket
+     *
+     * @param result
+     *            The result with the statistics already set
+     * @param timeline
+     *            The time buckets of the statistics
+     * @param errors
+     *            The list where the errors found are added
+     */
+    private void calculateCoefficients(CorrelationResult result, Timeline timeline, List<String> errors) {
+        final CorrelationStatistics statistics = result.getStatistics();
+        final String description = "for variable " + result.getVariable().getName() + " on " + result.getCountry().getName() + " for period " + timeline.getLabel(0) + " - " + timeline.getLabel(timeline.size() - 1);
+        if (statistics.getSampleSize() < MIN_SAMPLE_SIZE) {
+            errors.add("Not enough time buckets to calculate the correlation coefficients " + description);
+        }
+        try {
+            // 1st) We calculate all the coefficients in one go reusing the buffers of the kernel of this thread
+            final CorrelationKernel kernel = KERNELS.get();
+            kernel.calculate(statistics);
+            result.setPearsonCorrelationCoefficient(kernel.getPearsonCorrelationCoefficient());
+            result.setpValuePearson(kernel.getpValuePearson());
+            result.setStandardError(kernel.getStandardError());
+            result.setSpearmanCorrelationCoefficient(kernel.getSpearmanCorrelationCoefficient());
+            result.setpValueSpearman(kernel.getpValueSpearman());
+            if (Double.isNaN(kernel.getValuesNormality()) || Double.isNaN(kernel.getEventsNormality())) {
+                errors.add("Failure calculating the normality of the data distributions " + description);
+            } else {
+                result.setValuesNormality(kernel.getValuesNormality());
+                result.setEventsNormality(kernel.getEventsNormality());
+            }
+            // 2nd) If configured the p-values are calculated shuffling the events instead of assuming the data is normally distributed
+            if (permutationTestService.isEnabled()) {
+                final PValues pValues = permutationTestService.test(statistics.getValues(), statistics.getEvents(), kernel.getValueRanks(), kernel.getEventRanks());
+                if (pValues != null) {
+                    result.setpValuePearson(pValues.getPearson());
+                    result.setpValueSpearman(pValues.getSpearman());
+                }
+            }
+            // 3rd) We then look for the lag between the variable and the events with the strongest correlation
+            final int months = timeline.getGranularity().getMonths();
+            kernel.scanLags(statistics.getValues(), statistics.getEvents(), maxLag / months);
+            result.setBestLag(kernel.getBestLag() * months);
+            result.setBestLagCoefficient(kernel.getBestLagCoefficient());
+        } catch (final Exception e) {
+            errors.add("Problem calculating the correlation coefficients " + description + ": " + e.getMessage());
+            LOGGER.error("Failed to calculate the correlation coefficients for hypothesis " + description + ": " + e.getMessage(), e);
+        }
+        // 4th) The coefficients which could not be calculated are left as no correlation
+        if (Double.isNaN(result.getPearsonCorrelationCoefficient())) {
+            result.setPearsonCorrelationCoefficient(0d);
+        }
+        if (Double.isNaN(result.getpValuePearson())) {
+            result.setpValuePearson(1.0d);
+        }
+        if (Double.isNaN(result.getStandardError())) {
+            result.setStandardError(1.0d);
+        }
+        if (Double.isNaN(result.getSpearmanCorrelationCoefficient())) {
+            result.setSpearmanCorrelationCoefficient(0d);
+        }
+        if (Double.isNaN(result.getpValueSpearman())) {
+            result.setpValueSpearman(0d);
+        }
+        if (Double.isNaN(result.getBestLagCoefficient())) {
+            result.setBestLag(0);
+            result.setBestLagCoefficient(0d);
         }
     }
 
@@ -222,114 +302,45 @@ public class CorrelationHypothesisService {
      */
     public List<CorrelationHypothesis> generateHypothesis(Set<SocioeconomicVariable> variables, int minEventsValue) {
         // 1st) We get a list of all the existing correlations to avoid duplicates
-        final List<CorrelationHypothesis> existingOnes = new ArrayList<>();
-        correlationHypothesisDAO.findAll().forEach(existingOnes::add);
+        final List<CorrelationHypothesis> existingOnes = list();
 
-        // 2nd) First of all we need to get all the values of socioeconomic and check the maximum and minimum dates
-        final Map<CountryCode, Map<SocioeconomicVariable, YearMonth>> minDatesByCountryAndVariable = new HashMap<>();
-        final Map<CountryCode, Map<SocioeconomicVariable, YearMonth>> maxDatesByCountryAndVariable = new HashMap<>();
+        // 2nd) First of all we need to get all the values of socioeconomic and check the maximum and minimum months
+        final Map<CountryCode, Map<SocioeconomicVariable, Long>> minDatesByCountryAndVariable = new HashMap<>();
+        final Map<CountryCode, Map<SocioeconomicVariable, Long>> maxDatesByCountryAndVariable = new HashMap<>();
         final Map<CountryCode, Map<SocioeconomicVariable, Integer>> numberOfValuesByCountryAndVariable = new HashMap<>();
         for (final CountryVariableValue value : variables == null || variables.isEmpty() ? countryVariableValueDAO.findAll() : countryVariableValueDAO.findByVariableIn(variables)) {
             // 2.1) We get the values of that country
-            Map<SocioeconomicVariable, YearMonth> minDatesPerVariable = minDatesByCountryAndVariable.get(value.getCountry());
-            Map<SocioeconomicVariable, YearMonth> maxDatesPerVariable = maxDatesByCountryAndVariable.get(value.getCountry());
-            Map<SocioeconomicVariable, Integer> numberOfValuesByVariable = numberOfValuesByCountryAndVariable.get(value.getCountry());
-            if (minDatesPerVariable == null) {
-                minDatesPerVariable = new HashMap<>();
-                minDatesByCountryAndVariable.put(value.getCountry(), minDatesPerVariable);
-            }
-            if (maxDatesPerVariable == null) {
-                maxDatesPerVariable = new HashMap<>();
-                maxDatesByCountryAndVariable.put(value.getCountry(), maxDatesPerVariable);
-            }
-            if (numberOfValuesByVariable == null) {
-                numberOfValuesByVariable = new HashMap<>();
-                numberOfValuesByCountryAndVariable.put(value.getCountry(), numberOfValuesByVariable);
-            }
-            // 2.2) We then get the values that share the same variable
-            final YearMonth date = YearMonth.from(value.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
-            final YearMonth minDate = minDatesPerVariable.get(value.getVariable());
-            final YearMonth maxDate = maxDatesPerVariable.get(value.getVariable());
-            Integer numberOfValues = numberOfValuesByVariable.get(value.getVariable());
-            // 2.3) And add them to the correct place
-            if (minDate == null || date.isBefore(minDate)) {
-                minDatesPerVariable.put(value.getVariable(), date);
-            }
-            if (maxDate == null || date.isAfter(maxDate)) {
-                maxDatesPerVariable.put(value.getVariable(), date);
-            }
-            if (numberOfValues == null) {
-                numberOfValues = 0;
-            }
-            numberOfValuesByVariable.put(value.getVariable(), numberOfValues + 1);
+            final Map<SocioeconomicVariable, Long> minDatesPerVariable = minDatesByCountryAndVariable.computeIfAbsent(value.getCountry(), key -> new HashMap<>());
+            final Map<SocioeconomicVariable, Long> maxDatesPerVariable = maxDatesByCountryAndVariable.computeIfAbsent(value.getCountry(), key -> new HashMap<>());
+            final Map<SocioeconomicVariable, Integer> numberOfValuesByVariable = numberOfValuesByCountryAndVariable.computeIfAbsent(value.getCountry(), key -> new HashMap<>());
+            // 2.2) And then we update the ones of the variable
+            final long month = Timeline.toEpochMonth(value.getDate());
+            minDatesPerVariable.merge(value.getVariable(), month, Math::min);
+            maxDatesPerVariable.merge(value.getVariable(), month, Math::max);
+            numberOfValuesByVariable.merge(value.getVariable(), 1, Integer::sum);
         }
 
-        // 3rd) Now we get all the events and we count them and check the dates
-        final Map<CountryCode, Integer> eventsByTargetCountry = new HashMap<>();
-        final Map<CountryCode, YearMonth> minDateByTargetCountry = new HashMap<>();
-        final Map<CountryCode, YearMonth> maxDateByTargetCountry = new HashMap<>();
-        final Map<CountryCode, Map<CountryCode, Integer>> eventsByTargetAndSourceCountry = new HashMap<>();
-        final Map<CountryCode, Map<CountryCode, YearMonth>> minDateByTargetAndSourceCountry = new HashMap<>();
-        final Map<CountryCode, Map<CountryCode, YearMonth>> maxDateByTargetAndSourceCountry = new HashMap<>();
-        for (final Event event : eventDAO.findAll()) {
-            // 3.1) First we update the statistics by target country
-            final CountryCode targetCountry = event.getTarget().getOwner().getCountry();
-            Integer totalEvents = eventsByTargetCountry.get(targetCountry);
-            if (totalEvents == null) {
-                totalEvents = 0;
-            }
-            eventsByTargetCountry.put(targetCountry, totalEvents + 1);
-            final YearMonth date = YearMonth.from(event.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
-            YearMonth minDate = minDateByTargetCountry.get(targetCountry);
-            YearMonth maxDate = maxDateByTargetCountry.get(targetCountry);
-            if (minDate == null || date.isBefore(minDate)) {
-                minDateByTargetCountry.put(targetCountry, date);
-            }
-            if (maxDate == null || date.isAfter(maxDate)) {
-                maxDateByTargetCountry.put(targetCountry, date);
-            }
-            // 3.2) Now we try to get the incident details so we can add to the by source country maps as well
-            Map<CountryCode, Integer> eventsBySourceCountry = eventsByTargetAndSourceCountry.get(targetCountry);
-            if (eventsBySourceCountry == null) {
-                eventsBySourceCountry = new HashMap<>();
-                eventsByTargetAndSourceCountry.put(targetCountry, eventsBySourceCountry);
-            }
-            Map<CountryCode, YearMonth> minDateBySourceCountry = minDateByTargetAndSourceCountry.get(targetCountry);
-            if (minDateBySourceCountry == null) {
-                minDateBySourceCountry = new HashMap<>();
-                minDateByTargetAndSourceCountry.put(targetCountry, minDateBySourceCountry);
+        // 3rd) We get from the database the number of events per month against each country and from each source country against it
+        final Map<CountryCode, EventMonthlyCounts> eventsByTargetCountry = new HashMap<>();
+        for (final Object[] fields : eventDAO.countMonthlyByTargetCountry()) {
+            if (fields[0] != null) {
+                addMonthlyCount(eventsByTargetCountry.computeIfAbsent((CountryCode) fields[0], key -> new EventMonthlyCounts()), fields[1], fields[2], fields[3]);
             }
-            Map<CountryCode, YearMonth> maxDateBySourceCountry = maxDateByTargetAndSourceCountry.get(targetCountry);
-            if (maxDateBySourceCountry == null) {
-                maxDateBySourceCountry = new HashMap<>();
-                maxDateByTargetAndSourceCountry.put(targetCountry, maxDateBySourceCountry);
-            }
-            if (event.getAttack() != null && event.getAttack().getIncident() != null && event.getAttack().getIncident().getAttackers() != null && !event.getAttack().getIncident().getAttackers().isEmpty()) {
-                for (final Attacker attacker : event.getAttack().getIncident().getAttackers().stream().filter(attacker -> attacker.getCountry() != null).collect(Collectors.toList())) {
-                    final CountryCode sourceCountry = attacker.getCountry();
-                    totalEvents = eventsBySourceCountry.get(sourceCountry);
-                    if (totalEvents == null) {
-                        totalEvents = 0;
-                    }
-                    eventsBySourceCountry.put(sourceCountry, totalEvents + 1);
-                    minDate = minDateBySourceCountry.get(sourceCountry);
-                    maxDate = maxDateBySourceCountry.get(sourceCountry);
-                    if (minDate == null || date.isBefore(minDate)) {
-                        minDateBySourceCountry.put(sourceCountry, minDate);
-                    }
-                    if (maxDate == null || date.isAfter(maxDate)) {
-                        maxDateBySourceCountry.put(sourceCountry, maxDate);
-                    }
-                }
+        }
+        final Map<CountryCode, Map<CountryCode, EventMonthlyCounts>> eventsByTargetAndSourceCountry = new HashMap<>();
+        for (final Object[] fields : eventDAO.countMonthlyByTargetAndSourceCountry()) {
+            if (fields[0] != null && fields[1] != null) {
+                addMonthlyCount(eventsByTargetAndSourceCountry.computeIfAbsent((CountryCode) fields[0], key -> new HashMap<>()).computeIfAbsent((CountryCode) fields[1], key -> new EventMonthlyCounts()), fields[2], fields[3], fields[4]);
             }
         }
-        
-        // 4th) We now create the hypothesis using both data sets
+
+        // 4th) We now create the hypothesis using the values and the number of events per month
         final List<CorrelationHypothesis> hypothesis = new ArrayList<>();
         for (final CountryCode targetCountry : eventsByTargetCountry.keySet()) {
             // 4.1) First we create the simple hypothesis linking each targeted country with its own variables
             // 4.1.1) If the number of events doesn't reach a set minimum (non zero) then we ignore it
-            if (minEventsValue > 0 && eventsByTargetCountry.get(targetCountry) < minEventsValue) {
+            final EventMonthlyCounts eventsOfTarget = eventsByTargetCountry.get(targetCountry);
+            if (eventsOfTarget.getTotal() == 0 || minEventsValue > 0 && eventsOfTarget.getTotal() < minEventsValue) {
                 continue;
             }
             // 4.1.2) We now loop the variables to see which ones are available to test and take the dates there to define the ranges
@@ -342,22 +353,18 @@ public class CorrelationHypothesisService {
                     continue;
                 }
                 // We then calculate the min and max dates to use
-                final YearMonth minVariableDate = minDatesByCountryAndVariable.get(targetCountry).get(variable);
-                final YearMonth minEventsDate = minDateByTargetCountry.get(targetCountry);
-                final YearMonth minDate = minVariableDate.isAfter(minEventsDate) ? minVariableDate : minEventsDate;
-                final YearMonth maxVariableDate = maxDatesByCountryAndVariable.get(targetCountry).get(variable);
-                final YearMonth maxEventsDate = maxDateByTargetCountry.get(targetCountry);
-                final YearMonth maxDate = maxVariableDate.isBefore(maxEventsDate) ? maxVariableDate : maxEventsDate;
+                final long minDate = Math.max(minDatesByCountryAndVariable.get(targetCountry).get(variable), eventsOfTarget.getFirstMonth());
+                final long maxDate = Math.min(maxDatesByCountryAndVariable.get(targetCountry).get(variable), eventsOfTarget.getLastMonth());
                 // And we make sure the max date is after the min date
-                if (!maxDate.isAfter(minDate)) {
+                if (maxDate <= minDate) {
                     continue;
                 }
                 final CorrelationHypothesis correlationHypothesis = new CorrelationHypothesis();
                 correlationHypothesis.setTargetCountry(targetCountry);
                 correlationHypothesis.setSector(Sector.ROOT);
                 correlationHypothesis.setVariables(new HashSet<>(Arrays.asList(new SocioeconomicVariable[] { variable })));
-                correlationHypothesis.setStartDate(Date.from(minDate.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant()));
-                correlationHypothesis.setEndDate(Date.from(maxDate.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+                correlationHypothesis.setStartDate(Timeline.toDate(minDate));
+                correlationHypothesis.setEndDate(Timeline.toDate(maxDate));
                 if (!existingOnes.contains(correlationHypothesis)) {
                     hypothesis.add(correlationHypothesis);
                 } else {
@@ -366,18 +373,19 @@ public class CorrelationHypothesisService {
             }
 
             // 4.2) We then create the hypothesis which involves the countries source of the attacks
-            if (!eventsByTargetAndSourceCountry.containsKey(targetCountry)) {
-                continue;
-            }
-            for (final CountryCode sourceCountry : eventsByTargetAndSourceCountry.get(targetCountry).keySet()) {
-                // 4.2.1) We apply the same limit in this type of correlations
-                if (minEventsValue > 0 && eventsByTargetAndSourceCountry.get(targetCountry).get(sourceCountry) < minEventsValue) {
+            final Map<CountryCode, EventMonthlyCounts> eventsBySourceCountry = eventsByTargetAndSourceCountry.getOrDefault(targetCountry, Collections.emptyMap());
+            for (final CountryCode sourceCountry : eventsBySourceCountry.keySet()) {
+                // 4.2.1) We ignore the source country undefined
+                if (sourceCountry == CountryCode.UNDEFINED) {
                     continue;
                 }
-                // 4.2.2) We ignore the source country undefined
-                if (sourceCountry == CountryCode.UNDEFINED) {
+                // 4.2.2) We apply the same limit in this type of correlations
+                final EventMonthlyCounts eventsFromSource = eventsBySourceCountry.get(sourceCountry);
+                if (eventsFromSource.getTotal() == 0 || minEventsValue > 0 && eventsFromSource.getTotal() < minEventsValue) {
                     continue;
                 }
+                final long minEventsDate = eventsFromSource.getFirstMonth();
+                final long maxEventsDate = eventsFromSource.getLastMonth();
 
                 // 4.2.3) In the case of the variables we need to get the minimum common period for these kind of analysis
                 for (final SocioeconomicVariable variable : minDatesByCountryAndVariable.get(targetCountry).keySet()) {
@@ -385,36 +393,32 @@ public class CorrelationHypothesisService {
                     if (numberOfValuesByCountryAndVariable.get(targetCountry).get(variable) < 3) {
                         continue;
                     }
-                    final YearMonth minTargetVariableDate = minDatesByCountryAndVariable.get(targetCountry).get(variable);
+                    final long minTargetVariableDate = minDatesByCountryAndVariable.get(targetCountry).get(variable);
                     if (!minDatesByCountryAndVariable.containsKey(sourceCountry)) {
                         continue;
                     }
-                    final YearMonth minSourceVariableDate = minDatesByCountryAndVariable.get(sourceCountry).get(variable);
-                    final YearMonth minEventsDate = minDateByTargetAndSourceCountry.get(targetCountry).get(sourceCountry);
-                    if (minSourceVariableDate == null || minEventsDate == null) {
-                        continue;
-                    }
-                    final YearMonth minVariableDate = minTargetVariableDate.isAfter(minSourceVariableDate) ? minTargetVariableDate.isAfter(minEventsDate) ? minTargetVariableDate : minEventsDate : minSourceVariableDate.isAfter(minEventsDate) ? minSourceVariableDate : minEventsDate;
-                    final YearMonth maxTargetVariableDate = maxDatesByCountryAndVariable.get(targetCountry).get(variable);
-                    final YearMonth maxSourceVariableDate = maxDatesByCountryAndVariable.get(sourceCountry).get(variable);
-                    final YearMonth maxEventsDate = maxDateByTargetAndSourceCountry.get(targetCountry).get(sourceCountry);
-                    if (maxSourceVariableDate == null || maxEventsDate == null) {
+                    final Long minSourceVariableDate = minDatesByCountryAndVariable.get(sourceCountry).get(variable);
+                    if (minSourceVariableDate == null) {
                         continue;
                     }
-                    final YearMonth maxVariableDate = maxTargetVariableDate.isBefore(maxSourceVariableDate) ? maxTargetVariableDate.isBefore(maxEventsDate) ? maxTargetVariableDate : maxEventsDate : maxSourceVariableDate.isBefore(maxEventsDate) ? maxSourceVariableDate : maxEventsDate;
+                    final long minVariableDate = Math.max(Math.max(minTargetVariableDate, minSourceVariableDate), minEventsDate);
+                    final long maxTargetVariableDate = maxDatesByCountryAndVariable.get(targetCountry).get(variable);
+                    final long maxSourceVariableDate = maxDatesByCountryAndVariable.get(sourceCountry).get(variable);
+                    final long maxVariableDate = Math.min(Math.min(maxTargetVariableDate, maxSourceVariableDate), maxEventsDate);
                     // We need at least three values on the variable for the source country
                     if (numberOfValuesByCountryAndVariable.get(sourceCountry).get(variable) < 3) {
                         continue;
                     }
-                    if (!maxVariableDate.isAfter(minVariableDate)) {
+                    if (maxVariableDate <= minVariableDate) {
                         continue;
                     }
                     final CorrelationHypothesis correlationHypothesis = new CorrelationHypothesis();
                     correlationHypothesis.setTargetCountry(targetCountry);
+                    correlationHypothesis.setSourceCountries(new HashSet<>(Arrays.asList(new CountryCode[] { sourceCountry })));
                     correlationHypothesis.setSector(Sector.ROOT);
                     correlationHypothesis.setVariables(new HashSet<>(Arrays.asList(new SocioeconomicVariable[] { variable })));
-                    correlationHypothesis.setStartDate(Date.from(minVariableDate.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant()));
-                    correlationHypothesis.setEndDate(Date.from(maxVariableDate.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+                    correlationHypothesis.setStartDate(Timeline.toDate(minVariableDate));
+                    correlationHypothesis.setEndDate(Timeline.toDate(maxVariableDate));
                     if (!existingOnes.contains(correlationHypothesis)) {
                         hypothesis.add(correlationHypothesis);
                     } else {
@@ -431,22 +435,30 @@ public class CorrelationHypothesisService {
      *
      * @param correlation
      *            The correlation for which we are doing the comparison
-     * @return A list of the time buckets we need to create
+     * @return The timeline with the time buckets of the period of the correlation
      */
-    public List<YearMonth> generateTimeBuckets(CorrelationHypothesis correlation) {
-        // 1st) We define the end and start plus the format of the buckets
-        YearMonth startDate = YearMonth.from(correlation.getEffectiveStartDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
-        final YearMonth endDate = YearMonth.from(correlation.getEffectiveEndDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
-
-        // 2nd) We loop from start to end month by month adding to the bucket
-        final List<YearMonth> timeBuckets = new ArrayList<>();
-        while (startDate.isBefore(endDate)) {
-            timeBuckets.add(startDate);
-            startDate = startDate.plusMonths(1);
+    public Timeline generateTimeline(CorrelationHypothesis correlation) {
+        return Timeline.of(correlation.getEffectiveStartDate(), correlation.getEffectiveEndDate(), granularity);
+    }
+
+    /**
+     * This method returns an array with the frequency of the events matching the hypothesis per time bucket so it can be used for correlations. The
+     * frequencies are taken from the event counts kept in memory, or counted by the database if they have not been loaded yet, instead of loading the events
+     *
+     * @param correlation
+     *            The correlation for which we are obtaining the events
+     * @param timeline
+     *            The time buckets on which place the events
+     * @return An array with the frequency of the events per time bucket
+     */
+    public double[] getEventsDataArray(CorrelationHypothesis correlation, Timeline timeline) {
+        // If the counts are not in memory yet we ask the database only for the ones of this hypothesis instead of loading all the events
+        final EventMonthlyCounts counts = eventCountCube.isLoaded() ? eventCountCube.aggregate(correlation.getEffectiveTargetCountry(), correlation.getSector(), correlation.getEffectiveSourceCountries()) : retrieveEventCounts(correlation, timeline);
+        final double[] eventsArray = new double[timeline.size()];
+        for (int i = 0; i < eventsArray.length; i++) {
+            eventsArray[i] = counts.getCount(timeline.getStartMonth(i), timeline.getEndMonth(i));
         }
-        timeBuckets.add(endDate);
-        
-        return timeBuckets;
+        return eventsArray;
     }
 
     /**
@@ -454,18 +466,18 @@ public class CorrelationHypothesisService {
      *
      * @param events
      *            The list of the events to place in time buckets
-     * @param timeBuckets
+     * @param timeline
      *            The time buckets on which place the events
      * @return An array with the frequency of the events per time bucket
      */
-    public double[] getEventsDataArray(List<Event> events, List<YearMonth> timeBuckets) {
-        final double[] eventsArray = new double[timeBuckets.size()];
-        // We loop per each event
+    public double[] getEventsDataArray(List<Event> events, Timeline timeline) {
+        final double[] eventsArray = new double[timeline.size()];
+        // We loop per each event incrementing the counter of its bucket
         for (final Event event : events) {
-            final YearMonth eventBucket = YearMonth.from(event.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
-            // We found where in the events array we need to place it and increment the counter
-            final int position = timeBuckets.indexOf(eventBucket);
-            eventsArray[position]++;
+            final int position = timeline.indexOf(event.getDate());
+            if (position >= 0) {
+                eventsArray[position]++;
+            }
         }
         return eventsArray;
     }
@@ -473,48 +485,35 @@ public class CorrelationHypothesisService {
     /**
      * This method generates an array with the data for the socioeconomic variable interpolating any missing values
      *
-     * @param variableValues
+     * @param series
      *            All the historical values
-     * @param timeBuckets
-     *            The list of times for which we need to return the values
+     * @param timeline
+     *            The time buckets for which we need to return the values
      * @param result
      * @return An array with values for each time bucket
      */
-    public double[] getValuesArray(List<CountryVariableValue> variableValues, List<YearMonth> timeBuckets, CorrelationResult result) throws OutOfRangeException {
-        // 1st) We create the two arrays of known values and dates and a map for the values
-        final double[] values = new double[variableValues.size()];
-        final double[] dates = new double[variableValues.size()];
-        int position = 0;
-        final Map<YearMonth, CountryVariableValue> valuesPerBucket = new HashMap<>();
-        for (final CountryVariableValue variableValue : variableValues) {
-            values[position] = variableValue.getValue();
-            dates[position] = variableValue.getDate().getTime();
-            position++;
-            valuesPerBucket.put(YearMonth.from(variableValue.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate()), variableValue);
-        }
-
-        // 2nd) We create the interpolation function
-        final PolynomialSplineFunction function = new SplineInterpolator().interpolate(dates, values);
+    public double[] getValuesArray(CountryVariableSeries series, Timeline timeline, CorrelationResult result) throws OutOfRangeException {
+        // 1st) We get the interpolated values of the months of the timeline, which are calculated only once per series
+        final MonthlyValues monthlyValues = series.interpolate(timeline.getStartMonth(0), timeline.getStartMonth(timeline.size() - 1));
 
-        // 3rd) Now we go through the time buckets putting values that we have or asking the function to provide us with values for the unknowns
-        final double[] valuesArray = new double[timeBuckets.size()];
-        position = 0;
+        // 2nd) Now we go through the time buckets putting the latest value we have on each one or the interpolated one for the unknowns
+        final double[] valuesArray = new double[timeline.size()];
         boolean interpolated = false;
-        for (final YearMonth timeBucket : timeBuckets) {
-            if (valuesPerBucket.containsKey(timeBucket)) {
-                valuesArray[position++] = valuesPerBucket.get(timeBucket).getValue();
+        for (int i = 0; i < valuesArray.length; i++) {
+            final int known = series.indexOfMonths(timeline.getStartMonth(i), timeline.getEndMonth(i));
+            if (known >= 0) {
+                valuesArray[i] = series.getValues()[known];
             } else {
-                try {
-                    valuesArray[position++] = function.value(Date.from(timeBucket.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant()).getTime());
-                } catch (final OutOfRangeException e) {
-                    LOGGER.debug("The value for the country " + result.getCountry() + " and date " + timeBucket + " is out of the interpolating range", e);
-                    valuesArray[position - 1] = e.getArgument().doubleValue();
+                valuesArray[i] = monthlyValues.get(timeline.getStartMonth(i));
+                if (Double.isNaN(valuesArray[i])) {
+                    LOGGER.debug("The value for the country " + result.getCountry() + " and date " + timeline.getLabel(i) + " is out of the interpolating range");
+                    valuesArray[i] = timeline.getStartMillis(i);
                 }
                 interpolated = true;
             }
         }
         
-        // 4th) We store in the result the information regarding the interpolation
+        // 3rd) We store in the result the information regarding the interpolation
         result.setInterpolatedData(interpolated);
         return valuesArray;
     }
@@ -525,39 +524,159 @@ public class CorrelationHypothesisService {
      * @return The existing correlations in the database
      */
     public List<CorrelationHypothesis> list() {
-        final List<CorrelationHypothesis> correlations = new ArrayList<>();
-        correlationHypothesisDAO.findAll().forEach(correlations::add);
-        return correlations;
+        return fetchPlanService.load(() -> {
+            final List<CorrelationHypothesis> correlations = new ArrayList<>();
+            correlationHypothesisDAO.findAll().forEach(correlations::add);
+            return correlations;
+        }, FetchPlanService::initializeHypotheses);
     }
 
     /**
-     * This method returns a list of the events that match the correlation criteria
+     * Refreshes the results affected by the events and values changed since the last refresh, so they do not need to be calculated again by hand. When only
+     * some months of events changed just those time buckets are updated on the statistics, otherwise the data of the result is generated again from the
+     * event counts and the series kept in memory
+     */
+    @Scheduled(fixedDelayString = "${sid.correlations.refreshDelay:60000}")
+    public void refreshChangedResults() {
+        // 1st) While a search is saving hypotheses and results we leave the changes pending for the next refresh
+        if (!searchLock.writeLock().tryLock()) {
+            LOGGER.debug("Refresh of the correlation results postponed as there is a search running");
+            return;
+        }
+        try {
+            final Changes changes = correlationDirtyTracker.takeChanges();
+            if (changes.isEmpty()) {
+                return;
+            }
+            // 2nd) We refresh only the hypotheses with results affected by the changes
+            for (final CorrelationHypothesis hypothesis : retrieveChangedHypotheses(changes)) {
+                try {
+                    refreshResults(hypothesis, changes);
+                } catch (final Exception e) {
+                    LOGGER.error("Problem refreshing the results of the correlation hypothesis " + hypothesis.getId() + ": " + e.getMessage(), e);
+                }
+            }
+        } finally {
+            searchLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the hypotheses with results which may be affected by the changes: the ones whose events are against a country with changed events and the
+     * ones with a result for a country and variable with changed values
      *
-     * @param correlation
-     *            the correlation for which we are trying to obtain the data
-     * @return A list with the events that match the given criteria
+     * @param changes
+     *            The changes on the events and values
+     * @return The hypotheses to refresh
      */
-    public List<Event> retrieveEventData(CorrelationHypothesis correlation) {
-        List<Event> events = new ArrayList<>();
-        // 1st) First we get the events that match the given dates, target countries and sector
-        final LocalDate endDate = new java.sql.Date(correlation.getEndDate().getTime()).toLocalDate();
-        final LocalDate lastDay = endDate.with(TemporalAdjusters.lastDayOfMonth());
-        events.addAll(eventDAO.findByDateBetweenAndTargetCountry(correlation.getStartDate(), java.sql.Date.valueOf(lastDay), correlation.getEffectiveTargetCountry()).stream().filter(event -> event.getTarget().getOwner().getSector().isChildOf(correlation.getSector())).collect(Collectors.toList()));
-
-        // 2nd) If they have defined a source country then we apply a filter on that as well
-        if (correlation.getSourceCountries() != null && !correlation.getSourceCountries().isEmpty()) {
-            events = events.stream().filter(event -> {
-                boolean contained = false;
-                for (final Attacker attacker : event.getAttack().getIncident().getAttackers()) {
-                    if (correlation.getSourceCountries().contains(attacker.getCountry())) {
-                        contained = true;
-                        break;
+    private Collection<CorrelationHypothesis> retrieveChangedHypotheses(Changes changes) {
+        return fetchPlanService.load(() -> {
+            if (changes.isAllEvents() || changes.isAllValues()) {
+                return correlationHypothesisDAO.findWithResults();
+            }
+            final Map<Long, CorrelationHypothesis> hypotheses = new LinkedHashMap<>();
+            if (!changes.getEventCountries().isEmpty()) {
+                correlationHypothesisDAO.findWithResultsByEffectiveTargetCountryIn(changes.getEventCountries()).forEach(hypothesis -> hypotheses.put(hypothesis.getId(), hypothesis));
+            }
+            if (!changes.getValueCountries().isEmpty()) {
+                correlationHypothesisDAO.findByResultCountryInAndResultVariableIn(changes.getValueCountries(), changes.getValueVariables()).forEach(hypothesis -> hypotheses.putIfAbsent(hypothesis.getId(), hypothesis));
+            }
+            return hypotheses.values();
+        }, FetchPlanService::initializeHypotheses);
+    }
+
+    /**
+     * Returns the lock the searches of correlations hold while they run. Several searches can hold it at the same time, but the results are not refreshed
+     * until all of them finish
+     *
+     * @return The lock of the searches
+     */
+    public Lock getSearchLock() {
+        return searchLock.readLock();
+    }
+
+    /**
+     * Refreshes the results of a hypothesis affected by the given changes
+     *
+     * @param hypothesis
+     *            The hypothesis with the results
+     * @param changes
+     *            The changes on the events and values
+     */
+    private void refreshResults(CorrelationHypothesis hypothesis, Changes changes) {
+        final boolean eventsChanged = changes.hasEventChanges(hypothesis.getEffectiveTargetCountry());
+        final Timeline timeline = generateTimeline(hypothesis);
+        final List<String> errors = new ArrayList<>();
+        EventMonthlyCounts counts = null;
+        double[] eventsArray = null;
+        for (final CorrelationResult result : hypothesis.getResults()) {
+            final boolean valuesChanged = changes.hasValueChanges(result.getCountry(), result.getVariable());
+            if (!eventsChanged && !valuesChanged) {
+                continue;
+            }
+            final CorrelationStatistics statistics = result.getStatistics();
+            if (!valuesChanged && !changes.isAllEvents() && statistics != null && statistics.covers(timeline.getStartMonth(0), timeline.size())) {
+                // 1st) If only some months of events changed we just replace the number of events of their buckets
+                if (counts == null) {
+                    counts = eventCountCube.aggregate(hypothesis.getEffectiveTargetCountry(), hypothesis.getSector(), hypothesis.getEffectiveSourceCountries());
+                }
+                for (final long month : changes.getEventMonths(hypothesis.getEffectiveTargetCountry())) {
+                    final int bucket = timeline.indexOfMonth(month);
+                    if (bucket >= 0) {
+                        statistics.update(bucket, statistics.getValues()[bucket], counts.getCount(timeline.getStartMonth(bucket), timeline.getEndMonth(bucket)));
                     }
                 }
-                return contained;
-            }).collect(Collectors.toList());
+            } else {
+                // 2nd) Otherwise we generate all the data of the result again
+                if (eventsArray == null) {
+                    eventsArray = getEventsDataArray(hypothesis, timeline);
+                }
+                final double[] valuesArray = getValuesArray(countryVariableSeriesStore.getSeries(result.getCountry(), result.getVariable()), timeline, result);
+                result.setStatistics(new CorrelationStatistics(timeline.getStartMonth(0), valuesArray, eventsArray));
+            }
+            calculateCoefficients(result, timeline, errors);
+            correlationResultDAO.save(result);
+        }
+        if (!errors.isEmpty()) {
+            LOGGER.debug("Errors refreshing the results of the correlation hypothesis " + hypothesis.getId() + ": " + errors);
         }
-        return events;
+    }
+
+    /**
+     * This method returns the number of events per month matching the hypothesis inside the given time buckets. The subsectors of the hypothesis sector
+     * and its source countries are turned into conditions of the query, so only the counts are brought from the database instead of the events
+     *
+     * @param correlation
+     *            The correlation for which we are retrieving the events
+     * @param timeline
+     *            The time buckets for which we need the events
+     * @return The number of events per month
+     */
+    public EventMonthlyCounts retrieveEventCounts(CorrelationHypothesis correlation, Timeline timeline) {
+        final EventMonthlyCounts counts = new EventMonthlyCounts();
+        if (timeline.size() == 0) {
+            return counts;
+        }
+        // 1st) We get the period covered by the time buckets, the end is the first day after the last bucket
+        final Date start = Timeline.toDate(timeline.getStartMonth(0));
+        final Date end = Timeline.toDate(timeline.getEndMonth(timeline.size() - 1) + 1);
+
+        // 2nd) The root sector includes all the events, even the ones whose target has no owner
+        final Sector sector = correlation.getSector() != null ? correlation.getSector() : Sector.ROOT;
+        final boolean allSectors = sector == Sector.ROOT;
+
+        // 3rd) We count the events per month filtering by the source countries only if they have been defined
+        final Set<CountryCode> sourceCountries = correlation.getEffectiveSourceCountries();
+        final List<Object[]> rows;
+        if (sourceCountries == null || sourceCountries.isEmpty()) {
+            rows = eventDAO.countMonthly(start, end, correlation.getEffectiveTargetCountry(), allSectors, sector.getSubsectors());
+        } else {
+            rows = eventDAO.countMonthly(start, end, correlation.getEffectiveTargetCountry(), allSectors, sector.getSubsectors(), sourceCountries);
+        }
+        for (final Object[] row : rows) {
+            addMonthlyCount(counts, row[0], row[1], row[2]);
+        }
+        return counts;
     }
     
     /**
@@ -567,7 +686,7 @@ public class CorrelationHypothesisService {
      *            The correlation for which we are retrieving the data
      * @return A map containing as key the country and as value another map which contains as key the variable and as value the values
      */
-    private Map<CountryCode, Map<SocioeconomicVariable, List<CountryVariableValue>>> retrieveSocioeconomicData(CorrelationHypothesis correlation) {
+    private Map<CountryCode, Map<SocioeconomicVariable, CountryVariableSeries>> retrieveSocioeconomicData(CorrelationHypothesis correlation) {
         // 1st) We create a single list of countries for which we need to retrieve the data
         final Set<CountryCode> countries = new HashSet<>();
         countries.add(correlation.getEffectiveTargetCountry());
@@ -576,17 +695,30 @@ public class CorrelationHypothesisService {
         }
         
         // 2nd) We loop per each country and retrieve all data of that country and variable (we do not filter by date so we can interpolate better)
-        final Map<CountryCode, Map<SocioeconomicVariable, List<CountryVariableValue>>> valuesPerCountryAndVariable = new HashMap<>();
+        final Map<CountryCode, Map<SocioeconomicVariable, CountryVariableSeries>> valuesPerCountryAndVariable = new HashMap<>();
         for (final CountryCode country : countries) {
-            final Map<SocioeconomicVariable, List<CountryVariableValue>> valuesPerVariable = new HashMap<>();
+            final Map<SocioeconomicVariable, CountryVariableSeries> valuesPerVariable = new HashMap<>();
             for (final SocioeconomicVariable variable : correlation.getVariables()) {
-                valuesPerVariable.put(variable, countryVariableValueDAO.findByCountryAndVariableOrderByDate(country, variable));
+                valuesPerVariable.put(variable, countryVariableSeriesStore.getSeries(country, variable));
             }
             valuesPerCountryAndVariable.put(country, valuesPerVariable);
         }
         return valuesPerCountryAndVariable;
     }
     
+    /**
+     * Saves a correlation to the database together with its results
+     *
+     * @param correlation
+     *            The correlation with its results already calculated
+     */
+    public void saveWithResults(CorrelationHypothesis correlation) {
+        if (correlation.getResults() != null && !correlation.getResults().isEmpty()) {
+            correlationResultDAO.save(correlation.getResults());
+        }
+        correlationHypothesisDAO.save(correlation);
+    }
+
     /**
      * Saves an existing correlation to the database
      *
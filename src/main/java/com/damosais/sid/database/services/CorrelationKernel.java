@@ -0,0 +1,356 @@
+package com.damosais.sid.database.services;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.special.Beta;
+
+import com.damosais.sid.database.beans.CorrelationStatistics;
+
+import net.sourceforge.jdistlib.disttest.NormalityTest;
+
+/**
+ * This class calculates all the coefficients of a simple correlation between two data sets in a single place: the Pearson's correlation with its p-value
+ * and standard error, the Spearman's correlation (ranking the ties with their average position) with its p-value and the normality of both data sets. The
+ * sorted copies and the ranks are kept in buffers which are reused while the data sets have the same length, so calculating many correlations over the
+ * same period does not create new arrays. As the buffers are shared an instance must not be used by more than one thread at the same time.
+ * It can also scan the Pearson's correlation between the values and the events shifted by a range of lags, to find out if the changes of a variable
+ * precede or follow the attacks
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+public class CorrelationKernel {
+    // Below this size the normality is checked with Shapiro-Wilk and above with Kolmogorov-Smirnov
+    private static final int SHAPIRO_WILK_LIMIT = 30;
+    // The lagged correlations are only calculated if the data sets still overlap on this number of buckets
+    private static final int MIN_OVERLAP = 3;
+    private double[] sortedValues = new double[0];
+    private double[] sortedEvents = new double[0];
+    private double[] valueRanks = new double[0];
+    private double[] eventRanks = new double[0];
+    private double[] valuesPrefix = new double[1];
+    private double[] eventsPrefix = new double[1];
+    private double[] squaredValuesPrefix = new double[1];
+    private double[] squaredEventsPrefix = new double[1];
+    private double pearsonCorrelationCoefficient;
+    private double pValuePearson;
+    private double standardError;
+    private double spearmanCorrelationCoefficient;
+    private double pValueSpearman;
+    private double valuesNormality;
+    private double eventsNormality;
+    private int bestLag;
+    private double bestLagCoefficient;
+
+    /**
+     * Returns the Pearson's correlation coefficient of two data sets of the same length
+     *
+     * @param x
+     *            The first data set
+     * @param y
+     *            The second data set
+     * @return The correlation coefficient or NaN if any of the data sets is constant
+     */
+    private static double correlation(double[] x, double[] y) {
+        final int n = x.length;
+        double meanX = 0d;
+        double meanY = 0d;
+        for (int i = 0; i < n; i++) {
+            meanX += x[i];
+            meanY += y[i];
+        }
+        meanX /= n;
+        meanY /= n;
+        double sumXX = 0d;
+        double sumYY = 0d;
+        double sumXY = 0d;
+        for (int i = 0; i < n; i++) {
+            final double dx = x[i] - meanX;
+            final double dy = y[i] - meanY;
+            sumXX += dx * dx;
+            sumYY += dy * dy;
+            sumXY += dx * dy;
+        }
+        return sumXX == 0d || sumYY == 0d ? Double.NaN : Math.max(-1d, Math.min(1d, sumXY / Math.sqrt(sumXX * sumYY)));
+    }
+
+    /**
+     * Returns the position of the first element of a sorted array which is not smaller than the given value
+     *
+     * @param sorted
+     *            The sorted array
+     * @param value
+     *            The value to look for
+     * @param strict
+     *            If true the position of the first element bigger than the value is returned instead
+     * @return The position found (the length of the array if there is none)
+     */
+    private static int bound(double[] sorted, double value, boolean strict) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            final int middle = low + high >>> 1;
+            if (sorted[middle] < value || strict && sorted[middle] == value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the two tailed p-value of the t test of a correlation coefficient, which follows a Student's t distribution with n - 2 degrees of freedom.
+     * The probability is taken directly from the regularized beta function the distribution uses, as 2 * P(T &lt; -|t|) = I(df / (df + t^2), df / 2, 1 / 2)
+     * and df / (df + t^2) = 1 - r^2
+     *
+     * @param coefficient
+     *            The correlation coefficient
+     * @param n
+     *            The number of observations
+     * @return The p-value or NaN if it cannot be calculated
+     */
+    private static double pValue(double coefficient, int n) {
+        final int degreesOfFreedom = n - 2;
+        if (Double.isNaN(coefficient) || degreesOfFreedom <= 0) {
+            return Double.NaN;
+        }
+        return Beta.regularizedBeta(1d - coefficient * coefficient, 0.5d * degreesOfFreedom, 0.5d);
+    }
+
+    /**
+     * Fills the ranks of a data set, giving to the tied values the average of their positions
+     *
+     * @param data
+     *            The data set
+     * @param sorted
+     *            The data set already sorted
+     * @param ranks
+     *            The array where the ranks are written
+     */
+    private static void rank(double[] data, double[] sorted, double[] ranks) {
+        for (int i = 0; i < data.length; i++) {
+            // The tied values take the positions from the first not smaller to the last not bigger (counting from 1)
+            ranks[i] = (bound(sorted, data[i], false) + 1 + bound(sorted, data[i], true)) / 2d;
+        }
+    }
+
+    /**
+     * Calculates all the coefficients for two data sets
+     *
+     * @param values
+     *            The values of the variable on each time bucket
+     * @param events
+     *            The number of events on each time bucket
+     */
+    public void calculate(double[] values, double[] events) {
+        calculate(values, events, correlation(values, events));
+    }
+
+    /**
+     * Calculates all the coefficients for the data of the given statistics, taking the Pearson's correlation from its running sums
+     *
+     * @param statistics
+     *            The statistics of a result
+     */
+    public void calculate(CorrelationStatistics statistics) {
+        calculate(statistics.getValues(), statistics.getEvents(), statistics.getPearsonCorrelationCoefficient());
+    }
+
+    /**
+     * Calculates all the coefficients for two data sets once the Pearson's correlation coefficient is known
+     *
+     * @param values
+     *            The values of the variable on each time bucket
+     * @param events
+     *            The number of events on each time bucket
+     * @param pearson
+     *            The Pearson's correlation coefficient of the data sets
+     */
+    @SuppressWarnings("deprecation")
+    private void calculate(double[] values, double[] events, double pearson) {
+        final int n = values.length;
+        if (sortedValues.length != n) {
+            // The normality tests take the whole array so the buffers must have the exact length
+            sortedValues = new double[n];
+            sortedEvents = new double[n];
+            valueRanks = new double[n];
+            eventRanks = new double[n];
+        }
+
+        // 1st) The Pearson's correlation with its p-value and its standard error
+        pearsonCorrelationCoefficient = pearson;
+        pValuePearson = pValue(pearson, n);
+        standardError = n > 2 ? Math.sqrt((1d - pearson * pearson) / (n - 2)) : Double.NaN;
+
+        // 2nd) We sort copies of the data sets, which are needed both to rank them and to check their normality
+        System.arraycopy(values, 0, sortedValues, 0, n);
+        System.arraycopy(events, 0, sortedEvents, 0, n);
+        Arrays.sort(sortedValues);
+        Arrays.sort(sortedEvents);
+
+        // 3rd) The Spearman's correlation is the Pearson's correlation of the ranks
+        rank(values, sortedValues, valueRanks);
+        rank(events, sortedEvents, eventRanks);
+        spearmanCorrelationCoefficient = correlation(valueRanks, eventRanks);
+        pValueSpearman = pValue(spearmanCorrelationCoefficient, n);
+
+        // 4th) Finally the normality of both data sets
+        try {
+            if (n < SHAPIRO_WILK_LIMIT) {
+                valuesNormality = NormalityTest.shapiro_wilk_statistic(sortedValues);
+                eventsNormality = NormalityTest.shapiro_wilk_statistic(sortedEvents);
+            } else {
+                valuesNormality = NormalityTest.kolmogorov_smirnov_statistic(sortedValues);
+                eventsNormality = NormalityTest.kolmogorov_smirnov_statistic(sortedEvents);
+            }
+        } catch (final RuntimeException e) {
+            valuesNormality = Double.NaN;
+            eventsNormality = Double.NaN;
+        }
+    }
+
+    /**
+     * Calculates the Pearson's correlation of the values against the events shifted by each lag between -maxLag and maxLag and keeps the one with the
+     * strongest correlation. A positive lag of k buckets pairs the value of each bucket with the events k buckets later (so the variable precedes the
+     * attacks) and a negative one with the events k buckets before. The sums of each overlapping window are taken from prefix sums, so only the sums of the
+     * products need to go through the data for each lag. On a draw the smallest lag wins
+     *
+     * @param values
+     *            The values of the variable on each time bucket
+     * @param events
+     *            The number of events on each time bucket
+     * @param maxLag
+     *            The maximum number of buckets to shift in each direction
+     */
+    public void scanLags(double[] values, double[] events, int maxLag) {
+        final int n = values.length;
+        if (valuesPrefix.length < n + 1) {
+            valuesPrefix = new double[n + 1];
+            eventsPrefix = new double[n + 1];
+            squaredValuesPrefix = new double[n + 1];
+            squaredEventsPrefix = new double[n + 1];
+        }
+
+        // 1st) We accumulate the prefix sums over the data centred on their means to avoid losing precision with large values
+        double meanValues = 0d;
+        double meanEvents = 0d;
+        for (int i = 0; i < n; i++) {
+            meanValues += values[i];
+            meanEvents += events[i];
+        }
+        meanValues /= Math.max(1, n);
+        meanEvents /= Math.max(1, n);
+        for (int i = 0; i < n; i++) {
+            final double value = values[i] - meanValues;
+            final double eventCount = events[i] - meanEvents;
+            valuesPrefix[i + 1] = valuesPrefix[i] + value;
+            eventsPrefix[i + 1] = eventsPrefix[i] + eventCount;
+            squaredValuesPrefix[i + 1] = squaredValuesPrefix[i] + value * value;
+            squaredEventsPrefix[i + 1] = squaredEventsPrefix[i] + eventCount * eventCount;
+        }
+
+        // 2nd) We now go from the smallest lags to the biggest calculating the correlation of the overlapping buckets
+        bestLag = 0;
+        bestLagCoefficient = Double.NaN;
+        for (int distance = 0; distance <= Math.min(maxLag, n - MIN_OVERLAP); distance++) {
+            for (int lag = distance; lag >= -distance; lag -= Math.max(1, 2 * distance)) {
+                final double coefficient = laggedCorrelation(values, meanValues, events, meanEvents, lag);
+                if (!Double.isNaN(coefficient) && (Double.isNaN(bestLagCoefficient) || Math.abs(coefficient) > Math.abs(bestLagCoefficient))) {
+                    bestLag = lag;
+                    bestLagCoefficient = coefficient;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the Pearson's correlation of the values against the events shifted by the given lag using the prefix sums
+     *
+     * @param values
+     *            The values of the variable on each time bucket
+     * @param meanValues
+     *            The mean of the values the prefix sums are centred on
+     * @param events
+     *            The number of events on each time bucket
+     * @param meanEvents
+     *            The mean of the events the prefix sums are centred on
+     * @param lag
+     *            The number of buckets the events are shifted
+     * @return The correlation coefficient or NaN if any of the windows is constant
+     */
+    private double laggedCorrelation(double[] values, double meanValues, double[] events, double meanEvents, int lag) {
+        final int firstValue = Math.max(0, -lag);
+        final int firstEvent = Math.max(0, lag);
+        final int overlap = values.length - Math.abs(lag);
+        final double sumValues = valuesPrefix[firstValue + overlap] - valuesPrefix[firstValue];
+        final double sumEvents = eventsPrefix[firstEvent + overlap] - eventsPrefix[firstEvent];
+        final double valuesVariance = overlap * (squaredValuesPrefix[firstValue + overlap] - squaredValuesPrefix[firstValue]) - sumValues * sumValues;
+        final double eventsVariance = overlap * (squaredEventsPrefix[firstEvent + overlap] - squaredEventsPrefix[firstEvent]) - sumEvents * sumEvents;
+        if (valuesVariance <= 0d || eventsVariance <= 0d) {
+            return Double.NaN;
+        }
+        double sumProducts = 0d;
+        for (int i = 0; i < overlap; i++) {
+            sumProducts += (values[firstValue + i] - meanValues) * (events[firstEvent + i] - meanEvents);
+        }
+        return Math.max(-1d, Math.min(1d, (overlap * sumProducts - sumValues * sumEvents) / Math.sqrt(valuesVariance * eventsVariance)));
+    }
+
+    public int getBestLag() {
+        return bestLag;
+    }
+
+    public double getBestLagCoefficient() {
+        return bestLagCoefficient;
+    }
+
+    /**
+     * Returns the ranks of the events of the last calculation. The array is a buffer of the kernel, so it must be treated as read only and it is
+     * overwritten on the next calculation
+     *
+     * @return the ranks of the events
+     */
+    public double[] getEventRanks() {
+        return eventRanks;
+    }
+
+    public double getEventsNormality() {
+        return eventsNormality;
+    }
+
+    public double getPearsonCorrelationCoefficient() {
+        return pearsonCorrelationCoefficient;
+    }
+
+    public double getpValuePearson() {
+        return pValuePearson;
+    }
+
+    public double getpValueSpearman() {
+        return pValueSpearman;
+    }
+
+    public double getSpearmanCorrelationCoefficient() {
+        return spearmanCorrelationCoefficient;
+    }
+
+    public double getStandardError() {
+        return standardError;
+    }
+
+    /**
+     * Returns the ranks of the values of the last calculation. The array is a buffer of the kernel, so it must be treated as read only and it is
+     * overwritten on the next calculation
+     *
+     * @return the ranks of the values
+     */
+    public double[] getValueRanks() {
+        return valueRanks;
+    }
+
+    public double getValuesNormality() {
+        return valuesNormality;
+    }
+}
@@ -0,0 +1,81 @@
+package com.damosais.sid.database.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import com.damosais.sid.database.beans.CorrelationHypothesis;
+import com.damosais.sid.database.beans.User;
+
+/**
+ * This class represents a batch of correlation hypothesis being evaluated by the CorrelationSearchService. It keeps the settings of the run and allows
+ * cancelling it from a different thread than the one running it
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+public class CorrelationSearch {
+    private final List<CorrelationHypothesis> hypothesis;
+    private final User user;
+    private final boolean onlyRelevantCorrelations;
+    private final List<Future<Boolean>> tasks;
+    private volatile boolean cancelled;
+
+    /**
+     * The constructor requires the hypothesis to evaluate and the settings of the run
+     *
+     * @param hypothesis
+     *            The hypothesis to evaluate
+     * @param user
+     *            The user running the search
+     * @param onlyRelevantCorrelations
+     *            If true the hypothesis are evaluated in memory and only the ones with any significative result are saved
+     */
+    public CorrelationSearch(List<CorrelationHypothesis> hypothesis, User user, boolean onlyRelevantCorrelations) {
+        this.hypothesis = hypothesis;
+        this.user = user;
+        this.onlyRelevantCorrelations = onlyRelevantCorrelations;
+        tasks = new ArrayList<>(hypothesis.size());
+    }
+
+    /**
+     * Registers the task evaluating one of the hypothesis so it can be cancelled. If the search was already cancelled the task is cancelled straight away
+     *
+     * @param task
+     *            The task evaluating the hypothesis
+     */
+    synchronized void addTask(Future<Boolean> task) {
+        tasks.add(task);
+        if (cancelled) {
+            task.cancel(false);
+        }
+    }
+
+    /**
+     * Cancels the search. The hypothesis which are being evaluated at the moment are allowed to finish (so their transactions are not left half way) but
+     * the ones still waiting are discarded
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        for (final Future<Boolean> task : tasks) {
+            task.cancel(false);
+        }
+    }
+
+    public List<CorrelationHypothesis> getHypothesis() {
+        return hypothesis;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isOnlyRelevantCorrelations() {
+        return onlyRelevantCorrelations;
+    }
+}
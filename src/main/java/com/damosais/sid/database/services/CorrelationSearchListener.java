@@ -0,0 +1,41 @@
+package com.damosais.sid.database.services;
+
+import com.damosais.sid.database.beans.CorrelationHypothesis;
+
+/**
+ * This interface defines the callbacks used by the CorrelationSearchService to report the progress of a search. The calls are always done from the thread
+ * running the search and in the same order as the hypothesis were given
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+public interface CorrelationSearchListener {
+    /**
+     * Called each time a hypothesis has been evaluated
+     *
+     * @param hypothesis
+     *            The hypothesis evaluated
+     * @param processed
+     *            The number of hypothesis evaluated so far
+     * @param total
+     *            The total number of hypothesis in the search
+     * @param kept
+     *            True if the hypothesis was kept in the database, false if it was discarded or failed
+     */
+    public void hypothesisProcessed(CorrelationHypothesis hypothesis, int processed, int total, boolean kept);
+
+    /**
+     * Called once the search has finished or has been cancelled
+     *
+     * @param processed
+     *            The number of hypothesis evaluated
+     * @param kept
+     *            The number of hypothesis kept in the database
+     * @param total
+     *            The total number of hypothesis in the search
+     * @param cancelled
+     *            True if the search was cancelled before evaluating all the hypothesis
+     */
+    public void searchFinished(int processed, int kept, int total, boolean cancelled);
+}
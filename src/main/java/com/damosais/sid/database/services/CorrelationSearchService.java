@@ -0,0 +1,258 @@
+package com.damosais.sid.database.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.math3.exception.MathRuntimeException;
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.damosais.sid.database.beans.CorrelationHypothesis;
+import com.damosais.sid.database.beans.CorrelationResult;
+
+/**
+ * This service is responsible of evaluating batches of correlation hypothesis. The hypothesis are evaluated concurrently on a bounded pool of workers, each
+ * one on its own transaction, while the progress is reported back in the original order of the hypothesis. When only the relevant correlations are wanted the
+ * hypothesis are screened instead: they are evaluated fully in memory and only the ones with significative results are saved, in batches, so the
+ * discarded ones never reach the database
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class CorrelationSearchService {
+    private static final Logger LOGGER = Logger.getLogger(CorrelationSearchService.class);
+    private static final int WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    @Autowired
+    private CorrelationHypothesisService correlationHypothesisService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${sid.correlations.search.batchSize:100}")
+    private int batchSize;
+
+    private ExecutorService workers;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * This method evaluates a single hypothesis inside its own transaction
+     *
+     * @param hypothesis
+     *            The hypothesis to evaluate
+     * @param search
+     *            The search the hypothesis belongs to
+     * @return true if the hypothesis was kept in the database, false if it was discarded
+     */
+    private boolean evaluate(CorrelationHypothesis hypothesis, CorrelationSearch search) {
+        transactionTemplate.execute(status -> {
+            // 1st) First we need to save the hypothesis
+            hypothesis.setCreatedBy(search.getUser());
+            correlationHypothesisService.save(hypothesis);
+            // 2nd) Then we calculate the values of the correlation
+            try {
+                final List<String> errors = correlationHypothesisService.calculateHyphotesisSimpleCorrelations(hypothesis, search.getUser());
+                if (!errors.isEmpty()) {
+                    LOGGER.warn("Problems calculating correlation for hypothesis " + hypothesis.getId() + ": " + errors);
+                }
+            } catch (final MathRuntimeException | NumberIsTooSmallException e) {
+                LOGGER.error("Problem calculating correlation for hypothesis: " + e.getMessage(), e);
+            }
+            return null;
+        });
+        return true;
+    }
+
+    /**
+     * Starts the pool of workers and the template used to give each hypothesis its own transaction
+     */
+    @PostConstruct
+    public void init() {
+        final AtomicInteger threadNumber = new AtomicInteger(0);
+        workers = Executors.newFixedThreadPool(WORKERS, runnable -> {
+            final Thread thread = new Thread(runnable, "correlation-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Checks if any of the results of the hypothesis is significative either by Pearson's or Spearman's coefficient
+     *
+     * @param hypothesis
+     *            The hypothesis already evaluated
+     * @return true if at least one result is significative, false otherwise
+     */
+    private boolean isRelevant(CorrelationHypothesis hypothesis) {
+        if (hypothesis.getResults() != null) {
+            for (final CorrelationResult result : hypothesis.getResults()) {
+                final boolean pearsonSignificative = result.getPearsonCorrelationCoefficient() >= CorrelationResult.SIGNIFICATIVE_LEVEL && result.getpValuePearson() < CorrelationResult.NON_NULL_HYPOTHESIS_LEVEL;
+                final boolean spearmanSignificative = result.getSpearmanCorrelationCoefficient() >= CorrelationResult.SIGNIFICATIVE_LEVEL && result.getpValueSpearman() < CorrelationResult.NON_NULL_HYPOTHESIS_LEVEL;
+                if (pearsonSignificative || spearmanSignificative) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Saves the hypothesis which passed the screening together with their results inside a single transaction
+     *
+     * @param survivors
+     *            The hypothesis to save, the list is emptied afterwards
+     */
+    private void persist(List<CorrelationHypothesis> survivors) {
+        if (!survivors.isEmpty()) {
+            transactionTemplate.execute(status -> {
+                for (final CorrelationHypothesis hypothesis : survivors) {
+                    correlationHypothesisService.saveWithResults(hypothesis);
+                }
+                return null;
+            });
+            survivors.clear();
+        }
+    }
+
+    /**
+     * Runs the search evaluating all its hypothesis on the pool of workers. This method blocks the calling thread until all the hypothesis have been
+     * evaluated or the search is cancelled, reporting the progress to the listener in the same order as the hypothesis were given
+     *
+     * @param search
+     *            The search to run
+     * @param listener
+     *            The listener which receives the progress
+     */
+    public void run(CorrelationSearch search, CorrelationSearchListener listener) {
+        // The results are not refreshed in the background while the search saves them
+        final Lock searchLock = correlationHypothesisService.getSearchLock();
+        searchLock.lock();
+        try {
+            runLocked(search, listener);
+        } finally {
+            searchLock.unlock();
+        }
+    }
+
+    /**
+     * Runs the search once the lock of the searches has been taken
+     *
+     * @param search
+     *            The search to run
+     * @param listener
+     *            The listener which receives the progress
+     */
+    private void runLocked(CorrelationSearch search, CorrelationSearchListener listener) {
+        // 1st) We submit every hypothesis to the workers
+        final List<CorrelationHypothesis> hypothesis = search.getHypothesis();
+        final List<Future<Boolean>> tasks = new ArrayList<>(hypothesis.size());
+        for (final CorrelationHypothesis current : hypothesis) {
+            final Future<Boolean> task = workers.submit(() -> !search.isCancelled() && (search.isOnlyRelevantCorrelations() ? screen(current, search) : evaluate(current, search)));
+            tasks.add(task);
+            search.addTask(task);
+        }
+
+        // 2nd) Now we wait for them in order so the progress is reported in the same order as given
+        final int total = hypothesis.size();
+        int processed = 0;
+        int kept = 0;
+        final List<CorrelationHypothesis> survivors = new ArrayList<>(Math.max(1, batchSize));
+        for (int i = 0; i < total && !search.isCancelled(); i++) {
+            boolean hypothesisKept = false;
+            try {
+                hypothesisKept = tasks.get(i).get();
+            } catch (final CancellationException e) {
+                LOGGER.debug("Evaluation of hypothesis cancelled", e);
+                break;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                search.cancel();
+                break;
+            } catch (final ExecutionException e) {
+                LOGGER.error("Problem evaluating correlation hypothesis: " + e.getCause().getMessage(), e.getCause());
+            }
+            processed++;
+            if (hypothesisKept) {
+                kept++;
+                // 2.1) The screened hypothesis which passed are saved in batches
+                if (search.isOnlyRelevantCorrelations()) {
+                    survivors.add(hypothesis.get(i));
+                    if (survivors.size() >= batchSize) {
+                        persist(survivors);
+                    }
+                }
+            }
+            listener.hypothesisProcessed(hypothesis.get(i), processed, total, hypothesisKept);
+        }
+
+        // 3rd) We save the last batch, including the hypothesis already screened when the search was cancelled
+        persist(survivors);
+        listener.searchFinished(processed, kept, total, search.isCancelled());
+    }
+
+    /**
+     * This method evaluates a single hypothesis in memory without touching the database, so it can be discarded for free when none of its results is
+     * significative. The hypothesis which already existed are deleted in that case, as they would have been when evaluated on the database
+     *
+     * @param hypothesis
+     *            The hypothesis to evaluate
+     * @param search
+     *            The search the hypothesis belongs to
+     * @return true if the hypothesis passed the screening and must be saved, false if it was discarded
+     */
+    private boolean screen(CorrelationHypothesis hypothesis, CorrelationSearch search) {
+        // 1st) We calculate the values of the correlation in memory
+        hypothesis.setCreatedBy(search.getUser());
+        boolean error = false;
+        try {
+            final List<String> errors = correlationHypothesisService.computeHyphotesisSimpleCorrelations(hypothesis, search.getUser());
+            if (!errors.isEmpty()) {
+                LOGGER.warn("Problems calculating correlation for hypothesis " + hypothesis.getId() + ": " + errors);
+            }
+        } catch (final MathRuntimeException | NumberIsTooSmallException e) {
+            error = true;
+            LOGGER.error("Problem calculating correlation for hypothesis: " + e.getMessage(), e);
+        }
+        // 2nd) Then we check if there is anything significative
+        if (!error && isRelevant(hypothesis)) {
+            return true;
+        }
+        // 3rd) Finally we get rid of the discarded hypothesis which were already in the database
+        if (hypothesis.getId() != null) {
+            transactionTemplate.execute(status -> {
+                correlationHypothesisService.delete(hypothesis);
+                return null;
+            });
+        }
+        return false;
+    }
+
+    /**
+     * Stops the workers when the application is shutting down
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
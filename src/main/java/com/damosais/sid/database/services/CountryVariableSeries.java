@@ -0,0 +1,221 @@
+package com.damosais.sid.database.services;
+
+import java.util.List;
+
+import org.apache.commons.math3.analysis.interpolation.SplineInterpolator;
+import org.apache.commons.math3.analysis.polynomials.PolynomialSplineFunction;
+import org.apache.commons.math3.exception.OutOfRangeException;
+
+import com.damosais.sid.database.beans.CountryVariableValue;
+import com.damosais.sid.database.beans.SocioeconomicVariable;
+import com.neovisionaries.i18n.CountryCode;
+
+/**
+ * This class holds all the values of a socioeconomic variable for a country in a columnar way: the dates, the months and the values are kept in primitive
+ * arrays sorted by date. The arrays are shared, so they must be treated as read only. The spline interpolating the values and its value at the start of each
+ * month are calculated the first time they are needed and kept with the series, so all the correlations using the same series interpolate it only once.
+ * As the series are replaced when their values change (see CountryVariableSeriesStore) the interpolation never gets stale
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+public class CountryVariableSeries {
+    private final CountryCode country;
+    private final SocioeconomicVariable variable;
+    private final long[] dates;
+    private final long[] months;
+    private final double[] values;
+    private PolynomialSplineFunction spline;
+    private volatile MonthlyValues monthlyValues;
+
+    /**
+     * This class holds the interpolated value at the start of each month of a period
+     */
+    public static final class MonthlyValues {
+        private final long firstMonth;
+        private final double[] values;
+
+        private MonthlyValues(long firstMonth, double[] values) {
+            this.firstMonth = firstMonth;
+            this.values = values;
+        }
+
+        /**
+         * Checks if the given months are inside the period
+         *
+         * @param first
+         *            The first month as number of months since January 1970
+         * @param last
+         *            The last month as number of months since January 1970
+         * @return true if all the months have a value
+         */
+        private boolean covers(long first, long last) {
+            return first >= firstMonth && last < firstMonth + values.length;
+        }
+
+        /**
+         * Returns the interpolated value at the start of a month
+         *
+         * @param epochMonth
+         *            The month as number of months since January 1970
+         * @return The value or NaN if the month is out of the range of the interpolation
+         */
+        public double get(long epochMonth) {
+            return values[(int) (epochMonth - firstMonth)];
+        }
+    }
+
+    /**
+     * Creates the series from the values of the variable
+     *
+     * @param country
+     *            The country of the values
+     * @param variable
+     *            The socioeconomic variable
+     * @param variableValues
+     *            The values sorted by date
+     */
+    public CountryVariableSeries(CountryCode country, SocioeconomicVariable variable, List<CountryVariableValue> variableValues) {
+        this.country = country;
+        this.variable = variable;
+        dates = new long[variableValues.size()];
+        months = new long[variableValues.size()];
+        values = new double[variableValues.size()];
+        int position = 0;
+        for (final CountryVariableValue variableValue : variableValues) {
+            dates[position] = variableValue.getDate().getTime();
+            months[position] = Timeline.toEpochMonth(variableValue.getDate());
+            values[position] = variableValue.getValue();
+            position++;
+        }
+    }
+
+    public CountryCode getCountry() {
+        return country;
+    }
+
+    public long[] getDates() {
+        return dates;
+    }
+
+    public long[] getMonths() {
+        return months;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    public SocioeconomicVariable getVariable() {
+        return variable;
+    }
+
+    /**
+     * Returns the position of the latest value that falls in the given month
+     *
+     * @param epochMonth
+     *            The month as number of months since January 1970
+     * @return The position of the value or -1 if there is no value for that month
+     */
+    public int indexOfMonth(long epochMonth) {
+        return indexOfMonths(epochMonth, epochMonth);
+    }
+
+    /**
+     * Returns the position of the latest value that falls between the given months
+     *
+     * @param firstMonth
+     *            The first month as number of months since January 1970
+     * @param lastMonth
+     *            The last month as number of months since January 1970
+     * @return The position of the value or -1 if there is no value between those months
+     */
+    public int indexOfMonths(long firstMonth, long lastMonth) {
+        // We do a binary search for the last position whose month is not after the last one
+        int low = 0;
+        int high = months.length - 1;
+        int found = -1;
+        while (low <= high) {
+            final int middle = low + high >>> 1;
+            if (months[middle] <= lastMonth) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found >= 0 && months[found] >= firstMonth ? found : -1;
+    }
+
+    /**
+     * Returns the interpolated values at the start of each month between the given ones. The values already calculated are reused and the period kept
+     * is extended when a wider one is requested. If the last month is before the first one only the first one is calculated
+     *
+     * @param firstMonth
+     *            The first month as number of months since January 1970
+     * @param lastMonth
+     *            The last month as number of months since January 1970
+     * @return The values of at least those months
+     */
+    public MonthlyValues interpolate(long firstMonth, long lastMonth) {
+        final MonthlyValues current = monthlyValues;
+        if (current != null && current.covers(firstMonth, Math.max(firstMonth, lastMonth))) {
+            return current;
+        }
+        return resample(firstMonth, Math.max(firstMonth, lastMonth));
+    }
+
+    /**
+     * Calculates the interpolated values for a period covering both the given months and the ones already calculated
+     *
+     * @param firstMonth
+     *            The first month as number of months since January 1970
+     * @param lastMonth
+     *            The last month as number of months since January 1970
+     * @return The new values
+     */
+    private synchronized MonthlyValues resample(long firstMonth, long lastMonth) {
+        // 1st) Another thread may have already extended the period while we were waiting
+        final MonthlyValues current = monthlyValues;
+        if (current != null && current.covers(firstMonth, lastMonth)) {
+            return current;
+        }
+
+        // 2nd) We create the interpolation function only once, the interpolator needs the dates as doubles
+        if (spline == null) {
+            final double[] knownDates = new double[dates.length];
+            for (int i = 0; i < dates.length; i++) {
+                knownDates[i] = dates[i];
+            }
+            spline = new SplineInterpolator().interpolate(knownDates, values);
+        }
+
+        // 3rd) Now we calculate the values of the new period copying the ones we already had
+        final long first = current == null ? firstMonth : Math.min(firstMonth, current.firstMonth);
+        final long last = current == null ? lastMonth : Math.max(lastMonth, current.firstMonth + current.values.length - 1);
+        final double[] newValues = new double[(int) (last - first + 1)];
+        for (long month = first; month <= last; month++) {
+            if (current != null && current.covers(month, month)) {
+                newValues[(int) (month - first)] = current.get(month);
+            } else {
+                try {
+                    newValues[(int) (month - first)] = spline.value(Timeline.toDate(month).getTime());
+                } catch (final OutOfRangeException e) {
+                    newValues[(int) (month - first)] = Double.NaN;
+                }
+            }
+        }
+        monthlyValues = new MonthlyValues(first, newValues);
+        return monthlyValues;
+    }
+
+    /**
+     * Returns the number of values in the series
+     *
+     * @return the number of values in the series
+     */
+    public int size() {
+        return values.length;
+    }
+}
@@ -0,0 +1,62 @@
+package com.damosais.sid.database.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.damosais.sid.database.beans.SocioeconomicVariable;
+import com.damosais.sid.database.dao.CountryVariableValueDAO;
+import com.neovisionaries.i18n.CountryCode;
+
+/**
+ * This service keeps in memory the socioeconomic values of each country and variable as columnar series. The series are loaded from the database the first
+ * time they are requested and kept until the values of that country and variable change
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class CountryVariableSeriesStore {
+    private final Map<CountryCode, Map<SocioeconomicVariable, CountryVariableSeries>> seriesByCountryAndVariable = new ConcurrentHashMap<>();
+
+    @Autowired
+    private CountryVariableValueDAO countryVariableValueDao;
+
+    /**
+     * Returns the series of values of a variable for a country, loading it from the database if it is not in memory yet
+     *
+     * @param country
+     *            The country of the values
+     * @param variable
+     *            The socioeconomic variable
+     * @return The series with the values sorted by date
+     */
+    public CountryVariableSeries getSeries(CountryCode country, SocioeconomicVariable variable) {
+        return seriesByCountryAndVariable.computeIfAbsent(country, key -> new ConcurrentHashMap<>()).computeIfAbsent(variable, key -> new CountryVariableSeries(country, variable, countryVariableValueDao.findByCountryAndVariableOrderByDate(country, variable)));
+    }
+
+    /**
+     * Discards the series of a country and variable so it is reloaded on the next request
+     *
+     * @param country
+     *            The country of the values
+     * @param variable
+     *            The socioeconomic variable
+     */
+    public void invalidate(CountryCode country, SocioeconomicVariable variable) {
+        final Map<SocioeconomicVariable, CountryVariableSeries> seriesByVariable = seriesByCountryAndVariable.get(country);
+        if (seriesByVariable != null) {
+            seriesByVariable.remove(variable);
+        }
+    }
+
+    /**
+     * Discards all the series kept in memory
+     */
+    public void invalidateAll() {
+        seriesByCountryAndVariable.clear();
+    }
+}
@@ -2,13 +2,29 @@ package com.damosais.sid.database.services;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.damosais.sid.database.beans.CountryVariableValue;
 import com.damosais.sid.database.beans.SocioeconomicVariable;
+import com.damosais.sid.database.beans.User;
 import com.damosais.sid.database.dao.CountryVariableValueDAO;
 import com.neovisionaries.i18n.CountryCode;
 
@@ -20,9 +36,56 @@ import com.neovisionaries.i18n.CountryCode;
  * @since 1.0
  */
 @Service
-public class CountryVariableValueService {
+public class CountryVariableValueService implements PagedService<CountryVariableValue> {
     @Autowired
     private CountryVariableValueDAO countryVariableValueDao;
+
+    @Autowired
+    private CountryVariableSeriesStore countryVariableSeriesStore;
+
+    @Autowired
+    private CorrelationDirtyTracker correlationDirtyTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${sid.import.values.batchSize:500}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * This class identifies a value by its unique constraint: the variable, the country and the date. The date is compared by its time as the ones read
+     * from the database are timestamps, which are never equal to a plain date
+     */
+    private static final class ValueKey {
+        private final SocioeconomicVariable variable;
+        private final CountryCode country;
+        private final long date;
+
+        private ValueKey(CountryVariableValue value) {
+            variable = value.getVariable();
+            country = value.getCountry();
+            date = value.getDate().getTime();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ValueKey)) {
+                return false;
+            }
+            final ValueKey other = (ValueKey) obj;
+            return variable == other.variable && country == other.country && date == other.date;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(variable, country, date);
+        }
+    }
     
     /**
      * Deletes an country variable value from the database
@@ -32,8 +95,37 @@ public class CountryVariableValueService {
      */
     public void delete(CountryVariableValue countryVariableValue) {
         countryVariableValueDao.delete(countryVariableValue);
+        countryVariableSeriesStore.invalidate(countryVariableValue.getCountry(), countryVariableValue.getVariable());
+        correlationDirtyTracker.markValues(countryVariableValue.getCountry(), countryVariableValue.getVariable());
+    }
+
+    /**
+     * Creates the template used to give each batch of an import its own transaction
+     */
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Returns the values of a variable for a country as a columnar series sorted by date. The series is served from memory after the first request
+     *
+     * @param country
+     *            The selected country
+     * @param variable
+     *            The selected variable
+     * @return The series with the values of that country and variable
+     */
+    public CountryVariableSeries getSeries(CountryCode country, SocioeconomicVariable variable) {
+        return countryVariableSeriesStore.getSeries(country, variable);
     }
     
+    @Override
+    public long count(Specification<CountryVariableValue> filter) {
+        return countryVariableValueDao.count(filter);
+    }
+
     /**
      * Returns the existing country variable values in the database
      *
@@ -44,6 +136,11 @@ public class CountryVariableValueService {
         countryVariableValueDao.findAll().forEach(countryVariableValues::add);
         return countryVariableValues;
     }
+
+    @Override
+    public Page<CountryVariableValue> list(Specification<CountryVariableValue> filter, Pageable page) {
+        return countryVariableValueDao.findAll(filter, page);
+    }
     
     /**
      * Returns the different country variable values for a specific country and date
@@ -92,6 +189,62 @@ public class CountryVariableValueService {
         return countryVariableValues;
     }
     
+    /**
+     * Merges a set of values read from an external source with the ones in the database: the values which do not exist are inserted, the ones which exist
+     * with a different value are updated and the rest are ignored. The changes are written in batches, each one on its own transaction
+     *
+     * @param readValues
+     *            The values read from the external source
+     * @param user
+     *            The user doing the import
+     * @return The number of values inserted or updated
+     */
+    public int merge(List<CountryVariableValue> readValues, User user) {
+        // 1st) We index by their unique key the existing values of the variables being imported
+        final Set<SocioeconomicVariable> variables = EnumSet.noneOf(SocioeconomicVariable.class);
+        readValues.forEach(readValue -> variables.add(readValue.getVariable()));
+        final Map<ValueKey, CountryVariableValue> existingValues = new HashMap<>();
+        if (!variables.isEmpty()) {
+            countryVariableValueDao.findByVariableIn(variables).forEach(existingValue -> existingValues.put(new ValueKey(existingValue), existingValue));
+        }
+
+        // 2nd) Now in a single pass we classify each read value as an insert, an update or nothing to do
+        final List<CountryVariableValue> changedValues = new ArrayList<>();
+        final Set<ValueKey> changedKeys = new HashSet<>();
+        for (final CountryVariableValue readValue : readValues) {
+            final ValueKey key = new ValueKey(readValue);
+            final CountryVariableValue matching = existingValues.get(key);
+            if (matching == null) {
+                // 2.1) If is a new value then we just put the data about its creator
+                readValue.setCreatedBy(user);
+                existingValues.put(key, readValue);
+                changedKeys.add(key);
+                changedValues.add(readValue);
+            } else if (readValue.getValue().compareTo(matching.getValue()) != 0) {
+                // 2.2) If is a match and the value is different we update the value (the same value may appear more than once in the source)
+                matching.setValue(readValue.getValue());
+                if (matching.getId() != null) {
+                    matching.setUpdatedBy(user);
+                }
+                if (changedKeys.add(key)) {
+                    changedValues.add(matching);
+                }
+            }
+        }
+
+        // 3rd) Finally we write the changes in batches and, as soon as each batch commits, we discard the series it affected so they are reloaded even if a
+        // later batch fails
+        for (int start = 0; start < changedValues.size(); start += batchSize) {
+            final List<CountryVariableValue> batch = changedValues.subList(start, Math.min(start + batchSize, changedValues.size()));
+            transactionTemplate.execute(status -> countryVariableValueDao.save(batch));
+            batch.forEach(changedValue -> {
+                countryVariableSeriesStore.invalidate(changedValue.getCountry(), changedValue.getVariable());
+                correlationDirtyTracker.markValues(changedValue.getCountry(), changedValue.getVariable());
+            });
+        }
+        return changedValues.size();
+    }
+
     /**
      * Saves an existing country variable value to the database
      *
@@ -99,6 +252,15 @@ public class CountryVariableValueService {
      *            The country variable value to save
      */
     public void save(CountryVariableValue countryVariableValue) {
+        final boolean existing = countryVariableValue.getId() != null;
         countryVariableValueDao.save(countryVariableValue);
+        if (existing) {
+            // An edited value may have changed its country or variable so we cannot know which series held it before
+            countryVariableSeriesStore.invalidateAll();
+            correlationDirtyTracker.markAllValues();
+        } else {
+            countryVariableSeriesStore.invalidate(countryVariableValue.getCountry(), countryVariableValue.getVariable());
+            correlationDirtyTracker.markValues(countryVariableValue.getCountry(), countryVariableValue.getVariable());
+        }
     }
 }
\ No newline at end of file
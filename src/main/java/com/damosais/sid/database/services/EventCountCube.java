@@ -0,0 +1,284 @@
+package com.damosais.sid.database.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.damosais.sid.database.beans.Event;
+import com.damosais.sid.database.beans.Sector;
+import com.damosais.sid.database.dao.EventDAO;
+import com.neovisionaries.i18n.CountryCode;
+
+/**
+ * This service keeps in memory the number of events per month indexed by the country of the target, the sector of the owner and the countries of the
+ * attackers. The counts are built with a single pass over the fields of the events the first time they are needed and then kept up to date as the events
+ * are saved or deleted, so the correlations do not need to load the events to count them
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class EventCountCube {
+    // Maximum number of identifiers given to each query so the IN lists stay small
+    private static final int IDS_PER_QUERY = 1000;
+    private Map<CountryCode, Map<Sector, Map<Set<CountryCode>, EventMonthlyCounts>>> countsByTargetCountry;
+    private Map<Long, Contribution> contributionsByEvent;
+
+    @Autowired
+    private EventDAO eventDao;
+
+    @Autowired
+    private CorrelationDirtyTracker correlationDirtyTracker;
+
+    /**
+     * This class remembers where an event was counted so it can be discounted when it changes or it is deleted
+     */
+    private static class Contribution {
+        private final EventMonthlyCounts counts;
+        private final long month;
+
+        private Contribution(EventMonthlyCounts counts, long month) {
+            this.counts = counts;
+            this.month = month;
+        }
+    }
+
+    /**
+     * Adds an event to the counts from the fields that define where it is counted
+     *
+     * @param id
+     *            The identifier of the event (null if it has not been saved)
+     * @param date
+     *            The date of the event
+     * @param targetCountry
+     *            The country of the target
+     * @param ownerSector
+     *            The sector of the owner of the target (null if unknown)
+     * @param sourceCountries
+     *            The countries of the attackers behind the event
+     */
+    private void add(Long id, Date date, CountryCode targetCountry, Sector ownerSector, Set<CountryCode> sourceCountries) {
+        // 1st) The events without date or target country can never be part of a correlation
+        if (date == null || targetCountry == null) {
+            return;
+        }
+        final Sector sector = ownerSector != null ? ownerSector : Sector.ROOT;
+
+        // 2nd) We increment the month on the matching counts
+        final EventMonthlyCounts counts = countsByTargetCountry.computeIfAbsent(targetCountry, key -> new HashMap<>()).computeIfAbsent(sector, key -> new HashMap<>()).computeIfAbsent(sourceCountries, key -> new EventMonthlyCounts());
+        final long month = Timeline.toEpochMonth(date);
+        counts.add(month, 1);
+        if (id != null) {
+            contributionsByEvent.put(id, new Contribution(counts, month));
+        }
+    }
+
+    /**
+     * Returns the number of events per month against a country which match the given sector and source countries
+     *
+     * @param targetCountry
+     *            The country of the targets
+     * @param sector
+     *            The sector of the owners of the targets (the events of all its subsectors are included)
+     * @param sourceCountries
+     *            If not null or empty only the events where at least one of the attackers comes from these countries are included
+     * @return The number of events per month
+     */
+    public synchronized EventMonthlyCounts aggregate(CountryCode targetCountry, Sector sector, Set<CountryCode> sourceCountries) {
+        ensureLoaded();
+        final EventMonthlyCounts aggregated = new EventMonthlyCounts();
+        final Map<Sector, Map<Set<CountryCode>, EventMonthlyCounts>> countsBySector = countsByTargetCountry.get(targetCountry);
+        if (countsBySector != null) {
+            for (final Map.Entry<Sector, Map<Set<CountryCode>, EventMonthlyCounts>> sectorEntry : countsBySector.entrySet()) {
+                if (sector != null && !sectorEntry.getKey().isChildOf(sector)) {
+                    continue;
+                }
+                for (final Map.Entry<Set<CountryCode>, EventMonthlyCounts> sourceEntry : sectorEntry.getValue().entrySet()) {
+                    if (sourceCountries == null || sourceCountries.isEmpty() || !Collections.disjoint(sourceEntry.getKey(), sourceCountries)) {
+                        aggregated.addAll(sourceEntry.getValue());
+                    }
+                }
+            }
+        }
+        return aggregated;
+    }
+
+    /**
+     * Loads the counts from the database if they are not in memory. Only the fields needed to count the events are retrieved
+     */
+    private void ensureLoaded() {
+        if (countsByTargetCountry == null) {
+            countsByTargetCountry = new HashMap<>();
+            contributionsByEvent = new HashMap<>();
+            // 1st) We get the countries of the attackers of each event
+            final Map<Long, Set<CountryCode>> sourceCountriesByEvent = groupSourceCountries(eventDao.findAllAttackerCountries());
+            // 2nd) Then we count each event from its fields, so no event (nor the entities it eagerly loads) is created
+            for (final Object[] fields : eventDao.findAllCountingKeys()) {
+                add(fields, sourceCountriesByEvent);
+            }
+        }
+    }
+
+    /**
+     * Adds an event to the counts from the fields returned by the counting queries of the events
+     *
+     * @param fields
+     *            The identifier, the date, the country of the target and the sector of the owner of the event
+     * @param sourceCountriesByEvent
+     *            The countries of the attackers behind each event
+     */
+    private void add(Object[] fields, Map<Long, Set<CountryCode>> sourceCountriesByEvent) {
+        final Set<CountryCode> sourceCountries = sourceCountriesByEvent.get(fields[0]);
+        add((Long) fields[0], (Date) fields[1], (CountryCode) fields[2], (Sector) fields[3], sourceCountries != null ? sourceCountries : EnumSet.noneOf(CountryCode.class));
+    }
+
+    /**
+     * Runs a query on some events, once per group of identifiers
+     *
+     * @param eventIds
+     *            The identifiers of the events
+     * @param query
+     *            The query receiving a group of identifiers
+     * @return The rows returned by all the queries
+     */
+    private static List<Object[]> findByIds(List<Long> eventIds, Function<List<Long>, List<Object[]>> query) {
+        final List<Object[]> rows = new ArrayList<>();
+        for (int start = 0; start < eventIds.size(); start += IDS_PER_QUERY) {
+            rows.addAll(query.apply(eventIds.subList(start, Math.min(start + IDS_PER_QUERY, eventIds.size()))));
+        }
+        return rows;
+    }
+
+    /**
+     * Groups by event the countries of the attackers returned by the queries of the events
+     *
+     * @param rows
+     *            The identifier of the event and the country of one of its attackers
+     * @return The countries of the attackers behind each event
+     */
+    private static Map<Long, Set<CountryCode>> groupSourceCountries(List<Object[]> rows) {
+        final Map<Long, Set<CountryCode>> sourceCountriesByEvent = new HashMap<>();
+        for (final Object[] fields : rows) {
+            if (fields[1] != null) {
+                sourceCountriesByEvent.computeIfAbsent((Long) fields[0], key -> EnumSet.noneOf(CountryCode.class)).add((CountryCode) fields[1]);
+            }
+        }
+        return sourceCountriesByEvent;
+    }
+
+    /**
+     * Marks as changed the months where the events given by their counting fields are counted
+     *
+     * @param keys
+     *            The identifier, the date, the country of the target and the sector of the owner of each event
+     */
+    private void markMonths(List<Object[]> keys) {
+        for (final Object[] fields : keys) {
+            if (fields[1] != null && fields[2] != null) {
+                correlationDirtyTracker.markEvents((CountryCode) fields[2], Timeline.toEpochMonth((Date) fields[1]));
+            }
+        }
+    }
+
+    /**
+     * Counts again some events around a change on something other than the events themselves which affects the way they are counted (like the attackers of
+     * an incident or the country of a target). Only the months where those events were counted before the change and where they are counted after it are
+     * marked to refresh their correlation results
+     *
+     * @param eventIds
+     *            The identifiers of the events affected by the change
+     * @param change
+     *            The change, which is applied between reading the fields of the events before and after it
+     */
+    public void recount(List<Long> eventIds, Runnable change) {
+        if (eventIds.isEmpty()) {
+            change.run();
+            return;
+        }
+        // 1st) We read where the events were counted before the change
+        final List<Object[]> previousKeys = findByIds(eventIds, eventDao::findCountingKeysByIdIn);
+        change.run();
+
+        // 2nd) Then where they have to be counted after it (the deleted ones are no longer returned)
+        final List<Object[]> keys = findByIds(eventIds, eventDao::findCountingKeysByIdIn);
+        final Map<Long, Set<CountryCode>> sourceCountriesByEvent = groupSourceCountries(findByIds(eventIds, eventDao::findAttackerCountriesByIdIn));
+
+        // 3rd) If the counts are in memory we move the events to their new counts
+        synchronized (this) {
+            if (countsByTargetCountry != null) {
+                eventIds.forEach(this::discount);
+                keys.forEach(fields -> add(fields, sourceCountriesByEvent));
+            }
+        }
+
+        // 4th) Finally we mark the months before and after the change
+        markMonths(previousKeys);
+        markMonths(keys);
+    }
+
+    /**
+     * Removes from the counts the contribution of an event
+     *
+     * @param id
+     *            The identifier of the event
+     */
+    private void discount(Long id) {
+        final Contribution contribution = contributionsByEvent.remove(id);
+        if (contribution != null) {
+            contribution.counts.add(contribution.month, -1);
+        }
+    }
+
+    /**
+     * Checks if the counts are already in memory
+     *
+     * @return true if the counts have been loaded from the database
+     */
+    public synchronized boolean isLoaded() {
+        return countsByTargetCountry != null;
+    }
+
+    /**
+     * Removes an event from the counts
+     *
+     * @param event
+     *            The event being deleted
+     */
+    public synchronized void remove(Event event) {
+        if (countsByTargetCountry != null && event.getId() != null) {
+            discount(event.getId());
+        }
+    }
+
+    /**
+     * Updates the counts with new or modified events. Their fields are read again from the database, so the saved events do not need to have their
+     * associations loaded
+     *
+     * @param eventIds
+     *            The identifiers of the events already saved
+     */
+    public void update(List<Long> eventIds) {
+        if (!isLoaded() || eventIds.isEmpty()) {
+            return;
+        }
+        // 1st) We read where the events have to be counted
+        final List<Object[]> keys = findByIds(eventIds, eventDao::findCountingKeysByIdIn);
+        final Map<Long, Set<CountryCode>> sourceCountriesByEvent = groupSourceCountries(findByIds(eventIds, eventDao::findAttackerCountriesByIdIn));
+
+        // 2nd) Then we move them from where they were counted before
+        synchronized (this) {
+            eventIds.forEach(this::discount);
+            keys.forEach(fields -> add(fields, sourceCountriesByEvent));
+        }
+    }
+}
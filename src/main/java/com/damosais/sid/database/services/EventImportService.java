@@ -0,0 +1,319 @@
+package com.damosais.sid.database.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.damosais.sid.database.beans.Attack;
+import com.damosais.sid.database.beans.Attacker;
+import com.damosais.sid.database.beans.Event;
+import com.damosais.sid.database.beans.Incident;
+import com.damosais.sid.database.beans.Owner;
+import com.damosais.sid.database.beans.Target;
+import com.damosais.sid.database.beans.Tool;
+import com.damosais.sid.database.beans.User;
+import com.damosais.sid.database.dao.AttackDAO;
+import com.damosais.sid.database.dao.AttackerDAO;
+import com.damosais.sid.database.dao.EventDAO;
+import com.damosais.sid.database.dao.IncidentDAO;
+import com.damosais.sid.database.dao.OwnerDAO;
+import com.damosais.sid.database.dao.TargetDAO;
+import com.damosais.sid.database.dao.ToolDAO;
+import com.damosais.sid.database.dao.UnauthorizedResultDAO;
+
+/**
+ * This service is responsible of saving the events read from an Excel file together with everything they reference. The events are saved in chunks, each
+ * one on its own transaction, persisting first the owners, targets, tools, results, attackers and incidents they need and then the attacks and the events
+ * themselves. If a chunk fails it is rolled back and its rows are saved again one by one, so only the rows with problems are lost and each of them gets its
+ * own error message
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class EventImportService {
+    private static final Logger LOGGER = Logger.getLogger(EventImportService.class);
+
+    @Autowired
+    private OwnerDAO ownerDao;
+
+    @Autowired
+    private TargetDAO targetDao;
+
+    @Autowired
+    private ToolDAO toolDao;
+
+    @Autowired
+    private UnauthorizedResultDAO unauthorizedResultDao;
+
+    @Autowired
+    private AttackerDAO attackerDao;
+
+    @Autowired
+    private IncidentDAO incidentDao;
+
+    @Autowired
+    private AttackDAO attackDao;
+
+    @Autowired
+    private EventDAO eventDao;
+
+    @Autowired
+    private EventCountCube eventCountCube;
+
+    @Autowired
+    private CorrelationDirtyTracker correlationDirtyTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${sid.import.events.batchSize:200}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * This class holds the elements already in the database indexed by themselves, so the ones read from the file can be swapped by the saved ones in
+     * constant time. Every change done while saving a chunk is recorded so it can be undone if the transaction is rolled back
+     */
+    private static class ImportIndex {
+        private final Map<Owner, Owner> owners = new HashMap<>();
+        private final Map<Target, Target> targets = new HashMap<>();
+        private final Map<Tool, Tool> tools = new HashMap<>();
+        private final Map<Attacker, Attacker> attackers = new HashMap<>();
+        private final Map<Incident, Incident> incidents = new HashMap<>();
+        private final List<Runnable> undoActions = new ArrayList<>();
+
+        private <T> void index(Map<T, T> index, Collection<T> existing) {
+            existing.forEach(element -> index.put(element, element));
+        }
+
+        private <T> void register(Map<T, T> index, T element, Runnable clearId) {
+            index.put(element, element);
+            undoActions.add(() -> {
+                index.remove(element);
+                clearId.run();
+            });
+        }
+
+        private void rollback() {
+            for (int i = undoActions.size() - 1; i >= 0; i--) {
+                undoActions.get(i).run();
+            }
+            undoActions.clear();
+        }
+    }
+
+    /**
+     * Saves the events read from a file and all the elements they reference which are not yet in the database
+     *
+     * @param events
+     *            The events read from the file
+     * @param owners
+     *            The owners already in the database
+     * @param targets
+     *            The targets already in the database
+     * @param tools
+     *            The tools already in the database
+     * @param incidents
+     *            The incidents already in the database
+     * @param attackers
+     *            The attackers already in the database
+     * @param user
+     *            The user doing the import
+     * @return A map with the error found for each row of the file which could not be saved
+     */
+    public Map<Integer, String> importEvents(List<Event> events, Collection<Owner> owners, Collection<Target> targets, Collection<Tool> tools, Collection<Incident> incidents, Collection<Attacker> attackers, User user) {
+        // 1st) We index the existing elements
+        final ImportIndex index = new ImportIndex();
+        index.index(index.owners, owners);
+        index.index(index.targets, targets);
+        index.index(index.tools, tools);
+        index.index(index.incidents, incidents);
+        index.index(index.attackers, attackers);
+
+        // 2nd) Then we save the events chunk by chunk
+        final Map<Integer, String> errorsPerRow = new HashMap<>();
+        for (int start = 0; start < events.size(); start += batchSize) {
+            final List<Event> chunk = events.subList(start, Math.min(start + batchSize, events.size()));
+            try {
+                transactionTemplate.execute(status -> {
+                    chunk.forEach(event -> persist(event, index, user));
+                    return null;
+                });
+                index.undoActions.clear();
+                registerSaved(chunk);
+            } catch (final Exception e) {
+                // 2.1) If the chunk fails we undo what it did in memory and save its rows one by one to find out which ones are wrong
+                LOGGER.debug("Problem saving chunk of events, saving its rows one by one", e);
+                index.rollback();
+                for (final Event event : chunk) {
+                    saveAlone(event, index, user, errorsPerRow);
+                }
+            }
+        }
+        return errorsPerRow;
+    }
+
+    /**
+     * Creates the template used to give each chunk of an import its own transaction
+     */
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Persists an event and the elements it references on the current transaction. The elements which already exist replace the ones read from the file
+     *
+     * @param event
+     *            The event read from the file
+     * @param index
+     *            The index of the existing elements
+     * @param user
+     *            The user doing the import
+     */
+    private void persist(Event event, ImportIndex index, User user) {
+        // 1st) We save the owner and the target of the event
+        final Target target = event.getTarget();
+        final Owner owner = target.getOwner();
+        final Owner existingOwner = index.owners.get(owner);
+        if (existingOwner != null) {
+            target.setOwner(existingOwner);
+        } else {
+            owner.setCreated(new Date());
+            owner.setCreatedBy(user);
+            ownerDao.save(owner);
+            index.register(index.owners, owner, () -> owner.setId(null));
+        }
+        final Target existingTarget = index.targets.get(target);
+        if (existingTarget != null) {
+            event.setTarget(existingTarget);
+        } else {
+            target.setCreated(new Date());
+            target.setCreatedBy(user);
+            targetDao.save(target);
+            index.register(index.targets, target, () -> target.setId(null));
+        }
+
+        // 2nd) We then save the inner components of the attack
+        final Attack attack = event.getAttack();
+        final Tool tool = attack.getTool();
+        if (tool != null) {
+            final Tool existingTool = index.tools.get(tool);
+            if (existingTool != null) {
+                attack.setTool(existingTool);
+            } else {
+                tool.setCreated(new Date());
+                tool.setCreatedBy(user);
+                toolDao.save(tool);
+                index.register(index.tools, tool, () -> tool.setId(null));
+            }
+        }
+        if (attack.getUnauthorizedResults() != null) {
+            attack.getUnauthorizedResults().setCreated(new Date());
+            attack.getUnauthorizedResults().setCreatedBy(user);
+            unauthorizedResultDao.save(attack.getUnauthorizedResults());
+            index.undoActions.add(() -> attack.getUnauthorizedResults().setId(null));
+        }
+
+        // 3rd) And then we do the same with the ones of the incident
+        final Incident incident = attack.getIncident();
+        if (incident != null) {
+            if (incident.getAttackers() != null && !incident.getAttackers().isEmpty()) {
+                final Set<Attacker> withIds = new HashSet<>();
+                for (final Attacker attacker : incident.getAttackers()) {
+                    final Attacker existingAttacker = index.attackers.get(attacker);
+                    if (existingAttacker != null) {
+                        withIds.add(existingAttacker);
+                    } else {
+                        attacker.setCreated(new Date());
+                        attacker.setCreatedBy(user);
+                        attackerDao.save(attacker);
+                        index.register(index.attackers, attacker, () -> attacker.setId(null));
+                        withIds.add(attacker);
+                    }
+                }
+                incident.setAttackers(withIds);
+            }
+            final Incident existingIncident = StringUtils.isBlank(incident.getName()) ? null : index.incidents.get(incident);
+            if (existingIncident != null) {
+                attack.setIncident(existingIncident);
+            } else {
+                incident.setCreated(new Date());
+                incident.setCreatedBy(user);
+                incidentDao.save(incident);
+                index.register(index.incidents, incident, () -> incident.setId(null));
+            }
+        }
+
+        // 4th) Finally we save the attack and the event itself
+        attack.setCreated(new Date());
+        attack.setCreatedBy(user);
+        attackDao.save(attack);
+        index.undoActions.add(() -> attack.setId(null));
+        event.setCreated(new Date());
+        event.setCreatedBy(user);
+        eventDao.save(event);
+        index.undoActions.add(() -> event.setId(null));
+    }
+
+    /**
+     * Adds some events already committed to the event counts and marks their months as changed for the correlations
+     *
+     * @param events
+     *            The events saved
+     */
+    private void registerSaved(List<Event> events) {
+        final List<Long> ids = new ArrayList<>(events.size());
+        events.forEach(event -> ids.add(event.getId()));
+        eventCountCube.update(ids);
+        events.forEach(correlationDirtyTracker::markEvent);
+    }
+
+    /**
+     * Saves a single event on its own transaction, recording the error of its row if it fails
+     *
+     * @param event
+     *            The event read from the file
+     * @param index
+     *            The index of the existing elements
+     * @param user
+     *            The user doing the import
+     * @param errorsPerRow
+     *            The map where the errors of each row are stored
+     */
+    private void saveAlone(Event event, ImportIndex index, User user, Map<Integer, String> errorsPerRow) {
+        try {
+            transactionTemplate.execute(status -> {
+                persist(event, index, user);
+                return null;
+            });
+            index.undoActions.clear();
+            registerSaved(Collections.singletonList(event));
+        } catch (final Exception e) {
+            LOGGER.trace("Problem saving data: " + e.getMessage(), e);
+            index.rollback();
+            errorsPerRow.put(event.getRowNumber(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.damosais.sid.database.services;
+
+import java.util.Date;
+import java.util.Objects;
+
+import com.damosais.sid.database.beans.Action;
+import com.damosais.sid.database.beans.Event;
+
+/**
+ * This class identifies an event by the same fields used to consider two events equal (the date, the action and the target) but using only the identifier
+ * of the target, so it can be used to check cheaply if an event already exists. The date is compared by its time as the ones read from the database are
+ * timestamps, which are never equal to a plain date
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+public final class EventKey {
+    private final long date;
+    private final Action action;
+    private final Long targetId;
+
+    /**
+     * The constructor requires the fields that identify an event
+     *
+     * @param date
+     *            The date of the event
+     * @param action
+     *            The action performed
+     * @param targetId
+     *            The identifier of the target
+     */
+    public EventKey(Date date, Action action, Long targetId) {
+        this.date = date.getTime();
+        this.action = action;
+        this.targetId = targetId;
+    }
+
+    /**
+     * Returns the key of an event
+     *
+     * @param event
+     *            The event
+     * @return The key of the event or null if its date is not defined or its target has not been saved yet (in which case it can't exist already)
+     */
+    public static EventKey of(Event event) {
+        if (event.getDate() == null || event.getTarget() == null || event.getTarget().getId() == null) {
+            return null;
+        }
+        return new EventKey(event.getDate(), event.getAction(), event.getTarget().getId());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof EventKey)) {
+            return false;
+        }
+        final EventKey other = (EventKey) obj;
+        return date == other.date && action == other.action && Objects.equals(targetId, other.targetId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(date, action, targetId);
+    }
+}
@@ -0,0 +1,130 @@
+package com.damosais.sid.database.services;
+
+import java.util.Arrays;
+
+/**
+ * This class holds the number of events per month in a primitive array which starts on the first month with events and grows as needed. The months are
+ * expressed as number of months since January 1970 (see Timeline.toEpochMonth)
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+public class EventMonthlyCounts {
+    private long offset;
+    private int[] counts = new int[0];
+    private int total;
+
+    /**
+     * Adds (or subtracts if negative) a number of events to the given month
+     *
+     * @param epochMonth
+     *            The month as number of months since January 1970
+     * @param events
+     *            The number of events to add
+     */
+    void add(long epochMonth, int events) {
+        // 1st) If the array is empty we start it on the given month
+        if (counts.length == 0) {
+            offset = epochMonth;
+            counts = new int[1];
+        }
+        // 2nd) If the month is before the start we have to move the values to the right
+        if (epochMonth < offset) {
+            final int shift = (int) (offset - epochMonth);
+            final int[] grown = new int[counts.length + shift];
+            System.arraycopy(counts, 0, grown, shift, counts.length);
+            counts = grown;
+            offset = epochMonth;
+        }
+        // 3rd) If the month is after the end we just extend the array
+        final int position = (int) (epochMonth - offset);
+        if (position >= counts.length) {
+            counts = Arrays.copyOf(counts, position + 1);
+        }
+        counts[position] += events;
+        total += events;
+    }
+
+    /**
+     * Adds all the events of another set of counts to this one
+     *
+     * @param other
+     *            The counts to add
+     */
+    void addAll(EventMonthlyCounts other) {
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] != 0) {
+                add(other.offset + i, other.counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of events on the given month
+     *
+     * @param epochMonth
+     *            The month as number of months since January 1970
+     * @return the number of events on that month
+     */
+    public int getCount(long epochMonth) {
+        final long position = epochMonth - offset;
+        return position < 0 || position >= counts.length ? 0 : counts[(int) position];
+    }
+
+    /**
+     * Returns the number of events between two months
+     *
+     * @param firstMonth
+     *            The first month as number of months since January 1970
+     * @param lastMonth
+     *            The last month as number of months since January 1970
+     * @return the number of events between those months (both included)
+     */
+    public int getCount(long firstMonth, long lastMonth) {
+        final long from = Math.max(firstMonth - offset, 0);
+        final long to = Math.min(lastMonth - offset, counts.length - 1L);
+        int count = 0;
+        for (long position = from; position <= to; position++) {
+            count += counts[(int) position];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the first month with events
+     *
+     * @return the first month with events as number of months since January 1970 or -1 if there are no events
+     */
+    public long getFirstMonth() {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                return offset + i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the last month with events
+     *
+     * @return the last month with events as number of months since January 1970 or -1 if there are no events
+     */
+    public long getLastMonth() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] != 0) {
+                return offset + i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the total number of events
+     *
+     * @return the total number of events
+     */
+    public int getTotal() {
+        return total;
+    }
+}
@@ -1,11 +1,19 @@
 package com.damosais.sid.database.services;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import com.damosais.sid.database.beans.Action;
 import com.damosais.sid.database.beans.Attack;
 import com.damosais.sid.database.beans.Event;
 import com.damosais.sid.database.dao.EventDAO;
@@ -18,9 +26,18 @@ import com.damosais.sid.database.dao.EventDAO;
  * @since 1.0
  */
 @Service
-public class EventService {
+public class EventService implements PagedService<Event> {
     @Autowired
     private EventDAO eventDao;
+
+    @Autowired
+    private FetchPlanService fetchPlanService;
+
+    @Autowired
+    private EventCountCube eventCountCube;
+
+    @Autowired
+    private CorrelationDirtyTracker correlationDirtyTracker;
     
     /**
      * Deletes an event from the database
@@ -30,19 +47,47 @@ public class EventService {
      */
     public void delete(Event event) {
         eventDao.delete(event);
+        eventCountCube.remove(event);
+        correlationDirtyTracker.markEvent(event);
     }
     
+    @Override
+    public long count(Specification<Event> filter) {
+        return eventDao.count(filter);
+    }
+
     /**
      * Returns the existing events in the database
      *
      * @return The existing events in the database
      */
     public List<Event> list() {
-        final List<Event> events = new ArrayList<>();
-        eventDao.findAll().forEach(events::add);
-        return events;
+        return fetchPlanService.load(() -> {
+            final List<Event> events = new ArrayList<>();
+            eventDao.findAll().forEach(events::add);
+            return events;
+        }, FetchPlanService::initializeEvents);
     }
+
+    @Override
+    public Page<Event> list(Specification<Event> filter, Pageable page) {
+        return fetchPlanService.load(() -> eventDao.findAll(filter, page), FetchPlanService::initializeEvents);
+    }
+
     
+    /**
+     * Returns the keys of the existing events in the database, which allow checking if an event already exists without loading all of them
+     *
+     * @return A set with the keys of the existing events
+     */
+    public Set<EventKey> listKeys() {
+        final Set<EventKey> keys = new HashSet<>();
+        for (final Object[] fields : eventDao.findAllKeys()) {
+            keys.add(new EventKey((Date) fields[0], (Action) fields[1], (Long) fields[2]));
+        }
+        return keys;
+    }
+
     /**
      * Returns the events that are part of an attack
      * 
@@ -51,7 +96,7 @@ public class EventService {
      * @return a list with the events that are part of the attack
      */
     public List<Event> listByAttack(Attack attack) {
-        return eventDao.findByAttack(attack);
+        return fetchPlanService.load(() -> eventDao.findByAttack(attack), FetchPlanService::initializeEvents);
     }
 
     /**
@@ -61,6 +106,13 @@ public class EventService {
      *            The existing event
      */
     public void save(Event event) {
-        eventDao.save(event);
+        if (event.getId() == null) {
+            final Event saved = eventDao.save(event);
+            eventCountCube.update(Collections.singletonList(saved.getId()));
+            correlationDirtyTracker.markEvent(saved);
+        } else {
+            // An edited event may have changed its date or target, so the month where it was counted is read from the database before saving it
+            eventCountCube.recount(Collections.singletonList(event.getId()), () -> eventDao.save(event));
+        }
     }
 }
\ No newline at end of file
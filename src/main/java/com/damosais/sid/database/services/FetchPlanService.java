@@ -0,0 +1,150 @@
+package com.damosais.sid.database.services;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.damosais.sid.database.beans.Attack;
+import com.damosais.sid.database.beans.Conflict;
+import com.damosais.sid.database.beans.CorrelationHypothesis;
+import com.damosais.sid.database.beans.Event;
+import com.damosais.sid.database.beans.Incident;
+import com.damosais.sid.database.beans.Target;
+
+/**
+ * This service loads the entities together with the lazy collections the screens and the correlations need from them. The query and the initialisation of
+ * the collections run on the same read-only transaction, so the first collection of each kind loads at once (in a single query) the same collection of the
+ * other entities read, as they are mapped with a batch size. The entities can then be used once the transaction is over
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class FetchPlanService {
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Initialises the collections of the attacks: the attackers of their incidents and, if their events were fetched, the IPs of the targets of the events
+     *
+     * @param attacks
+     *            The attacks read
+     */
+    public static void initializeAttacks(Iterable<Attack> attacks) {
+        for (final Attack attack : attacks) {
+            if (attack.getIncident() != null) {
+                Hibernate.initialize(attack.getIncident().getAttackers());
+            }
+            if (attack.getEvents() != null && Hibernate.isInitialized(attack.getEvents())) {
+                initializeEvents(attack.getEvents());
+            }
+        }
+    }
+
+    /**
+     * Initialises the parties involved in the conflicts
+     *
+     * @param conflicts
+     *            The conflicts read
+     */
+    public static void initializeConflicts(Iterable<Conflict> conflicts) {
+        conflicts.forEach(conflict -> Hibernate.initialize(conflict.getPartiesInvolved()));
+    }
+
+    /**
+     * Initialises the collections of the events: the IPs of their targets and the attackers of the incidents of their attacks
+     *
+     * @param events
+     *            The events read
+     */
+    public static void initializeEvents(Iterable<Event> events) {
+        for (final Event event : events) {
+            if (event.getTarget() != null) {
+                Hibernate.initialize(event.getTarget().getIps());
+            }
+            if (event.getAttack() != null && event.getAttack().getIncident() != null) {
+                Hibernate.initialize(event.getAttack().getIncident().getAttackers());
+            }
+        }
+    }
+
+    /**
+     * Initialises the collections of the hypotheses: their source countries, variables and results and the parties of their conflicts
+     *
+     * @param hypotheses
+     *            The hypotheses read
+     */
+    public static void initializeHypotheses(Iterable<CorrelationHypothesis> hypotheses) {
+        for (final CorrelationHypothesis hypothesis : hypotheses) {
+            Hibernate.initialize(hypothesis.getSourceCountries());
+            Hibernate.initialize(hypothesis.getVariables());
+            Hibernate.initialize(hypothesis.getResults());
+            if (hypothesis.getConflict() != null) {
+                Hibernate.initialize(hypothesis.getConflict().getPartiesInvolved());
+            }
+        }
+    }
+
+    /**
+     * Initialises the collections of the incidents: their attackers and, if their attacks were fetched, the collections of the attacks
+     *
+     * @param incidents
+     *            The incidents read
+     */
+    public static void initializeIncidents(Iterable<Incident> incidents) {
+        for (final Incident incident : incidents) {
+            Hibernate.initialize(incident.getAttackers());
+            if (incident.getAttacks() != null && Hibernate.isInitialized(incident.getAttacks())) {
+                initializeAttacks(incident.getAttacks());
+            }
+        }
+    }
+
+    /**
+     * Initialises the IPs of the targets
+     *
+     * @param targets
+     *            The targets read
+     */
+    public static void initializeTargets(Iterable<Target> targets) {
+        targets.forEach(target -> Hibernate.initialize(target.getIps()));
+    }
+
+    /**
+     * Creates the read-only template used to run the queries and their fetch plans
+     */
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Runs a query and then initialises the collections of its result on the same transaction
+     *
+     * @param query
+     *            The query
+     * @param plan
+     *            The initialisation of the collections needed from the result
+     * @param <R>
+     *            The type of the result
+     * @return The result of the query with the collections loaded
+     */
+    public <R> R load(Supplier<R> query, Consumer<? super R> plan) {
+        return transactionTemplate.execute(status -> {
+            final R result = query.get();
+            plan.accept(result);
+            return result;
+        });
+    }
+}
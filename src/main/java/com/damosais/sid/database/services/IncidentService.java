@@ -1,12 +1,17 @@
 package com.damosais.sid.database.services;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import com.damosais.sid.database.beans.Incident;
+import com.damosais.sid.database.dao.EventDAO;
 import com.damosais.sid.database.dao.IncidentDAO;
 
 /**
@@ -17,9 +22,18 @@ import com.damosais.sid.database.dao.IncidentDAO;
  * @since 1.0
  */
 @Service
-public class IncidentService {
+public class IncidentService implements PagedService<Incident> {
     @Autowired
     private IncidentDAO incidentDao;
+
+    @Autowired
+    private FetchPlanService fetchPlanService;
+
+    @Autowired
+    private EventDAO eventDao;
+
+    @Autowired
+    private EventCountCube eventCountCube;
     
     /**
      * Deletes an incident from the database
@@ -28,19 +42,33 @@ public class IncidentService {
      *            The incident to be deleted
      */
     public void delete(Incident incident) {
-        incidentDao.delete(incident);
+        eventCountCube.recount(eventDao.findIdsByIncident(incident), () -> incidentDao.delete(incident));
     }
     
+    @Override
+    public long count(Specification<Incident> filter) {
+        return incidentDao.count(filter);
+    }
+
     /**
-     * Returns the existing incidents in the database
+     * Returns the existing incidents in the database without their attacks, as needed to match them by name when importing
      *
      * @return The existing incidents in the database
      */
     public List<Incident> list() {
-        final List<Incident> incidents = new ArrayList<>();
-        incidentDao.findAll().forEach(incidents::add);
-        return incidents;
+        return fetchPlanService.load(() -> {
+            final List<Incident> incidents = new ArrayList<>();
+            incidentDao.findAll().forEach(incidents::add);
+            return incidents;
+        }, FetchPlanService::initializeIncidents);
     }
+
+    @Override
+    public Page<Incident> list(Specification<Incident> filter, Pageable page) {
+        // The start and end shown for each incident come from the events of its attacks, so we load them for the whole page at once
+        return fetchPlanService.load(() -> PagedService.reload(incidentDao.findAll(filter, page), page, Incident::getId, incidentDao::findWithAttacksByIdIn), FetchPlanService::initializeIncidents);
+    }
+
     
     /**
      * Saves an existing incident to the database
@@ -49,6 +77,8 @@ public class IncidentService {
      *            The existing incident
      */
     public void save(Incident incident) {
-        incidentDao.save(incident);
+        // The attackers of the incident decide the source countries its events are counted for (a new incident has no events yet)
+        final List<Long> eventIds = incident.getId() != null ? eventDao.findIdsByIncident(incident) : Collections.emptyList();
+        eventCountCube.recount(eventIds, () -> incidentDao.save(incident));
     }
 }
\ No newline at end of file
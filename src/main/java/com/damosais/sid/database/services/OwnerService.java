@@ -1,12 +1,17 @@
 package com.damosais.sid.database.services;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import com.damosais.sid.database.beans.Owner;
+import com.damosais.sid.database.dao.EventDAO;
 import com.damosais.sid.database.dao.OwnerDAO;
 
 /**
@@ -17,9 +22,15 @@ import com.damosais.sid.database.dao.OwnerDAO;
  * @since 1.0
  */
 @Service
-public class OwnerService {
+public class OwnerService implements PagedService<Owner> {
     @Autowired
     private OwnerDAO ownerDao;
+
+    @Autowired
+    private EventDAO eventDao;
+
+    @Autowired
+    private EventCountCube eventCountCube;
     
     /**
      * Deletes an owner from the database
@@ -28,7 +39,12 @@ public class OwnerService {
      *            The owner being deleted
      */
     public void delete(Owner owner) {
-        ownerDao.delete(owner);
+        eventCountCube.recount(eventDao.findIdsByOwner(owner), () -> ownerDao.delete(owner));
+    }
+
+    @Override
+    public long count(Specification<Owner> filter) {
+        return ownerDao.count(filter);
     }
 
     /**
@@ -42,6 +58,11 @@ public class OwnerService {
         return owners;
     }
 
+    @Override
+    public Page<Owner> list(Specification<Owner> filter, Pageable page) {
+        return ownerDao.findAll(filter, page);
+    }
+
     /**
      * Saves an existing owner to the database
      *
@@ -49,6 +70,8 @@ public class OwnerService {
      *            The existing owner
      */
     public void save(Owner owner) {
-        ownerDao.save(owner);
+        // The sector of the owner decides where the events against its targets are counted (a new owner has no targets yet)
+        final List<Long> eventIds = owner.getId() != null ? eventDao.findIdsByOwner(owner) : Collections.emptyList();
+        eventCountCube.recount(eventIds, () -> ownerDao.save(owner));
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.damosais.sid.database.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * This interface is implemented by the services which can return their elements page by page, so the screens only load from the database the rows being
+ * shown instead of the whole table
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ * @param <T>
+ *            The type of the elements
+ */
+public interface PagedService<T> {
+    /**
+     * Returns the number of elements matching a filter
+     *
+     * @param filter
+     *            The filter the elements must match or null for all of them
+     * @return The number of elements matching the filter
+     */
+    public long count(Specification<T> filter);
+
+    /**
+     * Returns a page of the elements matching a filter
+     *
+     * @param filter
+     *            The filter the elements must match or null for all of them
+     * @param page
+     *            The position, size and order of the page
+     * @return The elements of the page
+     */
+    public Page<T> list(Specification<T> filter, Pageable page);
+
+    /**
+     * Loads again the elements of a page with the associations they need to be shown. The page itself is found without fetching collections, as the
+     * database cannot limit the rows of a query joining them, and then its elements are loaded with a single query by their identifiers
+     *
+     * @param page
+     *            The page found
+     * @param pageable
+     *            The position, size and order of the page
+     * @param identifier
+     *            The function returning the identifier of an element
+     * @param loader
+     *            The query loading the elements with their associations by their identifiers
+     * @param <T>
+     *            The type of the elements
+     * @return The page with the elements loaded with their associations, keeping their order
+     */
+    public static <T> Page<T> reload(Page<T> page, Pageable pageable, Function<T, Long> identifier, Function<Collection<Long>, List<T>> loader) {
+        if (!page.hasContent()) {
+            return page;
+        }
+        // 1st) We load the elements by their identifiers
+        final List<Long> ids = new ArrayList<>();
+        page.getContent().forEach(element -> ids.add(identifier.apply(element)));
+        final Map<Long, T> loaded = new HashMap<>();
+        loader.apply(ids).forEach(element -> loaded.put(identifier.apply(element), element));
+        // 2nd) Then we put them back in the order of the page (if one was deleted in between we keep the one we had)
+        final List<T> content = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            content.add(loaded.getOrDefault(ids.get(i), page.getContent().get(i)));
+        }
+        return new PageImpl<>(content, pageable, page.getTotalElements());
+    }
+}
@@ -0,0 +1,242 @@
+package com.damosais.sid.database.services;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.damosais.sid.database.beans.CorrelationResult;
+
+/**
+ * This service calculates the p-values of the Pearson's and Spearman's correlations with a permutation test instead of the t test, so they do not depend on
+ * the data being normally distributed. The events are shuffled randomly many times and the p-value is the proportion of shuffles with a correlation at least
+ * as strong as the observed one. The shuffles are split in blocks run on a fork-join pool, each block with its own random generator and buffers, and the test
+ * stops as soon as enough shuffles beat the observed correlations for the result to be non significative whatever the remaining ones give
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class PermutationTestService {
+    // Number of shuffles run by each task of the pool
+    private static final int BLOCK = 256;
+    // Number of shuffles after which each task publishes its counts and checks if the test is already decided
+    private static final int CHECK = 32;
+    // Tolerance so the shuffles giving the same correlation as the observed one are counted despite rounding errors
+    private static final double TOLERANCE = 1e-12;
+    private final ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+    @Value("${sid.correlations.permutations:0}")
+    private int permutations;
+
+    /**
+     * This class holds the p-values given by the test
+     */
+    public static class PValues {
+        private final double pearson;
+        private final double spearman;
+        private final int shuffles;
+
+        private PValues(double pearson, double spearman, int shuffles) {
+            this.pearson = pearson;
+            this.spearman = spearman;
+            this.shuffles = shuffles;
+        }
+
+        public double getPearson() {
+            return pearson;
+        }
+
+        /**
+         * Returns the number of shuffles run before the test was decided
+         *
+         * @return the number of shuffles run
+         */
+        public int getShuffles() {
+            return shuffles;
+        }
+
+        public double getSpearman() {
+            return spearman;
+        }
+    }
+
+    /**
+     * This class holds the data shared by all the tasks of a test: the centred data sets, the observed correlations and the counts
+     */
+    private static class Test {
+        private final double[] values;
+        private final double[] events;
+        private final double[] valueRanks;
+        private final double[] eventRanks;
+        private final double observedPearson;
+        private final double observedSpearman;
+        // Once both counts are above this limit the p-values are bigger than the significance level
+        private final double decisionLimit;
+        private final AtomicInteger pearsonExceedances = new AtomicInteger();
+        private final AtomicInteger spearmanExceedances = new AtomicInteger();
+        private final AtomicInteger shuffles = new AtomicInteger();
+
+        private Test(double[] values, double[] events, double[] valueRanks, double[] eventRanks, int permutations) {
+            this.values = centre(values);
+            this.events = centre(events);
+            this.valueRanks = centre(valueRanks);
+            this.eventRanks = centre(eventRanks);
+            // The means and the variances do not change when shuffling, so comparing the sums of the products is enough
+            observedPearson = Math.abs(sumProducts(this.values, this.events)) * (1d - TOLERANCE);
+            observedSpearman = Math.abs(sumProducts(this.valueRanks, this.eventRanks)) * (1d - TOLERANCE);
+            decisionLimit = CorrelationResult.NON_NULL_HYPOTHESIS_LEVEL * (permutations + 1);
+        }
+
+        private boolean isDecided() {
+            return pearsonExceedances.get() > decisionLimit && spearmanExceedances.get() > decisionLimit;
+        }
+    }
+
+    /**
+     * This class runs a number of shuffles, splitting them in two halves while there are more than a block
+     */
+    private static class Shuffles extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Test test;
+        private final int count;
+        private final SplittableRandom random;
+
+        private Shuffles(Test test, int count, SplittableRandom random) {
+            this.test = test;
+            this.count = count;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (count > BLOCK) {
+                final int half = count / 2;
+                invokeAll(new Shuffles(test, half, random.split()), new Shuffles(test, count - half, random));
+            } else {
+                shuffle();
+            }
+        }
+
+        /**
+         * Shuffles the events and their ranks together on buffers of this task, counting the shuffles with a correlation as strong as the observed one
+         */
+        private void shuffle() {
+            final double[] events = Arrays.copyOf(test.events, test.events.length);
+            final double[] eventRanks = Arrays.copyOf(test.eventRanks, test.eventRanks.length);
+            int pearsonExceedances = 0;
+            int spearmanExceedances = 0;
+            int done = 0;
+            for (int i = 0; i < count; i++) {
+                // 1st) We do a Fisher-Yates shuffle swapping the same positions on both arrays
+                for (int position = events.length - 1; position > 0; position--) {
+                    final int other = random.nextInt(position + 1);
+                    swap(events, position, other);
+                    swap(eventRanks, position, other);
+                }
+                // 2nd) We check if the correlations are as strong as the observed ones
+                if (Math.abs(sumProducts(test.values, events)) >= test.observedPearson) {
+                    pearsonExceedances++;
+                }
+                if (Math.abs(sumProducts(test.valueRanks, eventRanks)) >= test.observedSpearman) {
+                    spearmanExceedances++;
+                }
+                done++;
+                // 3rd) From time to time we publish the counts and stop if the test is already decided
+                if (done == CHECK || i == count - 1) {
+                    test.pearsonExceedances.addAndGet(pearsonExceedances);
+                    test.spearmanExceedances.addAndGet(spearmanExceedances);
+                    test.shuffles.addAndGet(done);
+                    pearsonExceedances = 0;
+                    spearmanExceedances = 0;
+                    done = 0;
+                    if (test.isDecided()) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of a data set minus its mean
+     *
+     * @param data
+     *            The data set
+     * @return The centred data set
+     */
+    private static double[] centre(double[] data) {
+        double mean = 0d;
+        for (final double value : data) {
+            mean += value;
+        }
+        mean /= data.length;
+        final double[] centred = new double[data.length];
+        for (int i = 0; i < data.length; i++) {
+            centred[i] = data[i] - mean;
+        }
+        return centred;
+    }
+
+    private static double sumProducts(double[] x, double[] y) {
+        double sum = 0d;
+        for (int i = 0; i < x.length; i++) {
+            sum += x[i] * y[i];
+        }
+        return sum;
+    }
+
+    private static void swap(double[] data, int first, int second) {
+        final double temporary = data[first];
+        data[first] = data[second];
+        data[second] = temporary;
+    }
+
+    /**
+     * Checks if the p-values must be calculated with the permutation test
+     *
+     * @return true if a number of permutations has been configured
+     */
+    public boolean isEnabled() {
+        return permutations > 0;
+    }
+
+    /**
+     * Stops the pool when the application is shutting down
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Calculates the p-values of the correlations between the values and the events shuffling the events as many times as configured. If the test stops
+     * early the p-values are estimated from the shuffles run so far
+     *
+     * @param values
+     *            The values of the variable on each time bucket
+     * @param events
+     *            The number of events on each time bucket
+     * @param valueRanks
+     *            The ranks of the values
+     * @param eventRanks
+     *            The ranks of the events
+     * @return The p-values or null if the data is not enough to run the test
+     */
+    public PValues test(double[] values, double[] events, double[] valueRanks, double[] eventRanks) {
+        if (values.length < 3) {
+            return null;
+        }
+        final Test test = new Test(values, events, valueRanks, eventRanks, permutations);
+        pool.invoke(new Shuffles(test, permutations, new SplittableRandom()));
+        final int shuffles = test.shuffles.get();
+        return new PValues((test.pearsonExceedances.get() + 1d) / (shuffles + 1d), (test.spearmanExceedances.get() + 1d) / (shuffles + 1d), shuffles);
+    }
+}
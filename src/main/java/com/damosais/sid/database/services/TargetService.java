@@ -1,6 +1,7 @@
 package com.damosais.sid.database.services;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +9,7 @@ import org.springframework.stereotype.Service;
 
 import com.damosais.sid.database.beans.Owner;
 import com.damosais.sid.database.beans.Target;
+import com.damosais.sid.database.dao.EventDAO;
 import com.damosais.sid.database.dao.TargetDAO;
 
 /**
@@ -22,6 +24,15 @@ public class TargetService {
     @Autowired
     private TargetDAO targetDao;
 
+    @Autowired
+    private EventDAO eventDao;
+
+    @Autowired
+    private FetchPlanService fetchPlanService;
+
+    @Autowired
+    private EventCountCube eventCountCube;
+
     /**
      * Deletes a target from the database
      *
@@ -29,7 +40,7 @@ public class TargetService {
      *            The target to be deleted
      */
     public void delete(Target target) {
-        targetDao.delete(target);
+        eventCountCube.recount(eventDao.findIdsByTarget(target), () -> targetDao.delete(target));
     }
 
     /**
@@ -38,9 +49,11 @@ public class TargetService {
      * @return The existing targets in the database
      */
     public List<Target> list() {
-        final List<Target> targets = new ArrayList<>();
-        targetDao.findAll().forEach(targets::add);
-        return targets;
+        return fetchPlanService.load(() -> {
+            final List<Target> targets = new ArrayList<>();
+            targetDao.findAll().forEach(targets::add);
+            return targets;
+        }, FetchPlanService::initializeTargets);
     }
 
     /**
@@ -51,7 +64,7 @@ public class TargetService {
      * @return A list with the targets of the owner
      */
     public List<Target> listByOwner(Owner owner) {
-        return targetDao.findByOwner(owner);
+        return fetchPlanService.load(() -> targetDao.findByOwner(owner), FetchPlanService::initializeTargets);
     }
 
     /**
@@ -61,6 +74,8 @@ public class TargetService {
      *            The existing target
      */
     public void save(Target target) {
-        targetDao.save(target);
+        // The country of the target decides the months its events are counted on, so both the old and the new ones are refreshed
+        final List<Long> eventIds = target.getId() != null ? eventDao.findIdsByTarget(target) : Collections.emptyList();
+        eventCountCube.recount(eventIds, () -> targetDao.save(target));
     }
 }
\ No newline at end of file
@@ -0,0 +1,233 @@
+package com.damosais.sid.database.services;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * This class represents a period of time split in consecutive buckets of one month, one quarter or one year. The months are handled as the number of
+ * months since January 1970 (epoch months), so finding the bucket of a date is simple arithmetic and does not need to create any object. The quarters and
+ * years always start on January, April, July and October or on January respectively
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+public class Timeline {
+    private static final int EPOCH_YEAR = 1970;
+    private static final long MILLIS_PER_DAY = 24L * 60L * 60L * 1000L;
+    // The default time zone is cached as TimeZone.getDefault() returns a new copy on each call
+    private static final TimeZone TIME_ZONE = TimeZone.getDefault();
+    private static final ZoneId ZONE_ID = TIME_ZONE.toZoneId();
+    private final Granularity granularity;
+    private final long firstMonth;
+    private final int size;
+    private final long[] startMillis;
+
+    /**
+     * This enumeration represents the length of the buckets of a timeline
+     */
+    public enum Granularity {
+        MONTH(1), QUARTER(3), YEAR(12);
+
+        private final int months;
+
+        private Granularity(int months) {
+            this.months = months;
+        }
+
+        public int getMonths() {
+            return months;
+        }
+    }
+
+    /**
+     * Creates a timeline covering all the buckets between the ones of the given months (both included)
+     *
+     * @param startMonth
+     *            The first month of the period as number of months since January 1970
+     * @param endMonth
+     *            The last month of the period as number of months since January 1970
+     * @param granularity
+     *            The length of the buckets
+     */
+    public Timeline(long startMonth, long endMonth, Granularity granularity) {
+        this.granularity = granularity;
+        firstMonth = Math.floorDiv(startMonth, granularity.months) * granularity.months;
+        size = endMonth < startMonth ? 0 : (int) ((endMonth - firstMonth) / granularity.months) + 1;
+        startMillis = new long[size];
+        for (int i = 0; i < size; i++) {
+            startMillis[i] = toDate(getStartMonth(i)).getTime();
+        }
+    }
+
+    /**
+     * Creates a timeline covering all the buckets between the ones of the given dates (both included)
+     *
+     * @param start
+     *            The start of the period
+     * @param end
+     *            The end of the period
+     * @param granularity
+     *            The length of the buckets
+     * @return The timeline
+     */
+    public static Timeline of(Date start, Date end, Granularity granularity) {
+        return new Timeline(toEpochMonth(start), toEpochMonth(end), granularity);
+    }
+
+    /**
+     * Returns the first day of the given month as a date in the default time zone
+     *
+     * @param epochMonth
+     *            The month as number of months since January 1970
+     * @return the date of the first day of that month
+     */
+    public static Date toDate(long epochMonth) {
+        return Date.from(toYearMonth(epochMonth).atDay(1).atStartOfDay(ZONE_ID).toInstant());
+    }
+
+    /**
+     * Returns the number of months since January 1970 for the month of the given date
+     *
+     * @param date
+     *            The date to convert
+     * @return the number of months since January 1970
+     */
+    public static long toEpochMonth(Date date) {
+        return toEpochMonth(date.getTime());
+    }
+
+    /**
+     * Returns the number of months since January 1970 for the month of the given instant in the default time zone. The calendar is calculated directly
+     * from the number of days so no objects are created
+     *
+     * @param millis
+     *            The milliseconds since the epoch
+     * @return the number of months since January 1970
+     */
+    public static long toEpochMonth(long millis) {
+        // We use the days since 1st of March of year 0 so the leap day is the last of each year and the eras of 400 years all have the same length
+        final long days = Math.floorDiv(millis + TIME_ZONE.getOffset(millis), MILLIS_PER_DAY) + 719468L;
+        final long era = Math.floorDiv(days, 146097L);
+        final long dayOfEra = days - era * 146097L;
+        final long yearOfEra = (dayOfEra - dayOfEra / 1460L + dayOfEra / 36524L - dayOfEra / 146096L) / 365L;
+        final long dayOfYear = dayOfEra - (365L * yearOfEra + yearOfEra / 4L - yearOfEra / 100L);
+        final long shiftedMonth = (5L * dayOfYear + 2L) / 153L;
+        final long month = shiftedMonth < 10L ? shiftedMonth + 2L : shiftedMonth - 10L;
+        final long year = yearOfEra + era * 400L + (month < 2L ? 1L : 0L);
+        return (year - EPOCH_YEAR) * 12L + month;
+    }
+
+    /**
+     * Returns the number of months since January 1970 for the given month
+     *
+     * @param yearMonth
+     *            The month to convert
+     * @return the number of months since January 1970
+     */
+    public static long toEpochMonth(YearMonth yearMonth) {
+        return (yearMonth.getYear() - EPOCH_YEAR) * 12L + yearMonth.getMonthValue() - 1;
+    }
+
+    /**
+     * Returns the month corresponding to a number of months since January 1970
+     *
+     * @param epochMonth
+     *            The number of months since January 1970
+     * @return the month
+     */
+    public static YearMonth toYearMonth(long epochMonth) {
+        return YearMonth.of(EPOCH_YEAR + (int) Math.floorDiv(epochMonth, 12L), (int) Math.floorMod(epochMonth, 12L) + 1);
+    }
+
+    /**
+     * Returns the last month of a bucket
+     *
+     * @param index
+     *            The position of the bucket
+     * @return the last month of the bucket as number of months since January 1970
+     */
+    public long getEndMonth(int index) {
+        return getStartMonth(index) + granularity.months - 1;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    /**
+     * Returns the name of a bucket as shown to the users: 2017-01 for months, 2017-Q1 for quarters and 2017 for years
+     *
+     * @param index
+     *            The position of the bucket
+     * @return the name of the bucket
+     */
+    public String getLabel(int index) {
+        final YearMonth start = toYearMonth(getStartMonth(index));
+        switch (granularity) {
+            case QUARTER:
+                return start.getYear() + "-Q" + ((start.getMonthValue() - 1) / 3 + 1);
+            case YEAR:
+                return String.valueOf(start.getYear());
+            default:
+                return start.toString();
+        }
+    }
+
+    /**
+     * Returns the first day of a bucket
+     *
+     * @param index
+     *            The position of the bucket
+     * @return the first day of the bucket as milliseconds since the epoch
+     */
+    public long getStartMillis(int index) {
+        return startMillis[index];
+    }
+
+    /**
+     * Returns the first month of a bucket
+     *
+     * @param index
+     *            The position of the bucket
+     * @return the first month of the bucket as number of months since January 1970
+     */
+    public long getStartMonth(int index) {
+        return firstMonth + (long) index * granularity.months;
+    }
+
+    /**
+     * Returns the position of the bucket containing the given date
+     *
+     * @param date
+     *            The date to look for
+     * @return the position of the bucket or -1 if the date is out of the timeline
+     */
+    public int indexOf(Date date) {
+        return indexOfMonth(toEpochMonth(date.getTime()));
+    }
+
+    /**
+     * Returns the position of the bucket containing the given month
+     *
+     * @param epochMonth
+     *            The month as number of months since January 1970
+     * @return the position of the bucket or -1 if the month is out of the timeline
+     */
+    public int indexOfMonth(long epochMonth) {
+        final long position = Math.floorDiv(epochMonth - firstMonth, granularity.months);
+        return position < 0 || position >= size ? -1 : (int) position;
+    }
+
+    /**
+     * Returns the number of buckets of the timeline
+     *
+     * @return the number of buckets of the timeline
+     */
+    public int size() {
+        return size;
+    }
+
+}
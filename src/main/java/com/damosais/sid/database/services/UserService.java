@@ -7,11 +7,14 @@ import java.security.spec.KeySpec;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
 import javax.security.auth.login.LoginException;
 
+import org.hibernate.proxy.HibernateProxy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -37,6 +40,9 @@ public class UserService {
     @Autowired
     private UserDAO userDao;
 
+    // Names of the users by their identifier, so the tables can show who created or updated each row without loading the users
+    private final Map<Long, String> namesById = new ConcurrentHashMap<>();
+
     private void createDefaultUser() throws GeneralSecurityException {
         final User user = new User();
         user.setName(DEFAULT_NAME);
@@ -54,6 +60,7 @@ public class UserService {
      */
     public void delete(User user) {
         userDao.delete(user);
+        namesById.remove(user.getId());
     }
 
     /**
@@ -106,6 +113,28 @@ public class UserService {
         return new String(Base64.getEncoder().encode(f.generateSecret(spec).getEncoded()));
     }
 
+    /**
+     * Returns the name of an user. The users who created and updated the rows are references not loaded from the database, so for them the name is
+     * found by their identifier and kept in memory, so after the first time it does not need any query
+     *
+     * @param user
+     *            The user, which can be a reference not loaded yet
+     * @return The name of the user or null if it does not exist
+     */
+    public String getName(User user) {
+        if (user == null) {
+            return null;
+        } else if (!(user instanceof HibernateProxy)) {
+            return user.getName();
+        }
+        // We take the identifier from the reference as asking it to the user would load it
+        final Long id = (Long) ((HibernateProxy) user).getHibernateLazyInitializer().getIdentifier();
+        return namesById.computeIfAbsent(id, key -> {
+            final User found = userDao.findOne(key);
+            return found != null ? found.getName() : null;
+        });
+    }
+
     /**
      * Returns the existing users in the database
      *
@@ -169,5 +198,6 @@ public class UserService {
      */
     public void save(User user) {
         userDao.save(user);
+        namesById.remove(user.getId());
     }
 }
\ No newline at end of file
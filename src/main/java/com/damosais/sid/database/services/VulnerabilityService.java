@@ -4,6 +4,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import com.damosais.sid.database.beans.Vulnerability;
@@ -17,7 +20,7 @@ import com.damosais.sid.database.dao.VulnerabilityDAO;
  * @since 1.0
  */
 @Service
-public class VulnerabilityService {
+public class VulnerabilityService implements PagedService<Vulnerability> {
     @Autowired
     private VulnerabilityDAO vulnerabilityDao;
     
@@ -31,6 +34,11 @@ public class VulnerabilityService {
         vulnerabilityDao.delete(vulnerability);
     }
     
+    @Override
+    public long count(Specification<Vulnerability> filter) {
+        return vulnerabilityDao.count(filter);
+    }
+
     /**
      * Returns the existing vulnerabilities in the database
      *
@@ -41,6 +49,11 @@ public class VulnerabilityService {
         vulnerabilityDao.findAll().forEach(vulnerabilities::add);
         return vulnerabilities;
     }
+
+    @Override
+    public Page<Vulnerability> list(Specification<Vulnerability> filter, Pageable page) {
+        return vulnerabilityDao.findAll(filter, page);
+    }
     
     /**
      * Saves an existing vulnerability to the database
@@ -34,7 +34,7 @@ public interface CVENVDHandler {
     /**
      * Returns the data that has been parsed from the file
      *
-     * @return A list with the definitions parsed from the file
+     * @return A list with the definitions parsed from the file (empty if the definitions were streamed to a consumer)
      */
     public List<CVEDefinition> getParsedData();
 
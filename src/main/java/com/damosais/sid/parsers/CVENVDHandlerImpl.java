@@ -5,6 +5,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
@@ -30,21 +31,39 @@ import com.damosais.sid.database.beans.Severity;
 public class CVENVDHandlerImpl implements CVENVDHandler {
     private static final Logger LOGGER = Logger.getLogger(CVENVDHandlerImpl.class);
     private final DateFormat dateFormat;
+    private final Consumer<CVEDefinition> consumer;
     private List<CVEDefinition> definitions;
     private CVEDefinition definition;
     private LossType lossType;
     private RangeType rangeType;
 
     /**
-     * The default constructor just initialises the date format
+     * The default constructor just initialises the date format. The definitions parsed are kept in memory until the end of the file
      */
     public CVENVDHandlerImpl() {
+        this(null);
+    }
+
+    /**
+     * This constructor allows streaming the definitions: each one is handed to the consumer as soon as its entry node is finished instead of being kept
+     * in memory
+     *
+     * @param consumer
+     *            The consumer of the parsed definitions, if null they are kept in memory
+     */
+    public CVENVDHandlerImpl(Consumer<CVEDefinition> consumer) {
         dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        this.consumer = consumer;
     }
     
     @Override
     public void endEntryNode() {
-        definitions.add(definition);
+        if (consumer != null) {
+            consumer.accept(definition);
+        } else {
+            definitions.add(definition);
+        }
+        definition = null;
     }
     
     @Override
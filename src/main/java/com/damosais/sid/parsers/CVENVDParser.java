@@ -4,6 +4,7 @@ import java.io.File;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.xml.parsers.SAXParserFactory;
 
@@ -138,7 +139,25 @@ public class CVENVDParser implements ContentHandler {
      *             If there is a problem reading the data
      */
     public List<CVEDefinition> parse(File xmlFile) throws SAXException {
-        handler = new CVENVDHandlerImpl();
+        return parse(xmlFile, new CVENVDHandlerImpl());
+    }
+
+    /**
+     * Parses an XML file handing each CVE definition to the consumer as soon as it has been read, so the definitions are not kept in memory
+     *
+     * @param xmlFile
+     *            The XML file
+     * @param consumer
+     *            The consumer which receives the definitions in the same order as they appear in the file
+     * @throws SAXException
+     *             If there is a problem reading the data
+     */
+    public void parse(File xmlFile, Consumer<CVEDefinition> consumer) throws SAXException {
+        parse(xmlFile, new CVENVDHandlerImpl(consumer));
+    }
+
+    private List<CVEDefinition> parse(File xmlFile, CVENVDHandler cveHandler) throws SAXException {
+        handler = cveHandler;
         buffer = new StringBuilder(111);
         context = new ArrayDeque<>();
         parser.setContentHandler(this);
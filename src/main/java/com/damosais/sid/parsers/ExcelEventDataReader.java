@@ -1,21 +1,20 @@
 package com.damosais.sid.parsers;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
 
 import com.damosais.sid.database.beans.Action;
 import com.damosais.sid.database.beans.Attack;
@@ -31,6 +30,7 @@ import com.damosais.sid.database.beans.Tool;
 import com.damosais.sid.database.beans.ToolType;
 import com.damosais.sid.database.beans.UnathourizedResultType;
 import com.damosais.sid.database.beans.UnauthorizedResult;
+import com.damosais.sid.database.services.EventKey;
 import com.damosais.sid.webapp.windows.ImportEventDataWindow;
 import com.neovisionaries.i18n.CountryCode;
 
@@ -407,7 +407,7 @@ public class ExcelEventDataReader extends ExcelReader {
      * @throws ParseException
      *             If there's a problem parsing the downtime
      */
-    private Event processContentRow(int rowNumber, Row row, Map<Integer, String> columnMap, Map<String, Owner> ownersByName, Map<String, Target> targetsByName, Map<String, Tool> toolsByName, Map<String, Incident> incidentsByName, Map<String, Attacker> attackersByName) {
+    private Event processContentRow(int rowNumber, ExcelRow row, Map<Integer, String> columnMap, Map<String, Owner> ownersByName, Map<String, Target> targetsByName, Map<String, Tool> toolsByName, Map<String, Incident> incidentsByName, Map<String, Attacker> attackersByName) {
         // 1st) We get the content of the row
         final Map<String, Object> rowContents = readRowContent(row, columnMap);
         
@@ -445,10 +445,12 @@ public class ExcelEventDataReader extends ExcelReader {
      * @param existingAttackers
      *            A list with the existing attackers in the system
      * @param existingEvents
-     *            A list with the existing events in the system
+     *            A set with the keys of the existing events in the system
      * @return A list with the events read from it
+     * @throws IOException
+     *             If there is a problem reading the file
      */
-    public List<Event> readAndProcessValues(String sheetName, Map<String, String> mappingValues, List<Owner> existingOwners, List<Target> existingTargets, List<Tool> existingTools, List<Incident> existingIncidents, List<Attacker> existingAttackers, List<Event> existingEvents) {
+    public List<Event> readAndProcessValues(String sheetName, Map<String, String> mappingValues, List<Owner> existingOwners, List<Target> existingTargets, List<Tool> existingTools, List<Incident> existingIncidents, List<Attacker> existingAttackers, Set<EventKey> existingEvents) throws IOException {
         // 1st) We create maps of the existing elements to avoid duplication
         final Map<String, Owner> ownersByName = new HashMap<>(existingOwners.stream().collect(Collectors.toMap(Owner::getName, Function.identity())));
         final Map<String, Target> targetsBySiteName = new HashMap<>(existingTargets.stream().collect(Collectors.toMap(Target::getSiteName, Function.identity())));
@@ -458,24 +460,21 @@ public class ExcelEventDataReader extends ExcelReader {
 
         // 2nd) Now we start processing the rows
         final List<Event> events = new ArrayList<>();
-        final XSSFSheet sheet = workbook.getSheet(sheetName);
         final Map<Integer, String> columnMap = new HashMap<>();
-        final Iterator<Row> rowIterator = sheet.iterator();
-        int rowNumber = 0;
-        while (rowIterator.hasNext()) {
-            if (rowNumber == 0) {
+        readRows(sheetName, row -> {
+            if (row.getRowNumber() == 0) {
                 // 2.1) If is the header row then we map the position of every column name
-                columnMap.putAll(processHeaderRow(rowIterator.next(), mappingValues));
+                columnMap.putAll(processHeaderRow(row, mappingValues));
             } else {
                 // 2.2) Otherwise we process the row to get the event that it represents it
-                final Event parsedEvent = processContentRow(rowNumber, rowIterator.next(), columnMap, ownersByName, targetsBySiteName, toolsByName, incidentsByName, attackersByName);
+                final Event parsedEvent = processContentRow(row.getRowNumber(), row, columnMap, ownersByName, targetsBySiteName, toolsByName, incidentsByName, attackersByName);
                 // 2.3) And we need to check that the event doesn't already exists before adding it
-                if (parsedEvent != null && !existingEvents.contains(parsedEvent)) {
+                if (parsedEvent != null && !existingEvents.contains(EventKey.of(parsedEvent))) {
                     events.add(parsedEvent);
                 }
             }
-            rowNumber++;
-        }
+            return true;
+        });
         return events;
     }
 }
\ No newline at end of file
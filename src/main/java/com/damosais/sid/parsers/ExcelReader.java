@@ -2,6 +2,7 @@ package com.damosais.sid.parsers;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -9,17 +10,24 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
 /**
- * This class implements the common methods used when parsing from an Excel file
+ * This class implements the common methods used when parsing from an Excel file. The sheets are read in streaming with the event API of POI, so only the
+ * row being processed is kept in memory no matter how big the sheet is
  *
  * @author Pablo Casais
  */
@@ -27,7 +35,7 @@ public abstract class ExcelReader {
     protected static final String YEAR_FORMAT = "yyyy";
     protected static final String YEAR_AND_MONTH_FORMAT = "yyyy-MM";
     protected static final String FULL_DATE_FORMAT = "yyyy-MM-dd";
-    protected XSSFWorkbook workbook;
+    protected File file;
     protected final DateFormat justYear = new SimpleDateFormat(YEAR_FORMAT);
     protected final DateFormat yearAndMonth = new SimpleDateFormat(YEAR_AND_MONTH_FORMAT);
     protected final DateFormat fullDate = new SimpleDateFormat(FULL_DATE_FORMAT);
@@ -42,15 +50,20 @@ public abstract class ExcelReader {
      * @return the name of the sheets
      */
     public List<String> getSheetNames(File file) throws IOException {
+        final OPCPackage excelPackage = openPackage(file);
         try {
-            workbook = new XSSFWorkbook(file);
             final List<String> sheetNames = new ArrayList<>();
-            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-                sheetNames.add(workbook.getSheetName(i));
+            final XSSFReader.SheetIterator sheetIterator = (XSSFReader.SheetIterator) new XSSFReader(excelPackage).getSheetsData();
+            while (sheetIterator.hasNext()) {
+                sheetIterator.next().close();
+                sheetNames.add(sheetIterator.getSheetName());
             }
+            this.file = file;
             return sheetNames;
-        } catch (final InvalidFormatException e) {
+        } catch (final OpenXML4JException e) {
             throw new IOException("Invalid format exception when reading file", e);
+        } finally {
+            excelPackage.revert();
         }
     }
     
@@ -65,6 +78,23 @@ public abstract class ExcelReader {
         return object != null && object instanceof String && StringUtils.isNotBlank((String) object);
     }
 
+    /**
+     * Opens the Excel file in read only mode
+     *
+     * @param file
+     *            The file we are reading
+     * @return The package of the file, which has to be reverted once finished
+     * @throws IOException
+     *             If the file is not a valid Excel file
+     */
+    private OPCPackage openPackage(File file) throws IOException {
+        try {
+            return OPCPackage.open(file, PackageAccess.READ);
+        } catch (final Exception e) {
+            throw new IOException("Invalid format exception when reading file", e);
+        }
+    }
+
     /**
      * This method process the header row and returns a map with the position of the important columns
      *
@@ -74,65 +104,40 @@ public abstract class ExcelReader {
      *            the mappings done by the user between the column names and the data
      * @return A map with the column number as key and the data it represents as value
      */
-    public Map<Integer, String> processHeaderRow(Row row, Map<String, String> mappingValues) {
+    public Map<Integer, String> processHeaderRow(ExcelRow row, Map<String, String> mappingValues) {
         final Map<Integer, String> columnIndexes = new HashMap<>();
-        final Iterator<Cell> cellIterator = row.cellIterator();
-        while (cellIterator.hasNext()) {
-            final Cell cell = cellIterator.next();
-            final Object cellValue = readCellValue(cell);
+        for (final Map.Entry<Integer, Object> cell : row.getCellValues().entrySet()) {
+            final Object cellValue = cell.getValue();
             if (cellValue instanceof String && StringUtils.isNotBlank((String) cellValue) && mappingValues.containsKey(cellValue)) {
-                columnIndexes.put(cell.getColumnIndex(), mappingValues.get(cellValue));
+                columnIndexes.put(cell.getKey(), mappingValues.get(cellValue));
             }
         }
         return columnIndexes;
     }
     
-    /**
-     * Reads the value of a cell
-     *
-     * @param cell
-     *            The cell to be checked
-     * @return The string value or null if it can't be read as a string
-     */
-    private Object readCellValue(Cell cell) {
-        switch (cell.getCellType()) {
-            case Cell.CELL_TYPE_STRING:
-                return cell.getStringCellValue();
-            case Cell.CELL_TYPE_BOOLEAN:
-                return cell.getBooleanCellValue();
-            case Cell.CELL_TYPE_NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue();
-                }
-                return cell.getNumericCellValue();
-            default:
-                return null;
-        }
-    }
-    
     /**
      * Reads the columns headers so the user can map them to their values
      *
      * @param sheetName
      *            The name of the sheet
      * @return A list with the column names
+     * @throws IOException
+     *             If there is a problem reading the file
      */
-    public List<String> readColumns(String sheetName) {
+    public List<String> readColumns(String sheetName) throws IOException {
         final List<String> columnNames = new ArrayList<>();
-        final XSSFSheet sheet = workbook.getSheet(sheetName);
-        final Iterator<Row> rowIterator = sheet.iterator();
-        if (rowIterator.hasNext()) {
-            final Iterator<Cell> cellIterator = rowIterator.next().cellIterator();
-            while (cellIterator.hasNext()) {
-                final Object cellValue = readCellValue(cellIterator.next());
-                if (cellValue != null && cellValue instanceof String) {
+        // We only need the first row so we stop reading after it
+        readRows(sheetName, row -> {
+            for (final Object cellValue : row.getCellValues().values()) {
+                if (cellValue instanceof String) {
                     columnNames.add((String) cellValue);
                 }
             }
-        }
+            return false;
+        });
         return columnNames;
     }
-    
+
     /**
      * This method returns a map with the name of the date and the value as value
      *
@@ -142,16 +147,54 @@ public abstract class ExcelReader {
      *            The map with the name of the data
      * @return a map with the name of the date and the value as value
      */
-    public Map<String, Object> readRowContent(Row row, Map<Integer, String> columnMap) {
-        final Iterator<Cell> cellIterator = row.cellIterator();
+    public Map<String, Object> readRowContent(ExcelRow row, Map<Integer, String> columnMap) {
+        final Iterator<Map.Entry<Integer, Object>> cellIterator = row.getCellValues().entrySet().iterator();
         final Map<String, Object> valueMap = new HashMap<>();
         while (cellIterator.hasNext() && valueMap.size() < columnMap.size()) {
-            final Cell cell = cellIterator.next();
-            final Object cellValue = readCellValue(cell);
-            if (cellValue != null && columnMap.containsKey(cell.getColumnIndex())) {
-                valueMap.put(columnMap.get(cell.getColumnIndex()), cellValue);
+            final Map.Entry<Integer, Object> cell = cellIterator.next();
+            if (columnMap.containsKey(cell.getKey())) {
+                valueMap.put(columnMap.get(cell.getKey()), cell.getValue());
             }
         }
         return valueMap;
     }
+
+    /**
+     * Reads the rows of a sheet one by one handing each of them to the row handler as soon as it has been read
+     *
+     * @param sheetName
+     *            The name of the sheet
+     * @param rowHandler
+     *            The handler which receives each row and returns true to keep reading or false to stop
+     * @throws IOException
+     *             If there is a problem reading the file
+     */
+    protected void readRows(String sheetName, Predicate<ExcelRow> rowHandler) throws IOException {
+        final OPCPackage excelPackage = openPackage(file);
+        try {
+            // 1st) We load the shared strings and the styles as the cells refer to them
+            final XSSFReader reader = new XSSFReader(excelPackage);
+            final ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(excelPackage);
+            final SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            final XMLReader sheetParser = factory.newSAXParser().getXMLReader();
+            sheetParser.setContentHandler(new ExcelSheetHandler(sharedStrings, reader.getStylesTable(), rowHandler));
+            // 2nd) Then we look for the sheet and we parse it
+            final XSSFReader.SheetIterator sheetIterator = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheetIterator.hasNext()) {
+                try (InputStream sheet = sheetIterator.next()) {
+                    if (sheetIterator.getSheetName().equals(sheetName)) {
+                        sheetParser.parse(new InputSource(sheet));
+                        break;
+                    }
+                }
+            }
+        } catch (final ExcelSheetHandler.StopReadingException e) {
+            // The row handler does not need more rows
+        } catch (final OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Problem reading sheet " + sheetName + " of the file", e);
+        } finally {
+            excelPackage.revert();
+        }
+    }
 }
\ No newline at end of file
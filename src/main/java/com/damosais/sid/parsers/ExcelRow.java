@@ -0,0 +1,48 @@
+package com.damosais.sid.parsers;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class represents a row read from an Excel sheet. It only keeps the values of the cells which are not empty sorted by column, which can be a string,
+ * a boolean, a double or a date
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+public class ExcelRow {
+    private final int rowNumber;
+    private final Map<Integer, Object> cellValues;
+
+    /**
+     * The constructor requires the position of the row in the sheet
+     *
+     * @param rowNumber
+     *            The position of the row in the sheet counting only the rows with content (the first one is 0)
+     */
+    public ExcelRow(int rowNumber) {
+        this.rowNumber = rowNumber;
+        cellValues = new TreeMap<>();
+    }
+
+    public Map<Integer, Object> getCellValues() {
+        return cellValues;
+    }
+
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * Sets the value of a cell
+     *
+     * @param column
+     *            The column of the cell (the first one is 0)
+     * @param value
+     *            The value of the cell
+     */
+    public void setCellValue(int column, Object value) {
+        cellValues.put(column, value);
+    }
+}
@@ -0,0 +1,154 @@
+package com.damosais.sid.parsers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * This is the SAX handler for the XML of a sheet of an Excel file. Each row is handed to the row handler as soon as it has been read, so the sheet is never
+ * kept in memory. The cells are read the same way the user model of POI would do it: the strings are resolved against the shared strings table, the
+ * numbers with a date format are returned as dates and the formulas are ignored
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+class ExcelSheetHandler extends DefaultHandler {
+    private static final String ROW_NODE = "row";
+    private static final String CELL_NODE = "c";
+    private static final String FORMULA_NODE = "f";
+    private static final String VALUE_NODE = "v";
+    private static final String INLINE_TEXT_NODE = "t";
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final StylesTable styles;
+    private final Predicate<ExcelRow> rowHandler;
+    private final Map<Integer, Boolean> dateFormattedStyles;
+    private final StringBuilder value;
+    private ExcelRow row;
+    private int rowNumber;
+    private int column;
+    private String cellType;
+    private int styleIndex;
+    private boolean formula;
+    private boolean readingValue;
+
+    /**
+     * This exception is thrown to stop the parsing when the row handler does not want more rows
+     */
+    static class StopReadingException extends SAXException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * The constructor requires the tables of the workbook needed to read the cells and the handler of the rows
+     *
+     * @param sharedStrings
+     *            The shared strings of the workbook
+     * @param styles
+     *            The styles of the workbook
+     * @param rowHandler
+     *            The handler which receives each row and returns true to keep reading or false to stop
+     */
+    ExcelSheetHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, Predicate<ExcelRow> rowHandler) {
+        this.sharedStrings = sharedStrings;
+        this.styles = styles;
+        this.rowHandler = rowHandler;
+        dateFormattedStyles = new HashMap<>();
+        value = new StringBuilder();
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        if (readingValue) {
+            value.append(ch, start, length);
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        if (VALUE_NODE.equals(localName) || INLINE_TEXT_NODE.equals(localName)) {
+            readingValue = false;
+        } else if (CELL_NODE.equals(localName)) {
+            final Object cellValue = formula ? null : readCellValue();
+            if (cellValue != null) {
+                row.setCellValue(column, cellValue);
+            }
+        } else if (ROW_NODE.equals(localName)) {
+            rowNumber++;
+            if (!rowHandler.test(row)) {
+                throw new StopReadingException();
+            }
+        }
+    }
+
+    /**
+     * Checks if the given style has a date format
+     *
+     * @param style
+     *            The position of the style in the styles table
+     * @return true if the style is a date format, false otherwise
+     */
+    private boolean isDateFormatted(int style) {
+        return dateFormattedStyles.computeIfAbsent(style, key -> {
+            final XSSFCellStyle cellStyle = styles.getStyleAt(key);
+            return cellStyle != null && cellStyle.getDataFormatString() != null && DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+        });
+    }
+
+    /**
+     * Reads the value of the cell that has just been finished
+     *
+     * @return The string, boolean, double or date value of the cell or null if it is empty or an error
+     */
+    private Object readCellValue() {
+        if (value.length() == 0) {
+            return null;
+        }
+        final String rawValue = value.toString();
+        if ("s".equals(cellType)) {
+            return sharedStrings.getEntryAt(Integer.parseInt(rawValue));
+        } else if ("inlineStr".equals(cellType) || "str".equals(cellType)) {
+            return rawValue;
+        } else if ("b".equals(cellType)) {
+            return "1".equals(rawValue);
+        } else if ("e".equals(cellType)) {
+            return null;
+        } else {
+            final double number = Double.parseDouble(rawValue);
+            if (isDateFormatted(styleIndex) && DateUtil.isValidExcelDate(number)) {
+                return DateUtil.getJavaDate(number);
+            }
+            return number;
+        }
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        if (ROW_NODE.equals(localName)) {
+            row = new ExcelRow(rowNumber);
+            column = -1;
+        } else if (CELL_NODE.equals(localName)) {
+            // If the cell does not say its position we assume it goes after the previous one
+            final String reference = attributes.getValue("r");
+            column = reference != null ? new CellReference(reference).getCol() : column + 1;
+            cellType = attributes.getValue("t");
+            final String style = attributes.getValue("s");
+            styleIndex = style != null ? Integer.parseInt(style) : 0;
+            formula = false;
+            value.setLength(0);
+        } else if (FORMULA_NODE.equals(localName)) {
+            formula = true;
+        } else if (VALUE_NODE.equals(localName) || INLINE_TEXT_NODE.equals(localName)) {
+            readingValue = true;
+        }
+    }
+}
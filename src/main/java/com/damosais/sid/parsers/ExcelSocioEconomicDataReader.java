@@ -1,17 +1,15 @@
 package com.damosais.sid.parsers;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
 
 import com.damosais.sid.database.beans.CountryVariableValue;
 import com.damosais.sid.database.beans.SocioeconomicVariable;
@@ -40,7 +38,7 @@ public class ExcelSocioEconomicDataReader extends ExcelReader {
      *            The mapping of the
      * @return A list with the variables read from this row
      */
-    private List<CountryVariableValue> processDataRow(int rowNumber, Row row, Map<Integer, String> columnMap) {
+    private List<CountryVariableValue> processDataRow(int rowNumber, ExcelRow row, Map<Integer, String> columnMap) {
         final List<CountryVariableValue> values = new ArrayList<>();
         // 1st) We get the content of the row
         final Map<String, Object> rowContents = readRowContent(row, columnMap);
@@ -127,22 +125,21 @@ public class ExcelSocioEconomicDataReader extends ExcelReader {
      * @param mappingValues
      *            A map with the socioeconomic variables and the column where they are mapped and the date and country column mappings
      * @return
+     * @throws IOException
+     *             If there is a problem reading the file
      */
-    public List<CountryVariableValue> readValues(String sheetName, Map<String, String> mappingValues) {
+    public List<CountryVariableValue> readValues(String sheetName, Map<String, String> mappingValues) throws IOException {
         final List<CountryVariableValue> values = new ArrayList<>();
-        final XSSFSheet sheet = workbook.getSheet(sheetName);
         final Map<Integer, String> columnMap = new HashMap<>();
-        final Iterator<Row> rowIterator = sheet.iterator();
-        int rowNumber = 0;
-        while (rowIterator.hasNext()) {
-            if (rowNumber == 0) {
+        readRows(sheetName, row -> {
+            if (row.getRowNumber() == 0) {
                 // If is the header row then we map the position of every column name
-                columnMap.putAll(processHeaderRow(rowIterator.next(), mappingValues));
+                columnMap.putAll(processHeaderRow(row, mappingValues));
             } else {
-                values.addAll(processDataRow(rowNumber, rowIterator.next(), columnMap));
+                values.addAll(processDataRow(row.getRowNumber(), row, columnMap));
             }
-            rowNumber++;
-        }
+            return true;
+        });
         return values;
     }
 }
\ No newline at end of file
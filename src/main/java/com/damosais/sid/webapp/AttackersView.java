@@ -9,6 +9,8 @@ import com.damosais.sid.database.beans.Attacker;
 import com.damosais.sid.database.beans.User;
 import com.damosais.sid.database.beans.UserRole;
 import com.damosais.sid.database.services.AttackerService;
+import com.damosais.sid.database.services.UserService;
+import com.damosais.sid.webapp.customfields.UserNameConverter;
 import com.damosais.sid.webapp.windows.AttackerWindow;
 import com.vaadin.data.util.BeanItem;
 import com.vaadin.data.util.BeanItemContainer;
@@ -49,6 +51,9 @@ public class AttackersView extends VerticalLayout implements View, ClickListener
     @Autowired
     private AttackerWindow attackerWindow;
 
+    @Autowired
+    private UserService userService;
+
     /**
      * The constructor just enables the spacing and margins on the layout
      */
@@ -148,20 +153,19 @@ public class AttackersView extends VerticalLayout implements View, ClickListener
         // Now we add the container
         container = new BeanItemContainer<>(Attacker.class);
         container.addNestedContainerProperty("country.name");
-        container.addNestedContainerProperty("createdBy.name");
-        container.addNestedContainerProperty("updatedBy.name");
         table.setContainerDataSource(container);
         // Now we define which columns are visible and what are going to be their names in the table header
-        table.setVisibleColumns(new Object[] { "name", "country.name", "type", "created", "createdBy.name", "updated", "updatedBy.name", EDIT_BUTTON, DELETE_BUTTON });
+        table.setVisibleColumns(new Object[] { "name", "country.name", "type", "created", "createdBy", "updated", "updatedBy", EDIT_BUTTON, DELETE_BUTTON });
         table.setColumnHeaders(new String[] { "Name", "Country", "Type", "Created", "Created by", "Last update", "Last updated by", "Edit", "Delete" });
         table.setColumnAlignment(EDIT_BUTTON, CustomTable.Align.CENTER);
         table.setColumnAlignment(DELETE_BUTTON, CustomTable.Align.CENTER);
         // We then collapse the columns that have less value
         table.setColumnCollapsingAllowed(true);
         table.setColumnCollapsed("created", true);
-        table.setColumnCollapsed("createdBy.name", true);
+        table.setColumnCollapsed("createdBy", true);
         table.setColumnCollapsed("updated", true);
-        table.setColumnCollapsed("updatedBy.name", true);
+        table.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(table, userService);
         // Now we refresh the content
         refreshTableContent();
     }
@@ -13,6 +13,9 @@ import com.damosais.sid.database.beans.User;
 import com.damosais.sid.database.beans.UserRole;
 import com.damosais.sid.database.services.AttackService;
 import com.damosais.sid.database.services.EventService;
+import com.damosais.sid.database.services.UserService;
+import com.damosais.sid.webapp.containers.LazyEntityContainer;
+import com.damosais.sid.webapp.customfields.UserNameConverter;
 import com.damosais.sid.webapp.customfields.YearMonthDayDate;
 import com.damosais.sid.webapp.windows.AddEventToAttackWindow;
 import com.damosais.sid.webapp.windows.AttackWindow;
@@ -46,9 +49,9 @@ public class AttacksView extends VerticalLayout implements View, ColumnGenerator
     public static final String VIEW_NAME = "AttacksScreen";
     private static final String EDIT_BUTTON = "editButton";
     private static final String DELETE_BUTTON = "deleteButton";
-    private static final String UPDATED_BY_NAME = "updatedBy.name";
-    private static final String CREATED_BY_NAME = "createdBy.name";
-    private BeanItemContainer<Attack> attacksContainer;
+    private static final String UPDATED_BY = "updatedBy";
+    private static final String CREATED_BY = "createdBy";
+    private LazyEntityContainer<Attack> attacksContainer;
     private BeanItemContainer<com.damosais.sid.database.beans.Event> eventsContainer;
     private Button addAttack;
     private Button addEvent;
@@ -67,6 +70,9 @@ public class AttacksView extends VerticalLayout implements View, ColumnGenerator
     @Autowired
     private AddEventToAttackWindow addEventWindow;
 
+    @Autowired
+    private UserService userService;
+
     /**
      * The constructor just sets the spacing and the margin
      */
@@ -107,7 +113,8 @@ public class AttacksView extends VerticalLayout implements View, ColumnGenerator
             } else if (item instanceof com.damosais.sid.database.beans.Event) {
                 final com.damosais.sid.database.beans.Event eventToAlter = (com.damosais.sid.database.beans.Event) item;
                 if (GraphicResources.DELETE_ICON.equals(button.getIcon()) && user.getRole() == UserRole.EDIT_DATA) {
-                    final Attack attack = eventToAlter.getAttack();
+                    // We take the attack selected on the table as it is the one loaded with its events
+                    final Attack attack = (Attack) attacksTable.getValue();
                     attack.getEvents().remove(eventToAlter);
                     eventToAlter.setAttack(null);
                     attackService.save(attack);
@@ -198,19 +205,15 @@ public class AttacksView extends VerticalLayout implements View, ColumnGenerator
         attacksTable.addGeneratedColumn(DELETE_BUTTON, this);
         eventsTable.addGeneratedColumn(DELETE_BUTTON, this);
         // Now we handle the containers
-        attacksContainer = new BeanItemContainer<>(Attack.class);
+        attacksContainer = new LazyEntityContainer<>(Attack.class, attackService);
         attacksContainer.addNestedContainerProperty("tool.name");
-        attacksContainer.addNestedContainerProperty(CREATED_BY_NAME);
-        attacksContainer.addNestedContainerProperty(UPDATED_BY_NAME);
         attacksTable.setContainerDataSource(attacksContainer);
         eventsContainer = new BeanItemContainer<>(com.damosais.sid.database.beans.Event.class);
-        eventsContainer.addNestedContainerProperty(CREATED_BY_NAME);
-        eventsContainer.addNestedContainerProperty(UPDATED_BY_NAME);
         eventsTable.setContainerDataSource(eventsContainer);
         // Now we define which columns are visible and what are going to be their names in the table header
-        attacksTable.setVisibleColumns(new Object[] { "start", "end", "tool.name", "vulnerability", "created", CREATED_BY_NAME, "updated", UPDATED_BY_NAME, EDIT_BUTTON, DELETE_BUTTON });
+        attacksTable.setVisibleColumns(new Object[] { "start", "end", "tool.name", "vulnerability", "created", CREATED_BY, "updated", UPDATED_BY, EDIT_BUTTON, DELETE_BUTTON });
         attacksTable.setColumnHeaders(new String[] { "Start", "End", "Tool", "Vulnerability", "Created", "Created by", "Last update", "Last update by", "Edit", "Delete" });
-        eventsTable.setVisibleColumns(new Object[] { "date", "action", "target", "created", CREATED_BY_NAME, "updated", UPDATED_BY_NAME, DELETE_BUTTON });
+        eventsTable.setVisibleColumns(new Object[] { "date", "action", "target", "created", CREATED_BY, "updated", UPDATED_BY, DELETE_BUTTON });
         eventsTable.setColumnHeaders(new String[] { "Date", "Action", "Target", "Created", "Created by", "Last update", "Last update by", "Delete" });
         // We then align the buttons to the middle
         attacksTable.setColumnAlignment(EDIT_BUTTON, CustomTable.Align.CENTER);
@@ -220,6 +223,10 @@ public class AttacksView extends VerticalLayout implements View, ColumnGenerator
         attacksTable.setConverter("start", new YearMonthDayDate());
         attacksTable.setConverter("end", new YearMonthDayDate());
         eventsTable.setConverter("date", new YearMonthDayDate());
+        // The dates of the attacks come from their events and the vulnerability is a whole entity, so they cannot be filtered on the database
+        attacksTable.setFilterFieldVisible("start", false);
+        attacksTable.setFilterFieldVisible("end", false);
+        attacksTable.setFilterFieldVisible("vulnerability", false);
         // Finally we add the selectable behaviour to the attacks table to link both tables
         attacksTable.setSelectable(true);
         attacksTable.setMultiSelect(false);
@@ -229,14 +236,16 @@ public class AttacksView extends VerticalLayout implements View, ColumnGenerator
         // We then collapse the columns that have less value
         attacksTable.setColumnCollapsingAllowed(true);
         attacksTable.setColumnCollapsed("created", true);
-        attacksTable.setColumnCollapsed("createdBy.name", true);
+        attacksTable.setColumnCollapsed("createdBy", true);
         attacksTable.setColumnCollapsed("updated", true);
-        attacksTable.setColumnCollapsed("updatedBy.name", true);
+        attacksTable.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(attacksTable, userService);
         eventsTable.setColumnCollapsingAllowed(true);
         eventsTable.setColumnCollapsed("created", true);
-        eventsTable.setColumnCollapsed("createdBy.name", true);
+        eventsTable.setColumnCollapsed("createdBy", true);
         eventsTable.setColumnCollapsed("updated", true);
-        eventsTable.setColumnCollapsed("updatedBy.name", true);
+        eventsTable.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(eventsTable, userService);
         // Now we refresh the content of the tables
         refreshAttacksTableContent();
         refreshEventsTableContent(null);
@@ -246,9 +255,8 @@ public class AttacksView extends VerticalLayout implements View, ColumnGenerator
      * Refreshes the table with the attacks data
      */
     public void refreshAttacksTableContent() {
-        // We first create the container with all the owners and assign it to the table
-        attacksContainer.removeAllItems();
-        attacksContainer.addAll(attackService.list());
+        // The container loads the attacks from the database page by page, so we just discard the ones already loaded
+        attacksContainer.refresh();
     }
     
     /**
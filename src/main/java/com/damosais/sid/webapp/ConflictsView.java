@@ -9,6 +9,8 @@ import com.damosais.sid.database.beans.Conflict;
 import com.damosais.sid.database.beans.User;
 import com.damosais.sid.database.beans.UserRole;
 import com.damosais.sid.database.services.ConflictService;
+import com.damosais.sid.database.services.UserService;
+import com.damosais.sid.webapp.customfields.UserNameConverter;
 import com.damosais.sid.webapp.customfields.YearMonthDayDate;
 import com.damosais.sid.webapp.windows.ConflictWindow;
 import com.vaadin.data.util.BeanItem;
@@ -48,6 +50,9 @@ public class ConflictsView extends VerticalLayout implements View, ClickListener
     @Autowired
     private ConflictWindow conflictWindow;
 
+    @Autowired
+    private UserService userService;
+
     /**
      * The constructor just enables the spacing and margins on the layout
      */
@@ -144,11 +149,9 @@ public class ConflictsView extends VerticalLayout implements View, ClickListener
         // Now we add the container
         container = new BeanItemContainer<>(Conflict.class);
         container.addNestedContainerProperty("location.name");
-        container.addNestedContainerProperty("createdBy.name");
-        container.addNestedContainerProperty("updatedBy.name");
         table.setContainerDataSource(container);
         // Now we define which columns are visible and what are going to be their names in the table header
-        table.setVisibleColumns(new Object[] { "start", "end", "name", "location.name", "partiesInvolved", "created", "createdBy.name", "updated", "updatedBy.name", EDIT_BUTTON, DELETE_BUTTON });
+        table.setVisibleColumns(new Object[] { "start", "end", "name", "location.name", "partiesInvolved", "created", "createdBy", "updated", "updatedBy", EDIT_BUTTON, DELETE_BUTTON });
         table.setColumnHeaders(new String[] { "Start", "End", "Name", "Location.name", "Parties Involved", "Created", "Created by", "Last update", "Last updated by", "Edit", "Delete" });
         table.setColumnAlignment(EDIT_BUTTON, CustomTable.Align.CENTER);
         table.setColumnAlignment(DELETE_BUTTON, CustomTable.Align.CENTER);
@@ -157,9 +160,10 @@ public class ConflictsView extends VerticalLayout implements View, ClickListener
         // We then collapse the columns that have less value
         table.setColumnCollapsingAllowed(true);
         table.setColumnCollapsed("created", true);
-        table.setColumnCollapsed("createdBy.name", true);
+        table.setColumnCollapsed("createdBy", true);
         table.setColumnCollapsed("updated", true);
-        table.setColumnCollapsed("updatedBy.name", true);
+        table.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(table, userService);
         // Now we refresh the content
         refreshTableContent();
     }
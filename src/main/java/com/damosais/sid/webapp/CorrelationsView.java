@@ -10,6 +10,8 @@ import com.damosais.sid.database.beans.CorrelationResult;
 import com.damosais.sid.database.beans.User;
 import com.damosais.sid.database.beans.UserRole;
 import com.damosais.sid.database.services.CorrelationHypothesisService;
+import com.damosais.sid.database.services.UserService;
+import com.damosais.sid.webapp.customfields.UserNameConverter;
 import com.damosais.sid.webapp.customfields.YearMonthDate;
 import com.damosais.sid.webapp.windows.CorrelationGenerateHypothesisWindow;
 import com.damosais.sid.webapp.windows.CorrelationHypothesisWindow;
@@ -67,6 +69,9 @@ public class CorrelationsView extends VerticalLayout implements View, ClickListe
     
     @Autowired
     private CorrelationSearchWindow correlationSearchWindow;
+
+    @Autowired
+    private UserService userService;
     
     /**
      * The constructor just enables the spacing and margins on the layout
@@ -247,11 +252,9 @@ public class CorrelationsView extends VerticalLayout implements View, ClickListe
         // Now we add the container
         container = new BeanItemContainer<>(CorrelationHypothesis.class);
         container.addNestedContainerProperty("effectiveTargetCountry.name");
-        container.addNestedContainerProperty("createdBy.name");
-        container.addNestedContainerProperty("updatedBy.name");
         table.setContainerDataSource(container);
         // Now we define which columns are visible and what are going to be their names in the table header
-        table.setVisibleColumns(new Object[] { "effectiveStartDate", "effectiveEndDate", "bestCorrelation", "sector", "effectiveTargetCountry.name", "effectiveSourceCountries", "variables", "created", "createdBy.name", "updated", "updatedBy.name", EDIT_BUTTON, DETAILS_BUTTON, RUN_BUTTON, DELETE_BUTTON });
+        table.setVisibleColumns(new Object[] { "effectiveStartDate", "effectiveEndDate", "bestCorrelation", "sector", "effectiveTargetCountry.name", "effectiveSourceCountries", "variables", "created", "createdBy", "updated", "updatedBy", EDIT_BUTTON, DETAILS_BUTTON, RUN_BUTTON, DELETE_BUTTON });
         table.setColumnHeaders(new String[] { "Start", "End", "Best Corr. Factor", "Sector", "Target Country", "Source Countries", "Variables", "Created", "Created by", "Last update", "Last updated by", "Edit", "Details", "Run", "Delete" });
         table.setColumnAlignment(EDIT_BUTTON, CustomTable.Align.CENTER);
         table.setColumnAlignment(DELETE_BUTTON, CustomTable.Align.CENTER);
@@ -262,9 +265,10 @@ public class CorrelationsView extends VerticalLayout implements View, ClickListe
         // We then collapse the columns that have less value
         table.setColumnCollapsingAllowed(true);
         table.setColumnCollapsed("created", true);
-        table.setColumnCollapsed("createdBy.name", true);
+        table.setColumnCollapsed("createdBy", true);
         table.setColumnCollapsed("updated", true);
-        table.setColumnCollapsed("updatedBy.name", true);
+        table.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(table, userService);
         // Now we refresh the content
         refreshTableContent();
     }
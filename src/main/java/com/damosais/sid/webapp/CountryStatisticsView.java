@@ -15,7 +15,10 @@ import com.damosais.sid.database.beans.SocioeconomicVariable;
 import com.damosais.sid.database.beans.User;
 import com.damosais.sid.database.beans.UserRole;
 import com.damosais.sid.database.services.CountryVariableValueService;
+import com.damosais.sid.database.services.UserService;
+import com.damosais.sid.webapp.containers.LazyEntityContainer;
 import com.damosais.sid.webapp.customfields.CountryFieldConverter;
+import com.damosais.sid.webapp.customfields.UserNameConverter;
 import com.damosais.sid.webapp.customfields.YearMonthDate;
 import com.damosais.sid.webapp.windows.CountryVariableValueWindow;
 import com.neovisionaries.i18n.CountryCode;
@@ -70,7 +73,7 @@ public class CountryStatisticsView extends HorizontalSplitPanel implements View,
     private final VerticalLayout tableLayout;
     private final VerticalLayout graphLayout;
     private VerticalLayout formLayout;
-    private BeanItemContainer<CountryVariableValue> container;
+    private LazyEntityContainer<CountryVariableValue> container;
     private Button addStatistic;
     private Button generateGraph;
     private FilterTable table;
@@ -85,6 +88,9 @@ public class CountryStatisticsView extends HorizontalSplitPanel implements View,
     @Autowired
     private CountryVariableValueWindow countryVariableValueWindow;
 
+    @Autowired
+    private UserService userService;
+
     /**
      * The constructor just creates the initial layout
      */
@@ -324,13 +330,11 @@ public class CountryStatisticsView extends HorizontalSplitPanel implements View,
         // We add a column with the button to delete the attacker
         table.addGeneratedColumn(DELETE_BUTTON, this);
         // Now we add the container
-        container = new BeanItemContainer<>(CountryVariableValue.class);
+        container = new LazyEntityContainer<>(CountryVariableValue.class, countryVariableValueService);
         container.addNestedContainerProperty("country.name");
-        container.addNestedContainerProperty("createdBy.name");
-        container.addNestedContainerProperty("updatedBy.name");
         table.setContainerDataSource(container);
         // Now we define which columns are visible and what are going to be their names in the table header
-        table.setVisibleColumns(new Object[] { "country.name", "variable", "date", VALUE, "created", "createdBy.name", "updated", "updatedBy.name", EDIT_BUTTON, DELETE_BUTTON });
+        table.setVisibleColumns(new Object[] { "country.name", "variable", "date", VALUE, "created", "createdBy", "updated", "updatedBy", EDIT_BUTTON, DELETE_BUTTON });
         table.setColumnHeaders(new String[] { COUNTRY, "Variable", "Date", "Value", "Created", "Created by", "Last update", "Last updated by", "Edit", "Delete" });
         table.setColumnAlignment(EDIT_BUTTON, CustomTable.Align.CENTER);
         table.setColumnAlignment(DELETE_BUTTON, CustomTable.Align.CENTER);
@@ -338,9 +342,10 @@ public class CountryStatisticsView extends HorizontalSplitPanel implements View,
         // We then collapse the columns that have less value
         table.setColumnCollapsingAllowed(true);
         table.setColumnCollapsed("created", true);
-        table.setColumnCollapsed("createdBy.name", true);
+        table.setColumnCollapsed("createdBy", true);
         table.setColumnCollapsed("updated", true);
-        table.setColumnCollapsed("updatedBy.name", true);
+        table.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(table, userService);
         // Now we refresh the content
         refreshTableContent();
     }
@@ -349,9 +354,8 @@ public class CountryStatisticsView extends HorizontalSplitPanel implements View,
      * It refreshes the content of the table
      */
     public void refreshTableContent() {
-        // We first create the container with all the attackers and assign it to the table
-        container.removeAllItems();
-        container.addAll(countryVariableValueService.list());
+        // The container loads the values from the database page by page, so we just discard the ones already loaded
+        container.refresh();
     }
 
     /**
@@ -8,10 +8,12 @@ import org.tepi.filtertable.FilterTable;
 import com.damosais.sid.database.beans.User;
 import com.damosais.sid.database.beans.UserRole;
 import com.damosais.sid.database.services.EventService;
+import com.damosais.sid.database.services.UserService;
+import com.damosais.sid.webapp.containers.LazyEntityContainer;
+import com.damosais.sid.webapp.customfields.UserNameConverter;
 import com.damosais.sid.webapp.customfields.YearMonthDayDate;
 import com.damosais.sid.webapp.windows.EventWindow;
 import com.vaadin.data.util.BeanItem;
-import com.vaadin.data.util.BeanItemContainer;
 import com.vaadin.navigator.View;
 import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
 import com.vaadin.shared.ui.label.ContentMode;
@@ -39,7 +41,7 @@ public class EventsView extends VerticalLayout implements View, ClickListener, C
     public static final String VIEW_NAME = "EventsScreen";
     private static final String EDIT_BUTTON = "editButton";
     private static final String DELETE_BUTTON = "deleteButton";
-    private BeanItemContainer<com.damosais.sid.database.beans.Event> container;
+    private LazyEntityContainer<com.damosais.sid.database.beans.Event> container;
     private Button addEvent;
     private FilterTable table;
     
@@ -48,6 +50,9 @@ public class EventsView extends VerticalLayout implements View, ClickListener, C
 
     @Autowired
     private EventWindow eventWindow;
+
+    @Autowired
+    private UserService userService;
     
     /**
      * The constructor just enables the spacing and margins on the layout
@@ -146,15 +151,13 @@ public class EventsView extends VerticalLayout implements View, ClickListener, C
         // We add a column with the button to delete the attack
         table.addGeneratedColumn(DELETE_BUTTON, this);
         // Now we add the container
-        container = new BeanItemContainer<>(com.damosais.sid.database.beans.Event.class);
+        container = new LazyEntityContainer<>(com.damosais.sid.database.beans.Event.class, eventService);
         container.addNestedContainerProperty("target.siteName");
         container.addNestedContainerProperty("target.country.name");
         container.addNestedContainerProperty("target.owner.name");
-        container.addNestedContainerProperty("createdBy.name");
-        container.addNestedContainerProperty("updatedBy.name");
         table.setContainerDataSource(container);
         // Now we define which columns are visible and what are going to be their names in the table header
-        table.setVisibleColumns(new Object[] { "date", "action", "target.siteName", "target.country.name", "target.owner.name", "created", "createdBy.name", "updated", "updatedBy.name", EDIT_BUTTON, DELETE_BUTTON });
+        table.setVisibleColumns(new Object[] { "date", "action", "target.siteName", "target.country.name", "target.owner.name", "created", "createdBy", "updated", "updatedBy", EDIT_BUTTON, DELETE_BUTTON });
         table.setColumnHeaders(new String[] { "Date", "Action", "Target Site", "Target Country", "Target Owner", "Created", "Created by", "Last update", "Last updated by", "Edit", "Delete" });
         table.setColumnAlignment(EDIT_BUTTON, CustomTable.Align.CENTER);
         table.setColumnAlignment(DELETE_BUTTON, CustomTable.Align.CENTER);
@@ -163,9 +166,10 @@ public class EventsView extends VerticalLayout implements View, ClickListener, C
         // We then collapse the columns that have less value
         table.setColumnCollapsingAllowed(true);
         table.setColumnCollapsed("created", true);
-        table.setColumnCollapsed("createdBy.name", true);
+        table.setColumnCollapsed("createdBy", true);
         table.setColumnCollapsed("updated", true);
-        table.setColumnCollapsed("updatedBy.name", true);
+        table.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(table, userService);
         // Now we refresh the content
         refreshTableContent();
     }
@@ -174,8 +178,7 @@ public class EventsView extends VerticalLayout implements View, ClickListener, C
      * It refreshes the content of the table
      */
     public void refreshTableContent() {
-        // We first create the container with all the events and assign it to the table
-        container.removeAllItems();
-        container.addAll(eventService.list());
+        // The container loads the events from the database page by page, so we just discard the ones already loaded
+        container.refresh();
     }
 }
\ No newline at end of file
@@ -14,6 +14,9 @@ import com.damosais.sid.database.beans.User;
 import com.damosais.sid.database.beans.UserRole;
 import com.damosais.sid.database.services.AttackService;
 import com.damosais.sid.database.services.IncidentService;
+import com.damosais.sid.database.services.UserService;
+import com.damosais.sid.webapp.containers.LazyEntityContainer;
+import com.damosais.sid.webapp.customfields.UserNameConverter;
 import com.damosais.sid.webapp.customfields.YearMonthDayDate;
 import com.damosais.sid.webapp.windows.AddAttackToIncidentWindow;
 import com.damosais.sid.webapp.windows.IncidentWindow;
@@ -47,9 +50,9 @@ public class IncidentsView extends VerticalLayout implements View, ColumnGenerat
     public static final String VIEW_NAME = "IncidentsScreen";
     private static final String EDIT_BUTTON = "editButton";
     private static final String DELETE_BUTTON = "deleteButton";
-    private static final String UPDATED_BY_NAME = "updatedBy.name";
-    private static final String CREATED_BY_NAME = "createdBy.name";
-    private BeanItemContainer<Incident> incidentsContainer;
+    private static final String UPDATED_BY = "updatedBy";
+    private static final String CREATED_BY = "createdBy";
+    private LazyEntityContainer<Incident> incidentsContainer;
     private BeanItemContainer<Attack> attacksContainer;
     private Button addIncident;
     private Button addAttack;
@@ -68,6 +71,9 @@ public class IncidentsView extends VerticalLayout implements View, ColumnGenerat
     @Autowired
     private AddAttackToIncidentWindow addAttackWindow;
 
+    @Autowired
+    private UserService userService;
+
     /**
      * The constructor just sets the spacing and the margin
      */
@@ -108,7 +114,8 @@ public class IncidentsView extends VerticalLayout implements View, ColumnGenerat
             } else if (item instanceof Attack) {
                 final Attack attack = (Attack) item;
                 if (GraphicResources.DELETE_ICON.equals(button.getIcon()) && user.getRole() == UserRole.EDIT_DATA) {
-                    final Incident incident = attack.getIncident();
+                    // We take the incident selected on the table as it is the one loaded with its attacks
+                    final Incident incident = (Incident) incidentsTable.getValue();
                     incident.getAttacks().remove(attack);
                     attack.setIncident(null);
                     incidentService.save(incident);
@@ -199,19 +206,15 @@ public class IncidentsView extends VerticalLayout implements View, ColumnGenerat
         // We add a column with the button to delete the attack
         attacksTable.addGeneratedColumn(DELETE_BUTTON, this);
         // Now we handle the containers
-        incidentsContainer = new BeanItemContainer<>(Incident.class);
-        incidentsContainer.addNestedContainerProperty(CREATED_BY_NAME);
-        incidentsContainer.addNestedContainerProperty(UPDATED_BY_NAME);
+        incidentsContainer = new LazyEntityContainer<>(Incident.class, incidentService);
         incidentsTable.setContainerDataSource(incidentsContainer);
         attacksContainer = new BeanItemContainer<>(Attack.class);
         attacksContainer.addNestedContainerProperty("tool.name");
-        attacksContainer.addNestedContainerProperty(CREATED_BY_NAME);
-        attacksContainer.addNestedContainerProperty(UPDATED_BY_NAME);
         attacksTable.setContainerDataSource(attacksContainer);
         // Now we define which columns are visible and what are going to be their names in the table header
-        incidentsTable.setVisibleColumns(new Object[] { "start", "end", "attackers", "motivation", "created", CREATED_BY_NAME, "updated", UPDATED_BY_NAME, EDIT_BUTTON, DELETE_BUTTON });
+        incidentsTable.setVisibleColumns(new Object[] { "start", "end", "attackers", "motivation", "created", CREATED_BY, "updated", UPDATED_BY, EDIT_BUTTON, DELETE_BUTTON });
         incidentsTable.setColumnHeaders(new String[] { "Start", "End", "Attackers", "Motivation", "Created", "Created by", "Last update", "Last update by", "Edit", "Delete" });
-        attacksTable.setVisibleColumns(new Object[] { "start", "end", "tool.name", "vulnerability", "created", CREATED_BY_NAME, "updated", UPDATED_BY_NAME, DELETE_BUTTON });
+        attacksTable.setVisibleColumns(new Object[] { "start", "end", "tool.name", "vulnerability", "created", CREATED_BY, "updated", UPDATED_BY, DELETE_BUTTON });
         attacksTable.setColumnHeaders(new String[] { "Start", "End", "Tool", "Vulnerability", "Created", "Created by", "Last update", "Last update by", "Delete" });
         // We then align the buttons to the middle
         incidentsTable.setColumnAlignment(EDIT_BUTTON, CustomTable.Align.CENTER);
@@ -222,6 +225,10 @@ public class IncidentsView extends VerticalLayout implements View, ColumnGenerat
         incidentsTable.setConverter("end", new YearMonthDayDate());
         attacksTable.setConverter("start", new YearMonthDayDate());
         attacksTable.setConverter("end", new YearMonthDayDate());
+        // The dates of the incidents come from their attacks and the attackers are a collection, so they cannot be filtered on the database
+        incidentsTable.setFilterFieldVisible("start", false);
+        incidentsTable.setFilterFieldVisible("end", false);
+        incidentsTable.setFilterFieldVisible("attackers", false);
         // Finally we add the selectable behaviour to the incidents table to link both tables
         incidentsTable.setSelectable(true);
         incidentsTable.setMultiSelect(false);
@@ -231,14 +238,16 @@ public class IncidentsView extends VerticalLayout implements View, ColumnGenerat
         // We then collapse the columns that have less value
         incidentsTable.setColumnCollapsingAllowed(true);
         incidentsTable.setColumnCollapsed("created", true);
-        incidentsTable.setColumnCollapsed("createdBy.name", true);
+        incidentsTable.setColumnCollapsed("createdBy", true);
         incidentsTable.setColumnCollapsed("updated", true);
-        incidentsTable.setColumnCollapsed("updatedBy.name", true);
+        incidentsTable.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(incidentsTable, userService);
         attacksTable.setColumnCollapsingAllowed(true);
         attacksTable.setColumnCollapsed("created", true);
-        attacksTable.setColumnCollapsed("createdBy.name", true);
+        attacksTable.setColumnCollapsed("createdBy", true);
         attacksTable.setColumnCollapsed("updated", true);
-        attacksTable.setColumnCollapsed("updatedBy.name", true);
+        attacksTable.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(attacksTable, userService);
         // Now we refresh the content of the tables
         refreshIncidentsTableContent();
         refreshAttacksTableContent(null);
@@ -264,8 +273,7 @@ public class IncidentsView extends VerticalLayout implements View, ColumnGenerat
      * Refreshes the table with the incidents data
      */
     public void refreshIncidentsTableContent() {
-        // We first create the container with all the incidents and assign it to the table
-        incidentsContainer.removeAllItems();
-        incidentsContainer.addAll(incidentService.list());
+        // The container loads the incidents from the database page by page, so we just discard the ones already loaded
+        incidentsContainer.refresh();
     }
 }
\ No newline at end of file
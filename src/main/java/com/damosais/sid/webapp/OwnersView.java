@@ -14,6 +14,9 @@ import com.damosais.sid.database.beans.User;
 import com.damosais.sid.database.beans.UserRole;
 import com.damosais.sid.database.services.OwnerService;
 import com.damosais.sid.database.services.TargetService;
+import com.damosais.sid.database.services.UserService;
+import com.damosais.sid.webapp.containers.LazyEntityContainer;
+import com.damosais.sid.webapp.customfields.UserNameConverter;
 import com.damosais.sid.webapp.windows.OwnerWindow;
 import com.damosais.sid.webapp.windows.TargetWindow;
 import com.vaadin.data.util.BeanItem;
@@ -46,10 +49,10 @@ public class OwnersView extends VerticalLayout implements View, ColumnGenerator,
     public static final String VIEW_NAME = "VictimScreen";
     private static final String EDIT_BUTTON = "editButton";
     private static final String DELETE_BUTTON = "deleteButton";
-    private static final String UPDATED_BY_NAME = "updatedBy.name";
-    private static final String CREATED_BY_NAME = "createdBy.name";
+    private static final String UPDATED_BY = "updatedBy";
+    private static final String CREATED_BY = "createdBy";
     private static final String COUNTRY_NAME = "country.name";
-    private BeanItemContainer<Owner> ownersContainer;
+    private LazyEntityContainer<Owner> ownersContainer;
     private BeanItemContainer<Target> targetsContainer;
     private Button addOwner;
     private Button addTarget;
@@ -67,6 +70,9 @@ public class OwnersView extends VerticalLayout implements View, ColumnGenerator,
 
     @Autowired
     private TargetWindow targetWindow;
+
+    @Autowired
+    private UserService userService;
     
     /**
      * The constructor just makes the component to space and have margins
@@ -203,21 +209,17 @@ public class OwnersView extends VerticalLayout implements View, ColumnGenerator,
         ownersTable.addGeneratedColumn(DELETE_BUTTON, this);
         targetsTable.addGeneratedColumn(DELETE_BUTTON, this);
         // Now we handle the containers
-        ownersContainer = new BeanItemContainer<>(Owner.class);
+        ownersContainer = new LazyEntityContainer<>(Owner.class, ownerService);
         ownersContainer.addNestedContainerProperty(COUNTRY_NAME);
         ownersContainer.addNestedContainerProperty("sector.name");
-        ownersContainer.addNestedContainerProperty(CREATED_BY_NAME);
-        ownersContainer.addNestedContainerProperty(UPDATED_BY_NAME);
         ownersTable.setContainerDataSource(ownersContainer);
         targetsContainer = new BeanItemContainer<>(Target.class);
         targetsContainer.addNestedContainerProperty(COUNTRY_NAME);
-        targetsContainer.addNestedContainerProperty(CREATED_BY_NAME);
-        targetsContainer.addNestedContainerProperty(UPDATED_BY_NAME);
         targetsTable.setContainerDataSource(targetsContainer);
         // Now we define which columns are visible and what are going to be their names in the table header
-        ownersTable.setVisibleColumns(new Object[] { "name", COUNTRY_NAME, "sector.name", "created", CREATED_BY_NAME, "updated", UPDATED_BY_NAME, EDIT_BUTTON, DELETE_BUTTON });
+        ownersTable.setVisibleColumns(new Object[] { "name", COUNTRY_NAME, "sector.name", "created", CREATED_BY, "updated", UPDATED_BY, EDIT_BUTTON, DELETE_BUTTON });
         ownersTable.setColumnHeaders(new String[] { "Name", "Country", "Sector", "Created", "Created by", "Last update", "Last update by", "Edit", "Delete" });
-        targetsTable.setVisibleColumns(new Object[] { "siteName", "ips", COUNTRY_NAME, "created", CREATED_BY_NAME, "updated", UPDATED_BY_NAME, EDIT_BUTTON, DELETE_BUTTON });
+        targetsTable.setVisibleColumns(new Object[] { "siteName", "ips", COUNTRY_NAME, "created", CREATED_BY, "updated", UPDATED_BY, EDIT_BUTTON, DELETE_BUTTON });
         targetsTable.setColumnHeaders(new String[] { "Site name", "IPs", "country", "Created", "Created by", "Last update", "Last update by", "Edit", "Delete" });
         // We then align the buttons to the middle
         ownersTable.setColumnAlignment(EDIT_BUTTON, CustomTable.Align.CENTER);
@@ -233,14 +235,16 @@ public class OwnersView extends VerticalLayout implements View, ColumnGenerator,
         // We then collapse the columns that have less value
         ownersTable.setColumnCollapsingAllowed(true);
         ownersTable.setColumnCollapsed("created", true);
-        ownersTable.setColumnCollapsed("createdBy.name", true);
+        ownersTable.setColumnCollapsed("createdBy", true);
         ownersTable.setColumnCollapsed("updated", true);
-        ownersTable.setColumnCollapsed("updatedBy.name", true);
+        ownersTable.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(ownersTable, userService);
         targetsTable.setColumnCollapsingAllowed(true);
         targetsTable.setColumnCollapsed("created", true);
-        targetsTable.setColumnCollapsed("createdBy.name", true);
+        targetsTable.setColumnCollapsed("createdBy", true);
         targetsTable.setColumnCollapsed("updated", true);
-        targetsTable.setColumnCollapsed("updatedBy.name", true);
+        targetsTable.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(targetsTable, userService);
         // Now we refresh the content of the tables
         refreshOwnersTableContent();
         refreshTargetsTableContent(null);
@@ -250,9 +254,8 @@ public class OwnersView extends VerticalLayout implements View, ColumnGenerator,
      * Refreshes the table with the owners data
      */
     public void refreshOwnersTableContent() {
-        // We first create the container with all the owners and assign it to the table
-        ownersContainer.removeAllItems();
-        ownersContainer.addAll(ownerService.list());
+        // The container loads the owners from the database page by page, so we just discard the ones already loaded
+        ownersContainer.refresh();
     }
     
     /**
@@ -18,13 +18,16 @@ import com.damosais.sid.database.beans.CVEDefinition;
 import com.damosais.sid.database.beans.User;
 import com.damosais.sid.database.beans.UserRole;
 import com.damosais.sid.database.beans.Vulnerability;
+import com.damosais.sid.database.services.CVEDefinitionImport;
 import com.damosais.sid.database.services.CVEDefinitionService;
+import com.damosais.sid.database.services.UserService;
 import com.damosais.sid.database.services.VulnerabilityService;
 import com.damosais.sid.parsers.CVENVDParser;
+import com.damosais.sid.webapp.containers.LazyEntityContainer;
+import com.damosais.sid.webapp.customfields.UserNameConverter;
 import com.damosais.sid.webapp.windows.CVEWindow;
 import com.damosais.sid.webapp.windows.VulnerabilityWindow;
 import com.vaadin.data.util.BeanItem;
-import com.vaadin.data.util.BeanItemContainer;
 import com.vaadin.navigator.View;
 import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
 import com.vaadin.shared.ui.label.ContentMode;
@@ -59,11 +62,11 @@ public class VulnerabilitiesView extends VerticalLayout implements View, ClickLi
     public static final String VIEW_NAME = "VulnerabilitiesScreen";
     private static final String EDIT_BUTTON = "editButton";
     private static final String DELETE_BUTTON = "deleteButton";
-    private static final String UPDATED_BY_NAME = "updatedBy.name";
-    private static final String CREATED_BY_NAME = "createdBy.name";
+    private static final String UPDATED_BY = "updatedBy";
+    private static final String CREATED_BY = "createdBy";
     private static final String FAILURE = "Failure";
-    private BeanItemContainer<Vulnerability> vulnerabilityContainer;
-    private BeanItemContainer<CVEDefinition> cveContainer;
+    private LazyEntityContainer<Vulnerability> vulnerabilityContainer;
+    private LazyEntityContainer<CVEDefinition> cveContainer;
     private Button addVulnerability;
     private Button addCVE;
     private Upload updateCVEs;
@@ -85,6 +88,9 @@ public class VulnerabilitiesView extends VerticalLayout implements View, ClickLi
     @Autowired
     private CVEWindow cveWindow;
 
+    @Autowired
+    private UserService userService;
+
     /**
      * The constructor just sets the spacing and the margins and initialises the parser
      */
@@ -239,19 +245,15 @@ public class VulnerabilitiesView extends VerticalLayout implements View, ClickLi
         vulnerabilityTable.addGeneratedColumn(DELETE_BUTTON, this);
         cveTable.addGeneratedColumn(DELETE_BUTTON, this);
         // Now we handle the containers
-        vulnerabilityContainer = new BeanItemContainer<>(Vulnerability.class);
+        vulnerabilityContainer = new LazyEntityContainer<>(Vulnerability.class, vulnerabilityService);
         vulnerabilityContainer.addNestedContainerProperty("definition.name");
-        vulnerabilityContainer.addNestedContainerProperty(CREATED_BY_NAME);
-        vulnerabilityContainer.addNestedContainerProperty(UPDATED_BY_NAME);
         vulnerabilityTable.setContainerDataSource(vulnerabilityContainer);
-        cveContainer = new BeanItemContainer<>(CVEDefinition.class);
-        cveContainer.addNestedContainerProperty(CREATED_BY_NAME);
-        cveContainer.addNestedContainerProperty(UPDATED_BY_NAME);
+        cveContainer = new LazyEntityContainer<>(CVEDefinition.class, cveDefinitionService);
         cveTable.setContainerDataSource(cveContainer);
         // Now we define which columns are visible and what are going to be their names in the table header
-        vulnerabilityTable.setVisibleColumns(new Object[] { "definition.name", "type", "notes", "created", CREATED_BY_NAME, "updated", UPDATED_BY_NAME, EDIT_BUTTON, DELETE_BUTTON });
+        vulnerabilityTable.setVisibleColumns(new Object[] { "definition.name", "type", "notes", "created", CREATED_BY, "updated", UPDATED_BY, EDIT_BUTTON, DELETE_BUTTON });
         vulnerabilityTable.setColumnHeaders(new String[] { "CVE Name", "Type", "Notes", "Created", "Created by", "Last update", "Last update by", "Edit", "Delete" });
-        cveTable.setVisibleColumns(new Object[] { "name", "published", "cveDesc", "severity", "cvssBaseScore", "created", CREATED_BY_NAME, "updated", UPDATED_BY_NAME, EDIT_BUTTON, DELETE_BUTTON });
+        cveTable.setVisibleColumns(new Object[] { "name", "published", "cveDesc", "severity", "cvssBaseScore", "created", CREATED_BY, "updated", UPDATED_BY, EDIT_BUTTON, DELETE_BUTTON });
         cveTable.setColumnHeaders(new String[] { "Name", "Published", "Description", "Severity", "CVSS Base Score", "Created", "Created by", "Last update", "Last update by", "Edit", "Delete" });
         // We then align the buttons to the middle
         vulnerabilityTable.setColumnAlignment(EDIT_BUTTON, CustomTable.Align.CENTER);
@@ -261,14 +263,16 @@ public class VulnerabilitiesView extends VerticalLayout implements View, ClickLi
         // We then collapse the columns that have less value
         vulnerabilityTable.setColumnCollapsingAllowed(true);
         vulnerabilityTable.setColumnCollapsed("created", true);
-        vulnerabilityTable.setColumnCollapsed("createdBy.name", true);
+        vulnerabilityTable.setColumnCollapsed("createdBy", true);
         vulnerabilityTable.setColumnCollapsed("updated", true);
-        vulnerabilityTable.setColumnCollapsed("updatedBy.name", true);
+        vulnerabilityTable.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(vulnerabilityTable, userService);
         cveTable.setColumnCollapsingAllowed(true);
         cveTable.setColumnCollapsed("created", true);
-        cveTable.setColumnCollapsed("createdBy.name", true);
+        cveTable.setColumnCollapsed("createdBy", true);
         cveTable.setColumnCollapsed("updated", true);
-        cveTable.setColumnCollapsed("updatedBy.name", true);
+        cveTable.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(cveTable, userService);
         // Now we refresh the content of the tables
         refreshVulnerabilitiesTableContent();
         refreshCVEsTableContent();
@@ -291,17 +295,16 @@ public class VulnerabilitiesView extends VerticalLayout implements View, ClickLi
      *            The owner currently showing
      */
     public void refreshCVEsTableContent() {
-        cveContainer.removeAllItems();
-        cveContainer.addAll(cveDefinitionService.list());
+        // The container loads the definitions from the database page by page, so we just discard the ones already loaded
+        cveContainer.refresh();
     }
 
     /**
      * Refreshes the table with the vulnerabilities data
      */
     public void refreshVulnerabilitiesTableContent() {
-        // We first create the container with all the owners and assign it to the table
-        vulnerabilityContainer.removeAllItems();
-        vulnerabilityContainer.addAll(vulnerabilityService.list());
+        // The container loads the vulnerabilities from the database page by page, so we just discard the ones already loaded
+        vulnerabilityContainer.refresh();
     }
 
     @Override
@@ -328,12 +331,24 @@ public class VulnerabilitiesView extends VerticalLayout implements View, ClickLi
     public void uploadSucceeded(SucceededEvent event) {
         closeTempXmlWriter();
         try {
-            final List<CVEDefinition> parsedDefinitions = cveNvdParser.parse(tempXML);
-            final List<String> errors = cveDefinitionService.update(parsedDefinitions, ((WebApplication) getUI()).getUser());
+            // We stream the definitions to the database as they are parsed so the whole file is never kept in memory
+            final CVEDefinitionImport cveImport = cveDefinitionService.startImport(((WebApplication) getUI()).getUser());
+            // If the parsing fails for any reason the writer thread would stay waiting for more definitions, so it is cancelled unless it was finished
+            boolean finished = false;
+            final List<String> errors;
+            try {
+                cveNvdParser.parse(tempXML, cveImport);
+                errors = cveImport.finish();
+                finished = true;
+            } finally {
+                if (!finished) {
+                    cveImport.cancel();
+                }
+            }
             if (errors != null && !errors.isEmpty()) {
                 new Notification(FAILURE, "The following errors were found when saving the CVE definitions: " + errors, Notification.Type.ERROR_MESSAGE).show(getUI().getPage());
             } else {
-                new Notification("Success", parsedDefinitions.size() + " CVE definitions parsed and uploaded", Notification.Type.TRAY_NOTIFICATION).show(getUI().getPage());
+                new Notification("Success", cveImport.getReceived() + " CVE definitions parsed, " + cveImport.getSaved() + " new or modified ones uploaded", Notification.Type.TRAY_NOTIFICATION).show(getUI().getPage());
             }
             refreshCVEsTableContent();
         } catch (final SAXException e) {
@@ -0,0 +1,292 @@
+package com.damosais.sid.webapp.containers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaBuilder.Case;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.vaadin.data.Container.Filter;
+import com.vaadin.data.util.filter.AbstractJunctionFilter;
+import com.vaadin.data.util.filter.And;
+import com.vaadin.data.util.filter.Between;
+import com.vaadin.data.util.filter.Compare;
+import com.vaadin.data.util.filter.IsNull;
+import com.vaadin.data.util.filter.Not;
+import com.vaadin.data.util.filter.Or;
+import com.vaadin.data.util.filter.SimpleStringFilter;
+import com.vaadin.data.util.filter.UnsupportedFilterException;
+
+/**
+ * This class translates the filters and the order of a container into the predicates and the ORDER BY of the query run on the database
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ * @param <T>
+ *            The type of the entities
+ */
+class EntitySpecification<T> implements Specification<T> {
+    private final Class<T> type;
+    private final List<Filter> filters;
+    private final List<PropertyPath> sortProperties;
+    private final List<Boolean> sortAscending;
+
+    EntitySpecification(Class<T> type, List<Filter> filters, List<PropertyPath> sortProperties, List<Boolean> sortAscending) {
+        this.type = type;
+        this.filters = filters;
+        this.sortProperties = sortProperties;
+        this.sortAscending = sortAscending;
+    }
+
+    /**
+     * Checks if a filter can be translated into a predicate
+     *
+     * @param type
+     *            The class of the entities
+     * @param filter
+     *            The filter of the container
+     * @throws UnsupportedFilterException
+     *             If the filter cannot be run on the database
+     */
+    static void check(Class<?> type, Filter filter) throws UnsupportedFilterException {
+        if (filter instanceof And || filter instanceof Or) {
+            for (final Filter child : ((AbstractJunctionFilter) filter).getFilters()) {
+                check(type, child);
+            }
+        } else if (filter instanceof Not) {
+            check(type, ((Not) filter).getFilter());
+        } else {
+            final Object propertyId = getPropertyId(filter);
+            if (propertyId == null) {
+                throw new UnsupportedFilterException("Filters of type " + filter.getClass().getSimpleName() + " cannot be run on the database");
+            } else if (PropertyPath.resolve(type, propertyId) == null) {
+                throw new UnsupportedFilterException("The property " + propertyId + " is not stored in the database");
+            }
+        }
+    }
+
+    /**
+     * Returns the property of the filters which apply to a single property
+     *
+     * @param filter
+     *            The filter
+     * @return The property or null if the filter is not supported
+     */
+    private static Object getPropertyId(Filter filter) {
+        if (filter instanceof SimpleStringFilter) {
+            return ((SimpleStringFilter) filter).getPropertyId();
+        } else if (filter instanceof Compare) {
+            return ((Compare) filter).getPropertyId();
+        } else if (filter instanceof Between) {
+            return ((Between) filter).getPropertyId();
+        } else if (filter instanceof IsNull) {
+            return ((IsNull) filter).getPropertyId();
+        }
+        return null;
+    }
+
+    /**
+     * Builds the expression used to sort by a property ending on an enumeration: the position of each constant when sorted by the value shown on the container
+     *
+     * @param builder
+     *            The builder of the query
+     * @param path
+     *            The expression of the enumeration
+     * @param property
+     *            The property being sorted
+     * @return The expression with the position of the constant
+     */
+    private static Expression<Integer> rank(CriteriaBuilder builder, Path<?> path, PropertyPath property) {
+        final List<Object> constants = property.sortedConstants();
+        final Case<Integer> rank = builder.selectCase();
+        for (int position = 0; position < constants.size(); position++) {
+            rank.when(builder.equal(path, constants.get(position)), position);
+        }
+        return rank.otherwise(-1);
+    }
+
+    /**
+     * Translates a filter into a predicate
+     *
+     * @param filter
+     *            The filter of the container
+     * @param root
+     *            The root of the query
+     * @param builder
+     *            The builder of the query
+     * @param joins
+     *            The joins already done on the query
+     * @return The predicate
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Predicate toPredicate(Filter filter, Root<T> root, CriteriaBuilder builder, Map<String, From<?, ?>> joins) {
+        // 1st) We combine the filters grouping others
+        if (filter instanceof And || filter instanceof Or) {
+            final List<Predicate> predicates = new ArrayList<>();
+            for (final Filter child : ((AbstractJunctionFilter) filter).getFilters()) {
+                predicates.add(toPredicate(child, root, builder, joins));
+            }
+            final Predicate[] array = predicates.toArray(new Predicate[predicates.size()]);
+            return filter instanceof And ? builder.and(array) : builder.or(array);
+        } else if (filter instanceof Not) {
+            return builder.not(toPredicate(((Not) filter).getFilter(), root, builder, joins));
+        }
+        // 2nd) On enumerations we find in memory the constants passing the filter
+        final PropertyPath property = PropertyPath.resolve(type, getPropertyId(filter));
+        final Path path = property.getPath(root, joins);
+        if (property.isEnumeration()) {
+            final List<Object> constants = property.matching(filter);
+            return constants.isEmpty() ? builder.disjunction() : path.in(constants);
+        }
+        // 3rd) Otherwise we translate the filter
+        if (filter instanceof SimpleStringFilter) {
+            final SimpleStringFilter stringFilter = (SimpleStringFilter) filter;
+            final String escaped = stringFilter.getFilterString().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            final String pattern = (stringFilter.isOnlyMatchPrefix() ? "" : "%") + (stringFilter.isIgnoreCase() ? escaped.toLowerCase() : escaped) + "%";
+            final Expression<String> text = String.class.equals(path.getJavaType()) ? path : path.as(String.class);
+            return builder.like(stringFilter.isIgnoreCase() ? builder.lower(text) : text, pattern, '\\');
+        } else if (filter instanceof Between) {
+            final Between between = (Between) filter;
+            return builder.between(path, (Comparable) between.getStartValue(), (Comparable) between.getEndValue());
+        } else if (filter instanceof IsNull) {
+            return path.isNull();
+        }
+        final Compare compare = (Compare) filter;
+        final Comparable value = (Comparable) compare.getValue();
+        switch (compare.getOperation()) {
+            case GREATER:
+                return builder.greaterThan(path, value);
+            case GREATER_OR_EQUAL:
+                return builder.greaterThanOrEqualTo(path, value);
+            case LESS:
+                return builder.lessThan(path, value);
+            case LESS_OR_EQUAL:
+                return builder.lessThanOrEqualTo(path, value);
+            default:
+                return value == null ? path.isNull() : builder.equal(path, value);
+        }
+    }
+
+    /**
+     * Returns the specification of the rows shown before an entity: the ones matching the filters whose values on the sorted properties (and finally their
+     * identifier) come first in the order of the container. Counting them gives the position of the entity without reading the rows before it
+     *
+     * @param entity
+     *            The entity
+     * @param id
+     *            The identifier of the entity
+     * @return The specification of the rows before the entity
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    Specification<T> before(T entity, Comparable<?> id) {
+        return (root, query, builder) -> {
+            final Map<String, From<?, ?>> joins = new HashMap<>();
+            final List<Predicate> predicates = toPredicates(root, builder, joins);
+            // 1st) A row goes before if it has the same values on the first sorted properties and it goes before on the next one
+            final List<Predicate> alternatives = new ArrayList<>();
+            final List<Predicate> sameValues = new ArrayList<>();
+            for (int i = 0; i < sortProperties.size(); i++) {
+                final PropertyPath property = sortProperties.get(i);
+                final Path<?> path = property.getPath(root, joins);
+                final Object value = property.readValue(entity);
+                final List<Predicate> alternative = new ArrayList<>(sameValues);
+                alternative.add(precedes(builder, path, property, value, sortAscending.get(i)));
+                alternatives.add(builder.and(alternative.toArray(new Predicate[alternative.size()])));
+                sameValues.add(value == null ? path.isNull() : builder.equal(path, value));
+            }
+            // 2nd) And if it has the same values on all of them the identifier decides
+            sameValues.add(builder.lessThan(root.get("id"), (Comparable) id));
+            alternatives.add(builder.and(sameValues.toArray(new Predicate[sameValues.size()])));
+            predicates.add(builder.or(alternatives.toArray(new Predicate[alternatives.size()])));
+            return builder.and(predicates.toArray(new Predicate[predicates.size()]));
+        };
+    }
+
+    /**
+     * Builds the predicate of the values going before a value on a sorted property. As on the database the empty values go first when sorting
+     * ascending and last when sorting descending, and the enumerations go in the order of the values shown for their constants
+     *
+     * @param builder
+     *            The builder of the query
+     * @param path
+     *            The expression of the property
+     * @param property
+     *            The property sorted
+     * @param value
+     *            The value
+     * @param ascending
+     *            If the property is sorted ascending
+     * @return The predicate
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Predicate precedes(CriteriaBuilder builder, Path path, PropertyPath property, Object value, boolean ascending) {
+        if (value == null) {
+            return ascending ? builder.disjunction() : path.isNotNull();
+        }
+        final Predicate preceding;
+        if (property.isEnumeration()) {
+            final List<Object> constants = property.sortedConstants();
+            final int position = constants.indexOf(value);
+            final List<Object> precedingConstants = ascending ? constants.subList(0, position) : constants.subList(position + 1, constants.size());
+            preceding = precedingConstants.isEmpty() ? builder.disjunction() : path.in(precedingConstants);
+        } else {
+            preceding = ascending ? builder.lessThan(path, (Comparable) value) : builder.greaterThan(path, (Comparable) value);
+        }
+        return ascending ? builder.or(path.isNull(), preceding) : preceding;
+    }
+
+    /**
+     * Translates the filters into predicates
+     *
+     * @param root
+     *            The root of the query
+     * @param builder
+     *            The builder of the query
+     * @param joins
+     *            The joins already done on the query
+     * @return The predicates of the filters
+     */
+    private List<Predicate> toPredicates(Root<T> root, CriteriaBuilder builder, Map<String, From<?, ?>> joins) {
+        final List<Predicate> predicates = new ArrayList<>();
+        for (final Filter filter : filters) {
+            predicates.add(toPredicate(filter, root, builder, joins));
+        }
+        return predicates;
+    }
+
+    @Override
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder builder) {
+        final Map<String, From<?, ?>> joins = new HashMap<>();
+        // 1st) We add the order, except on the query counting the rows
+        if (!Long.class.equals(query.getResultType())) {
+            final List<Order> orders = new ArrayList<>();
+            for (int i = 0; i < sortProperties.size(); i++) {
+                final PropertyPath property = sortProperties.get(i);
+                final Path<?> path = property.getPath(root, joins);
+                final Expression<?> expression = property.isEnumeration() ? rank(builder, path, property) : path;
+                orders.add(sortAscending.get(i) ? builder.asc(expression) : builder.desc(expression));
+            }
+            // We finish with the identifier so the rows with the same values do not move between pages
+            orders.add(builder.asc(root.get("id")));
+            query.orderBy(orders);
+        }
+        // 2nd) Then we add the filters
+        if (filters.isEmpty()) {
+            return null;
+        }
+        final List<Predicate> predicates = toPredicates(root, builder, joins);
+        return builder.and(predicates.toArray(new Predicate[predicates.size()]));
+    }
+}
@@ -0,0 +1,430 @@
+package com.damosais.sid.webapp.containers;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.springframework.data.domain.PageRequest;
+
+import com.damosais.sid.database.services.PagedService;
+import com.vaadin.data.Container;
+import com.vaadin.data.Item;
+import com.vaadin.data.Property;
+import com.vaadin.data.util.AbstractContainer;
+import com.vaadin.data.util.BeanItem;
+import com.vaadin.data.util.BeanUtil;
+import com.vaadin.data.util.NestedPropertyDescriptor;
+import com.vaadin.data.util.filter.UnsupportedFilterException;
+
+/**
+ * This container shows the entities of a service loading from the database only the pages being displayed instead of the whole table. The filters and the
+ * sorting of the table are run on the database as predicates and ORDER BY, so the screens stay responsive whatever the number of rows. As the
+ * BeanItemContainer the entities themselves are the identifiers of the items, but the container is read only: after changing the data it must be refreshed
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ * @param <T>
+ *            The type of the entities
+ */
+public class LazyEntityContainer<T> extends AbstractContainer implements Container.Indexed, Container.Sortable, Container.Filterable, Container.ItemSetChangeNotifier {
+    private static final long serialVersionUID = -4812340573917655020L;
+    // Number of rows loaded on each query
+    private static final int PAGE_SIZE = 100;
+    // Number of pages kept in memory
+    private static final int CACHED_PAGES = 10;
+    private final Class<T> type;
+    private final PagedService<T> service;
+    private final Map<String, Class<?>> properties = new LinkedHashMap<>();
+    private final List<String> nestedProperties = new ArrayList<>();
+    private final List<Filter> filters = new ArrayList<>();
+    private final List<PropertyPath> sortProperties = new ArrayList<>();
+    private final List<Boolean> sortAscending = new ArrayList<>();
+    private final Map<Integer, List<T>> pages;
+    // Items of the entities of the pages in memory, by the entities themselves as returned to the table
+    private final Map<T, BeanItem<T>> items = new IdentityHashMap<>();
+    private Method idReader;
+    private int size = -1;
+
+    /**
+     * Creates the container for the entities of a service
+     *
+     * @param type
+     *            The class of the entities
+     * @param service
+     *            The service returning the pages of entities
+     */
+    public LazyEntityContainer(Class<T> type, PagedService<T> service) {
+        this.type = type;
+        this.service = service;
+        pages = new LinkedHashMap<Integer, List<T>>(CACHED_PAGES, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Entry<Integer, List<T>> eldest) {
+                if (size() > CACHED_PAGES) {
+                    eldest.getValue().forEach(items::remove);
+                    return true;
+                }
+                return false;
+            }
+        };
+        try {
+            for (final PropertyDescriptor descriptor : BeanUtil.getBeanPropertyDescriptor(type)) {
+                if (descriptor.getReadMethod() != null && !"class".equals(descriptor.getName())) {
+                    properties.put(descriptor.getName(), descriptor.getPropertyType());
+                    if ("id".equals(descriptor.getName())) {
+                        idReader = descriptor.getReadMethod();
+                    }
+                }
+            }
+        } catch (final IntrospectionException e) {
+            throw new IllegalArgumentException("Problem reading the properties of " + type.getName() + ": " + e.getMessage(), e);
+        }
+        if (idReader == null) {
+            throw new IllegalArgumentException("The entity " + type.getName() + " has no identifier");
+        }
+    }
+
+    @Override
+    public void addContainerFilter(Filter filter) throws UnsupportedFilterException {
+        EntitySpecification.check(type, filter);
+        filters.add(filter);
+        refresh();
+    }
+
+    @Override
+    public boolean addContainerProperty(Object propertyId, Class<?> type, Object defaultValue) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The properties of the container come from the entities");
+    }
+
+    @Override
+    public Object addItem() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The container is read only");
+    }
+
+    @Override
+    public Item addItem(Object itemId) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The container is read only");
+    }
+
+    @Override
+    public Object addItemAfter(Object previousItemId) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The container is read only");
+    }
+
+    @Override
+    public Item addItemAfter(Object previousItemId, Object newItemId) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The container is read only");
+    }
+
+    @Override
+    public Object addItemAt(int index) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The container is read only");
+    }
+
+    @Override
+    public Item addItemAt(int index, Object newItemId) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The container is read only");
+    }
+
+    @Override
+    public void addItemSetChangeListener(ItemSetChangeListener listener) {
+        super.addItemSetChangeListener(listener);
+    }
+
+    @Override
+    @Deprecated
+    public void addListener(ItemSetChangeListener listener) {
+        super.addListener(listener);
+    }
+
+    /**
+     * Adds a nested property (like "target.country.name") to the items of the container
+     *
+     * @param propertyId
+     *            The nested property
+     */
+    public void addNestedContainerProperty(String propertyId) {
+        properties.put(propertyId, new NestedPropertyDescriptor<>(propertyId, type).getPropertyType());
+        nestedProperties.add(propertyId);
+        items.values().forEach(item -> item.addNestedProperty(propertyId));
+        fireContainerPropertySetChange();
+    }
+
+    @Override
+    public boolean containsId(Object itemId) {
+        return indexOfId(itemId) >= 0;
+    }
+
+    @Override
+    public Object firstItemId() {
+        return size() > 0 ? getIdByIndex(0) : null;
+    }
+
+    @Override
+    public Collection<Filter> getContainerFilters() {
+        return Collections.unmodifiableList(filters);
+    }
+
+    @Override
+    public Property<?> getContainerProperty(Object itemId, Object propertyId) {
+        final Item item = getItem(itemId);
+        return item == null ? null : item.getItemProperty(propertyId);
+    }
+
+    @Override
+    public Collection<?> getContainerPropertyIds() {
+        return Collections.unmodifiableSet(properties.keySet());
+    }
+
+    @Override
+    public Object getIdByIndex(int index) {
+        if (index < 0) {
+            return null;
+        }
+        final List<T> page = getPage(index / PAGE_SIZE);
+        final int position = index % PAGE_SIZE;
+        return position < page.size() ? page.get(position) : null;
+    }
+
+    @Override
+    public BeanItem<T> getItem(Object itemId) {
+        if (!type.isInstance(itemId)) {
+            return null;
+        }
+        // The items of the rows in memory are kept with their pages, the rest (like the ones selected from other lists) are built on each call
+        final BeanItem<T> item = items.get(itemId);
+        return item != null ? item : newItem(type.cast(itemId));
+    }
+
+    @Override
+    public List<?> getItemIds() {
+        return new AbstractList<Object>() {
+            @Override
+            public Object get(int index) {
+                return getIdByIndex(index);
+            }
+
+            @Override
+            public int size() {
+                return LazyEntityContainer.this.size();
+            }
+        };
+    }
+
+    @Override
+    public List<?> getItemIds(int startIndex, int numberOfItems) {
+        final List<T> itemIds = new ArrayList<>(numberOfItems);
+        final int end = Math.min(size(), startIndex + numberOfItems);
+        for (int index = startIndex; index < end;) {
+            final List<T> page = getPage(index / PAGE_SIZE);
+            final int position = index % PAGE_SIZE;
+            if (position >= page.size()) {
+                // The rows changed since they were counted
+                break;
+            }
+            final int count = Math.min(page.size() - position, end - index);
+            itemIds.addAll(page.subList(position, position + count));
+            index += count;
+        }
+        return itemIds;
+    }
+
+    /**
+     * Returns a page of entities, loading it from the database if it is not in memory
+     *
+     * @param number
+     *            The number of the page
+     * @return The entities of the page
+     */
+    private List<T> getPage(int number) {
+        List<T> page = pages.get(number);
+        if (page == null) {
+            page = service.list(getSpecification(), new PageRequest(number, PAGE_SIZE)).getContent();
+            page.forEach(entity -> items.put(entity, newItem(entity)));
+            pages.put(number, page);
+        }
+        return page;
+    }
+
+    @Override
+    public Collection<?> getSortableContainerPropertyIds() {
+        final List<Object> sortable = new ArrayList<>();
+        for (final String propertyId : properties.keySet()) {
+            if (PropertyPath.resolve(type, propertyId) != null) {
+                sortable.add(propertyId);
+            }
+        }
+        return sortable;
+    }
+
+    private EntitySpecification<T> getSpecification() {
+        return new EntitySpecification<>(type, new ArrayList<>(filters), new ArrayList<>(sortProperties), new ArrayList<>(sortAscending));
+    }
+
+    @Override
+    public Class<?> getType(Object propertyId) {
+        return properties.get(propertyId);
+    }
+
+    @Override
+    public int indexOfId(Object itemId) {
+        if (!type.isInstance(itemId)) {
+            return -1;
+        }
+        // 1st) We look for the row in the pages in memory
+        for (final Entry<Integer, List<T>> page : pages.entrySet()) {
+            final int position = page.getValue().indexOf(itemId);
+            if (position >= 0) {
+                return page.getKey() * PAGE_SIZE + position;
+            }
+        }
+        // 2nd) If its page is not in memory we count the rows shown before it, with the same filters and order as the pages
+        final Comparable<?> id = readId(itemId);
+        if (id == null) {
+            return -1;
+        }
+        final int index = (int) Math.min(Integer.MAX_VALUE, service.count(getSpecification().before(type.cast(itemId), id)));
+        // 3rd) Then we check that the row on that position is the same one, as it may not pass the filters or have been deleted
+        final Object found = index < size() ? getIdByIndex(index) : null;
+        return found != null && id.equals(readId(found)) ? index : -1;
+    }
+
+    @Override
+    public boolean isFirstId(Object itemId) {
+        return itemId != null && itemId.equals(firstItemId());
+    }
+
+    @Override
+    public boolean isLastId(Object itemId) {
+        return itemId != null && itemId.equals(lastItemId());
+    }
+
+    @Override
+    public Object lastItemId() {
+        return size() > 0 ? getIdByIndex(size() - 1) : null;
+    }
+
+    @Override
+    public Object nextItemId(Object itemId) {
+        final int index = indexOfId(itemId);
+        return index < 0 || index + 1 >= size() ? null : getIdByIndex(index + 1);
+    }
+
+    @Override
+    public Object prevItemId(Object itemId) {
+        final int index = indexOfId(itemId);
+        return index <= 0 ? null : getIdByIndex(index - 1);
+    }
+
+    /**
+     * Creates the item of an entity with the nested properties of the container
+     *
+     * @param entity
+     *            The entity
+     * @return The item of the entity
+     */
+    private BeanItem<T> newItem(T entity) {
+        final BeanItem<T> item = new BeanItem<>(entity);
+        for (final String nestedProperty : nestedProperties) {
+            item.addNestedProperty(nestedProperty);
+        }
+        return item;
+    }
+
+    /**
+     * Reads the identifier of an entity
+     *
+     * @param entity
+     *            The entity
+     * @return The identifier or null if the entity has not been saved
+     */
+    private Comparable<?> readId(Object entity) {
+        try {
+            return (Comparable<?>) idReader.invoke(entity);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Problem reading the identifier of " + entity + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Forgets the rows loaded so far, so they are loaded again from the database the next time the table needs them
+     */
+    public void refresh() {
+        pages.clear();
+        items.clear();
+        size = -1;
+        fireItemSetChange();
+    }
+
+    @Override
+    public void removeAllContainerFilters() {
+        filters.clear();
+        refresh();
+    }
+
+    @Override
+    public boolean removeAllItems() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The container is read only");
+    }
+
+    @Override
+    public void removeContainerFilter(Filter filter) {
+        filters.remove(filter);
+        refresh();
+    }
+
+    @Override
+    public boolean removeContainerProperty(Object propertyId) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The properties of the container come from the entities");
+    }
+
+    @Override
+    public boolean removeItem(Object itemId) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The container is read only");
+    }
+
+    @Override
+    public void removeItemSetChangeListener(ItemSetChangeListener listener) {
+        super.removeItemSetChangeListener(listener);
+    }
+
+    @Override
+    @Deprecated
+    public void removeListener(ItemSetChangeListener listener) {
+        super.removeListener(listener);
+    }
+
+    @Override
+    public int size() {
+        if (size < 0) {
+            size = (int) Math.min(Integer.MAX_VALUE, service.count(getSpecification()));
+        }
+        return size;
+    }
+
+    @Override
+    public void sort(Object[] propertyId, boolean[] ascending) {
+        sortProperties.clear();
+        sortAscending.clear();
+        for (int i = 0; i < propertyId.length; i++) {
+            final PropertyPath property = PropertyPath.resolve(type, propertyId[i]);
+            if (property != null) {
+                sortProperties.add(property);
+                sortAscending.add(i < ascending.length ? ascending[i] : true);
+            }
+        }
+        refresh();
+    }
+}
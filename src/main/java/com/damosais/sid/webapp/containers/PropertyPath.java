@@ -0,0 +1,221 @@
+package com.damosais.sid.webapp.containers;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.Embeddable;
+import javax.persistence.Entity;
+import javax.persistence.Transient;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+
+import com.vaadin.data.Container.Filter;
+import com.vaadin.data.util.NestedMethodProperty;
+import com.vaadin.data.util.ObjectProperty;
+import com.vaadin.data.util.PropertysetItem;
+
+/**
+ * This class maps a property of a container (which can be nested like "target.country.name") to the persistent attributes of the entity, so it can be
+ * filtered and sorted in the database. When the path reaches an enumeration the rest of the property (like the name of a country) is not stored in the
+ * database, so it is evaluated in memory on each constant of the enumeration instead
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+final class PropertyPath implements Serializable {
+    private static final long serialVersionUID = 2730462207346571985L;
+    private final Object propertyId;
+    private final List<String> attributes;
+    // For each attribute if it is an association which has to be joined
+    private final boolean[] associations;
+    private final Class<?> type;
+    private final String remainder;
+
+    private PropertyPath(Object propertyId, List<String> attributes, boolean[] associations, Class<?> type, String remainder) {
+        this.propertyId = propertyId;
+        this.attributes = attributes;
+        this.associations = associations;
+        this.type = type;
+        this.remainder = remainder;
+    }
+
+    /**
+     * Finds a field on a class or any of its parents
+     *
+     * @param type
+     *            The class
+     * @param name
+     *            The name of the field
+     * @return The field or null if there is no field with that name
+     */
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (final Field field : current.getDeclaredFields()) {
+                if (field.getName().equals(name)) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolves a property of a container on the persistent attributes of an entity
+     *
+     * @param entityType
+     *            The class of the entity
+     * @param propertyId
+     *            The property of the container
+     * @return The path of the property or null if the property is not stored in the database (calculated properties, collections or whole entities)
+     */
+    static PropertyPath resolve(Class<?> entityType, Object propertyId) {
+        if (!(propertyId instanceof String)) {
+            return null;
+        }
+        final String[] segments = ((String) propertyId).split("\\.");
+        final List<String> attributes = new ArrayList<>(segments.length);
+        final boolean[] associations = new boolean[segments.length];
+        Class<?> current = entityType;
+        for (int i = 0; i < segments.length; i++) {
+            // 1st) The segment must be a persistent field
+            final Field field = findField(current, segments[i]);
+            if (field == null || Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers()) || field.isAnnotationPresent(Transient.class)) {
+                return null;
+            }
+            attributes.add(segments[i]);
+            final Class<?> fieldType = field.getType();
+            final boolean last = i == segments.length - 1;
+            // 2nd) Then we check what we have reached
+            if (fieldType.isEnum()) {
+                // 2.1) An enumeration ends the path, the rest is evaluated in memory
+                final String remainder = last ? null : String.join(".", Arrays.copyOfRange(segments, i + 1, segments.length));
+                return new PropertyPath(propertyId, attributes, associations, fieldType, remainder);
+            } else if (fieldType.isAnnotationPresent(Entity.class) || fieldType.isAnnotationPresent(Embeddable.class)) {
+                // 2.2) We can only go through an entity or an embedded object, not stop on it
+                if (last) {
+                    return null;
+                }
+                associations[i] = fieldType.isAnnotationPresent(Entity.class);
+                current = fieldType;
+            } else if (fieldType.isArray() || Collection.class.isAssignableFrom(fieldType) || Map.class.isAssignableFrom(fieldType)) {
+                // 2.3) The collections cannot be filtered or sorted in the database
+                return null;
+            } else {
+                // 2.4) A basic value must be the end of the property
+                return last ? new PropertyPath(propertyId, attributes, associations, fieldType, null) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the expression of the property on a query, reusing the joins already done by other properties. The associations are joined with left joins
+     * so the rows with an empty association are not lost, as it happens when filtering in memory
+     *
+     * @param root
+     *            The root of the query
+     * @param joins
+     *            The joins already done on the query by their path
+     * @return The expression of the property
+     */
+    Path<?> getPath(Root<?> root, Map<String, From<?, ?>> joins) {
+        Path<?> path = root;
+        final StringBuilder key = new StringBuilder();
+        for (int i = 0; i < attributes.size(); i++) {
+            final String attribute = attributes.get(i);
+            key.append('.').append(attribute);
+            if (associations[i]) {
+                final From<?, ?> from = (From<?, ?>) path;
+                path = joins.computeIfAbsent(key.toString(), k -> from.join(attribute, JoinType.LEFT));
+            } else {
+                path = path.get(attribute);
+            }
+        }
+        return path;
+    }
+
+    Object getPropertyId() {
+        return propertyId;
+    }
+
+    /**
+     * Returns the value shown on the container for a constant of the enumeration
+     *
+     * @param constant
+     *            The constant of the enumeration
+     * @return The value of the property for that constant
+     */
+    Object getValue(Object constant) {
+        return remainder == null ? constant : new NestedMethodProperty<>(constant, remainder).getValue();
+    }
+
+    /**
+     * Reads from an entity the value of the property stored in the database (the constant when the path ends on an enumeration)
+     *
+     * @param entity
+     *            The entity
+     * @return The value or null if it or any of the objects on its path is empty
+     */
+    Object readValue(Object entity) {
+        return new NestedMethodProperty<>(entity, String.join(".", attributes)).getValue();
+    }
+
+    /**
+     * Checks if the path ends on an enumeration, in which case the filters and the order are evaluated in memory over its constants
+     *
+     * @return true if the path ends on an enumeration
+     */
+    boolean isEnumeration() {
+        return type.isEnum();
+    }
+
+    /**
+     * Returns the constants of the enumeration which pass a filter
+     *
+     * @param filter
+     *            The filter on the property
+     * @return The constants passing the filter
+     */
+    List<Object> matching(Filter filter) {
+        final List<Object> constants = new ArrayList<>();
+        for (final Object constant : type.getEnumConstants()) {
+            final PropertysetItem item = new PropertysetItem();
+            item.addItemProperty(propertyId, new ObjectProperty<>(getValue(constant), Object.class));
+            if (filter.passesFilter(constant, item)) {
+                constants.add(constant);
+            }
+        }
+        return constants;
+    }
+
+    /**
+     * Returns the constants of the enumeration in the order of the values shown on the container
+     *
+     * @return The constants sorted by their value
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    List<Object> sortedConstants() {
+        final List<Object> constants = new ArrayList<>(Arrays.asList(type.getEnumConstants()));
+        Collections.sort(constants, (first, second) -> {
+            final Object firstValue = getValue(first);
+            final Object secondValue = getValue(second);
+            if (firstValue == null || secondValue == null) {
+                return firstValue == null ? secondValue == null ? 0 : -1 : 1;
+            } else if (firstValue instanceof Comparable && firstValue.getClass().isInstance(secondValue)) {
+                return ((Comparable) firstValue).compareTo(secondValue);
+            }
+            return firstValue.toString().compareTo(secondValue.toString());
+        });
+        return constants;
+    }
+}
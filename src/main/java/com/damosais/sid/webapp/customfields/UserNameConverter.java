@@ -0,0 +1,68 @@
+package com.damosais.sid.webapp.customfields;
+
+import java.util.Locale;
+
+import org.tepi.filtertable.FilterTable;
+
+import com.damosais.sid.database.beans.User;
+import com.damosais.sid.database.services.UserService;
+import com.vaadin.data.util.converter.Converter;
+
+/**
+ * This class shows on the tables the name of the users who created or updated the rows, finding it through the service so the users do not need to be
+ * loaded with each row
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+public class UserNameConverter implements Converter<String, User> {
+    private static final long serialVersionUID = -2318563043615380221L;
+    private final transient UserService userService;
+
+    /**
+     * Creates the converter
+     *
+     * @param userService
+     *            The service finding the names of the users
+     */
+    public UserNameConverter(UserService userService) {
+        this.userService = userService;
+    }
+
+    /**
+     * Shows the columns with the users who created and updated the rows of a table by their names. The users are not loaded with each row, so their names
+     * are found through the service, and the columns cannot be filtered as the table only has their identifiers
+     *
+     * @param table
+     *            The table with the createdBy and updatedBy columns
+     * @param userService
+     *            The service finding the names of the users
+     */
+    public static void install(FilterTable table, UserService userService) {
+        table.setConverter("createdBy", new UserNameConverter(userService));
+        table.setConverter("updatedBy", new UserNameConverter(userService));
+        table.setFilterFieldVisible("createdBy", false);
+        table.setFilterFieldVisible("updatedBy", false);
+    }
+
+    @Override
+    public User convertToModel(String value, Class<? extends User> targetType, Locale locale) throws com.vaadin.data.util.converter.Converter.ConversionException {
+        throw new ConversionException("The users cannot be changed from the tables");
+    }
+
+    @Override
+    public String convertToPresentation(User value, Class<? extends String> targetType, Locale locale) throws com.vaadin.data.util.converter.Converter.ConversionException {
+        return userService.getName(value);
+    }
+
+    @Override
+    public Class<User> getModelType() {
+        return User.class;
+    }
+
+    @Override
+    public Class<String> getPresentationType() {
+        return String.class;
+    }
+}
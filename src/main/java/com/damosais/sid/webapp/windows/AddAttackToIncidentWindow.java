@@ -1,7 +1,6 @@
 package com.damosais.sid.webapp.windows;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -65,7 +64,7 @@ public class AddAttackToIncidentWindow extends Window {
         // 1st) We initialise the form and add the combo box (we only add events that are not assigned)
         final VerticalLayout form = new VerticalLayout();
         form.addComponent(new Label("If there are no attacks in the table below is because they have already all been assigned to an incident"));
-        final List<Attack> attacksFiltered = attackService.list().stream().filter(attack -> attack.getIncident() == null).collect(Collectors.toList());
+        final List<Attack> attacksFiltered = attackService.listWithoutIncident();
 
         final FilterTable attacksTable = new FilterTable();
         attacksTable.setFilterBarVisible(true);
@@ -2,8 +2,6 @@ package com.damosais.sid.webapp.windows;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
-import java.time.YearMonth;
-import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -13,7 +11,10 @@ import com.damosais.sid.database.beans.CorrelationHypothesis;
 import com.damosais.sid.database.beans.CorrelationResult;
 import com.damosais.sid.database.services.CorrelationHypothesisService;
 import com.damosais.sid.database.services.CountryVariableValueService;
+import com.damosais.sid.database.services.Timeline;
+import com.damosais.sid.database.services.UserService;
 import com.damosais.sid.webapp.GraphicResources;
+import com.damosais.sid.webapp.customfields.UserNameConverter;
 import com.vaadin.addon.charts.Chart;
 import com.vaadin.addon.charts.model.Configuration;
 import com.vaadin.addon.charts.model.DataSeries;
@@ -56,6 +57,9 @@ public class CorrelationResultsWindow extends Window implements CellStyleGenerat
 
     @Autowired
     private CorrelationHypothesisService correlationHypothesisService;
+
+    @Autowired
+    private UserService userService;
     
     public CorrelationResultsWindow() {
         setModal(true);
@@ -77,10 +81,10 @@ public class CorrelationResultsWindow extends Window implements CellStyleGenerat
         // 2nd) If a result has been selected then we add the data
         if (resultToShow != null) {
             // 2.1) First we generate the time buckets and with them we generate the X axis
-            final List<YearMonth> timeBuckets = correlationHypothesisService.generateTimeBuckets(correlationHypothesis);
+            final Timeline timeline = correlationHypothesisService.generateTimeline(correlationHypothesis);
             final XAxis x = new XAxis();
-            for (final YearMonth timeBucket : timeBuckets) {
-                x.addCategory(timeBucket.toString());
+            for (int i = 0; i < timeline.size(); i++) {
+                x.addCategory(timeline.getLabel(i));
             }
             conf.addxAxis(x);
 
@@ -96,7 +100,7 @@ public class CorrelationResultsWindow extends Window implements CellStyleGenerat
             final DataSeries variableSeries = new DataSeries();
             variableSeries.setPlotOptions(new PlotOptionsSpline());
             variableSeries.setName(resultToShow.getVariable().getName());
-            final double[] values = correlationHypothesisService.getValuesArray(countryVariableValueService.listByCountryAndVariable(resultToShow.getCountry(), resultToShow.getVariable()), timeBuckets, resultToShow);
+            final double[] values = correlationHypothesisService.getValuesArray(countryVariableValueService.getSeries(resultToShow.getCountry(), resultToShow.getVariable()), timeline, resultToShow);
             Number[] numbers = new Number[values.length];
             int position = 0;
             for (final double value : values) {
@@ -107,7 +111,7 @@ public class CorrelationResultsWindow extends Window implements CellStyleGenerat
             final DataSeries eventSeries = new DataSeries();
             eventSeries.setPlotOptions(new PlotOptionsSpline());
             eventSeries.setName("Events");
-            final double[] events = correlationHypothesisService.getEventsDataArray(correlationHypothesisService.retrieveEventData(correlationHypothesis), timeBuckets);
+            final double[] events = correlationHypothesisService.getEventsDataArray(correlationHypothesis, timeline);
             numbers = new Number[events.length];
             position = 0;
             for (final double event : events) {
@@ -151,21 +155,20 @@ public class CorrelationResultsWindow extends Window implements CellStyleGenerat
         table.addGeneratedColumn("graph", this);
         container = new BeanItemContainer<>(CorrelationResult.class);
         container.addNestedContainerProperty("country.name");
-        container.addNestedContainerProperty("createdBy.name");
-        container.addNestedContainerProperty("updatedBy.name");
         table.setContainerDataSource(container);
 
         // Now we define which columns are visible and what are going to be their names in the table header
-        table.setVisibleColumns(new Object[] { "country.name", "variable", "pearsonCorrelationCoefficient", "pValuePearson", "spearmanCorrelationCoefficient", "pValueSpearman", "standardError", "interpolatedData", "valuesNormality", "eventsNormality", "created", "createdBy.name", "updated", "updatedBy.name", "graph" });
-        table.setColumnHeaders(new String[] { "Country", "Variable", "Pearson's R", "Pearson P-Value", "Spearman's R", "Spearman P-Value", "Standard Error", "Data Interpolated", "Variable Normality", "Events Normality", "Created", "Created by", "Last update", "Last updated by", "Graph" });
+        table.setVisibleColumns(new Object[] { "country.name", "variable", "pearsonCorrelationCoefficient", "pValuePearson", "spearmanCorrelationCoefficient", "pValueSpearman", "standardError", "interpolatedData", "valuesNormality", "eventsNormality", "bestLag", "bestLagCoefficient", "created", "createdBy", "updated", "updatedBy", "graph" });
+        table.setColumnHeaders(new String[] { "Country", "Variable", "Pearson's R", "Pearson P-Value", "Spearman's R", "Spearman P-Value", "Standard Error", "Data Interpolated", "Variable Normality", "Events Normality", "Best Lag (months)", "Lagged Pearson's R", "Created", "Created by", "Last update", "Last updated by", "Graph" });
         container.addAll(correlationHypothesis.getResults());
         table.setCellStyleGenerator(this);
         // We then collapse the columns that have less value
         table.setColumnCollapsingAllowed(true);
         table.setColumnCollapsed("created", true);
-        table.setColumnCollapsed("createdBy.name", true);
+        table.setColumnCollapsed("createdBy", true);
         table.setColumnCollapsed("updated", true);
-        table.setColumnCollapsed("updatedBy.name", true);
+        table.setColumnCollapsed("updatedBy", true);
+        UserNameConverter.install(table, userService);
         content.addComponent(table);
     }
     
@@ -3,19 +3,18 @@ package com.damosais.sid.webapp.windows;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.commons.math3.exception.MathRuntimeException;
-import org.apache.commons.math3.exception.NumberIsTooSmallException;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.damosais.sid.database.beans.CorrelationHypothesis;
-import com.damosais.sid.database.beans.CorrelationResult;
 import com.damosais.sid.database.beans.SocioeconomicVariable;
 import com.damosais.sid.database.beans.User;
 import com.damosais.sid.database.services.CorrelationHypothesisService;
+import com.damosais.sid.database.services.CorrelationSearch;
+import com.damosais.sid.database.services.CorrelationSearchListener;
+import com.damosais.sid.database.services.CorrelationSearchService;
 import com.damosais.sid.webapp.CorrelationsView;
 import com.damosais.sid.webapp.GraphicResources;
 import com.damosais.sid.webapp.WebApplication;
@@ -43,10 +42,14 @@ public class CorrelationSearchWindow extends Window {
     private static final Logger LOGGER = Logger.getLogger(CorrelationSearchWindow.class);
     private static final long serialVersionUID = -2181593253759124940L;
     private final VerticalLayout content;
+    private volatile CorrelationSearch search;
     
     @Autowired
     private CorrelationHypothesisService correlationHypothesisService;
 
+    @Autowired
+    private CorrelationSearchService correlationSearchService;
+
     /**
      * Creates a new window to automatically search for correlations
      */
@@ -60,7 +63,10 @@ public class CorrelationSearchWindow extends Window {
         setSizeUndefined();
     }
 
-    private void executeSearch(Set<SocioeconomicVariable> variables, TextField minEventsField, CheckBox filterRelevantCorrelationsOnly, Label status, ProgressBar progress, Button startButton, CorrelationsView view) {
+    private void executeSearch(Set<SocioeconomicVariable> variables, TextField minEventsField, CheckBox filterRelevantCorrelationsOnly, Label status, ProgressBar progress, Button startButton, Button cancelButton, CorrelationsView view) {
+        // The worker threads do not have access to the current UI so we keep a reference to it
+        final UI ui = UI.getCurrent();
+        final User user = ((WebApplication) view.getUI()).getUser();
         new Thread(() -> {
             final String minEventsValueRaw = minEventsField.getValue();
             try {
@@ -72,57 +78,38 @@ public class CorrelationSearchWindow extends Window {
                 final boolean onlyRelevantCorrelations = filterRelevantCorrelationsOnly.getValue();
 
                 // 2nd) We start creating the correlation hypothesis
-                UI.getCurrent().access(() -> status.setValue("<b>Creating correlation hypothesis with the given criteria.</b> Please wait"));
-                UI.getCurrent().push();
+                ui.access(() -> status.setValue("<b>Creating correlation hypothesis with the given criteria.</b> Please wait"));
                 final List<CorrelationHypothesis> correlationHypothesis = correlationHypothesisService.generateHypothesis(variables, minEventsValue);
                 final int total = correlationHypothesis.size();
 
-                // 3rd) We now start to run every correlation and check the results
-                UI.getCurrent().access(() -> status.setValue("<b>Processing " + total + " correlation hypothesis.</b> Please wait"));
-                UI.getCurrent().push();
-                final User user = ((WebApplication) view.getUI()).getUser();
-                final AtomicInteger index = new AtomicInteger(0);
-                for (final CorrelationHypothesis hypothesis : correlationHypothesis) {
-                    // 3.1) First we need to save the hypothesis
-                    hypothesis.setCreatedBy(user);
-                    correlationHypothesisService.save(hypothesis);
-                    // 3.2) Then we calculate the values of the correlation
-                    boolean error = false;
-                    try {
-                        correlationHypothesisService.calculateHyphotesisSimpleCorrelations(hypothesis, view);
-                    } catch (final MathRuntimeException | NumberIsTooSmallException e) {
-                        error = true;
-                        LOGGER.error("Problem calculating correlation for hypothesis: " + e.getMessage(), e);
+                // 3rd) We now evaluate every correlation on the pool of workers while we report the progress
+                ui.access(() -> status.setValue("<b>Processing " + total + " correlation hypothesis.</b> Please wait"));
+                search = new CorrelationSearch(correlationHypothesis, user, onlyRelevantCorrelations);
+                ui.access(() -> cancelButton.setEnabled(true));
+                correlationSearchService.run(search, new CorrelationSearchListener() {
+                    @Override
+                    public void hypothesisProcessed(CorrelationHypothesis hypothesis, int processed, int total, boolean kept) {
+                        ui.access(() -> progress.setValue((float) processed / total));
                     }
-                    boolean delete = false;
-                    if (onlyRelevantCorrelations && error) {
-                        delete = true;
-                    } else if (onlyRelevantCorrelations) {
-                        boolean significant = false;
-                        for (final CorrelationResult result : hypothesis.getResults()) {
-                            final boolean pearsonSignificative = result.getPearsonCorrelationCoefficient() >= CorrelationResult.SIGNIFICATIVE_LEVEL && result.getpValuePearson() < CorrelationResult.NON_NULL_HYPOTHESIS_LEVEL;
-                            final boolean spearmanSignificative = result.getSpearmanCorrelationCoefficient() >= CorrelationResult.SIGNIFICATIVE_LEVEL && result.getpValueSpearman() < CorrelationResult.NON_NULL_HYPOTHESIS_LEVEL;
-                            if (pearsonSignificative || spearmanSignificative) {
-                                significant = true;
-                                break;
-                            }
+
+                    @Override
+                    public void searchFinished(int processed, int kept, int total, boolean cancelled) {
+                        if (cancelled) {
+                            ui.access(() -> status.setValue("<b>Search cancelled after processing " + processed + " of " + total + " correlation hypothesis.</b> You can now close the window"));
+                        } else {
+                            ui.access(() -> status.setValue("<b>All " + total + " correlation hypothesis processed.</b> You can now close the window"));
                         }
-                        delete = !significant;
-                    }
-                    if (delete) {
-                        correlationHypothesisService.delete(hypothesis);
                     }
-                    UI.getCurrent().access(() -> progress.setValue((float) index.incrementAndGet() / total));
-                    UI.getCurrent().push();
-                }
-                UI.getCurrent().access(() -> status.setValue("<b>All " + total + " correlation hypothesis processed.</b> You can now close the window"));
+                });
             } catch (final NumberFormatException e) {
-                new Notification("Error", "Problem defining minimum number of events (values are 0 for no minimum, integer positive values for minimum): " + e.getMessage(), Notification.Type.ERROR_MESSAGE).show(UI.getCurrent().getPage());
+                ui.access(() -> new Notification("Error", "Problem defining minimum number of events (values are 0 for no minimum, integer positive values for minimum): " + e.getMessage(), Notification.Type.ERROR_MESSAGE).show(ui.getPage()));
                 LOGGER.error("Problem with minimum events: " + e.getMessage(), e);
             }
-            startButton.setEnabled(true);
-            UI.getCurrent().access(() -> view.refreshTableContent());
-            UI.getCurrent().push();
+            ui.access(() -> {
+                startButton.setEnabled(true);
+                cancelButton.setEnabled(false);
+                view.refreshTableContent();
+            });
         }).start();
     }
 
@@ -147,11 +134,21 @@ public class CorrelationSearchWindow extends Window {
         progress.setImmediate(true);
         content.addComponent(progress);
         final Button startButton = new Button("Start search");
+        final Button cancelButton = new Button("Cancel search");
         startButton.addClickListener(event -> {
             startButton.setEnabled(false);
-            executeSearch((Set<SocioeconomicVariable>) socioEconomicVariables.getValue(), minEvents, filterRelevantCorrelationsOnly, status, progress, startButton, view);
+            executeSearch((Set<SocioeconomicVariable>) socioEconomicVariables.getValue(), minEvents, filterRelevantCorrelationsOnly, status, progress, startButton, cancelButton, view);
         });
         startButton.setIcon(GraphicResources.RUN_ICON);
         content.addComponent(startButton);
+        cancelButton.addClickListener(event -> {
+            cancelButton.setEnabled(false);
+            if (search != null) {
+                search.cancel();
+            }
+        });
+        cancelButton.setIcon(GraphicResources.DELETE_ICON);
+        cancelButton.setEnabled(false);
+        content.addComponent(cancelButton);
     }
 }
\ No newline at end of file
@@ -6,19 +6,15 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import com.damosais.sid.database.beans.Attack;
 import com.damosais.sid.database.beans.Attacker;
 import com.damosais.sid.database.beans.FileMappings;
 import com.damosais.sid.database.beans.Incident;
@@ -26,15 +22,14 @@ import com.damosais.sid.database.beans.Owner;
 import com.damosais.sid.database.beans.Target;
 import com.damosais.sid.database.beans.Tool;
 import com.damosais.sid.database.beans.User;
-import com.damosais.sid.database.services.AttackService;
 import com.damosais.sid.database.services.AttackerService;
+import com.damosais.sid.database.services.EventImportService;
 import com.damosais.sid.database.services.EventService;
 import com.damosais.sid.database.services.FileMappigsService;
 import com.damosais.sid.database.services.IncidentService;
 import com.damosais.sid.database.services.OwnerService;
 import com.damosais.sid.database.services.TargetService;
 import com.damosais.sid.database.services.ToolService;
-import com.damosais.sid.database.services.UnauthorizedResultService;
 import com.damosais.sid.parsers.ExcelEventDataReader;
 import com.damosais.sid.webapp.GraphicResources;
 import com.damosais.sid.webapp.WebApplication;
@@ -114,14 +109,11 @@ public class ImportEventDataWindow extends Window implements Receiver, Upload.Fa
     @Autowired
     private ToolService toolService;
     
-    @Autowired
-    private UnauthorizedResultService unauthorizedResultService;
-    
     @Autowired
     private EventService eventService;
 
     @Autowired
-    private AttackService attackService;
+    private EventImportService eventImportService;
 
     @Autowired
     private IncidentService incidentService;
@@ -157,7 +149,14 @@ public class ImportEventDataWindow extends Window implements Receiver, Upload.Fa
         sheetsField.addValueChangeListener(changeEvent -> {
             if (changeEvent != null && changeEvent.getProperty() != null && changeEvent.getProperty().getValue() != null) {
                 final String sheetName = changeEvent.getProperty().getValue().toString();
-                final List<String> columns = excelEventDataReader.readColumns(sheetName);
+                final List<String> columns;
+                try {
+                    columns = excelEventDataReader.readColumns(sheetName);
+                } catch (final IOException e) {
+                    new Notification(FAILURE, "Error reading file: " + e.getLocalizedMessage(), Notification.Type.ERROR_MESSAGE).show(getUI().getPage());
+                    LOGGER.error("Error reading file", e);
+                    return;
+                }
                 for (final ComboBox selector : columnMappings.values()) {
                     selector.removeAllItems();
                     selector.addItems(columns);
@@ -250,16 +249,17 @@ public class ImportEventDataWindow extends Window implements Receiver, Upload.Fa
             final List<Tool> tools = toolService.list();
             final List<Incident> incidents = incidentService.list();
             final List<Attacker> attackers = attackerService.list();
-            final List<com.damosais.sid.database.beans.Event> events = excelEventDataReader.readAndProcessValues(sheetName, mappingValues, owners, targets, tools, incidents, attackers, eventService.list());
+            final List<com.damosais.sid.database.beans.Event> events;
+            try {
+                events = excelEventDataReader.readAndProcessValues(sheetName, mappingValues, owners, targets, tools, incidents, attackers, eventService.listKeys());
+            } catch (final IOException e) {
+                new Notification(FAILURE, "Error reading file: " + e.getLocalizedMessage(), Notification.Type.ERROR_MESSAGE).show(getUI().getPage());
+                LOGGER.error("Error reading file", e);
+                return;
+            }
             final User user = ((WebApplication) getUI()).getUser();
             if (!events.isEmpty()) {
-                final Map<Integer, String> errorsPerRow = new HashMap<>();
-                for (final com.damosais.sid.database.beans.Event newEvent : events) {
-                    final String error = saveEvent(newEvent, owners, targets, tools, incidents, attackers, user);
-                    if (StringUtils.isNotEmpty(error)) {
-                        errorsPerRow.put(newEvent.getRowNumber(), error);
-                    }
-                }
+                final Map<Integer, String> errorsPerRow = eventImportService.importEvents(events, owners, targets, tools, incidents, attackers, user);
                 new Notification(SUCCESS, events.size() + " event" + (events.size() > 1 ? "s" : "") + " inserted in the system" + failedMappings, Notification.Type.TRAY_NOTIFICATION).show(getUI().getPage());
                 if (!errorsPerRow.isEmpty()) {
                     final StringBuilder errorString = new StringBuilder("Errors while importing data detected:\n");
@@ -369,101 +369,6 @@ public class ImportEventDataWindow extends Window implements Receiver, Upload.Fa
         return tempBuffer;
     }
     
-    private String saveEvent(com.damosais.sid.database.beans.Event event, List<Owner> owners, List<Target> targets, List<Tool> tools, List<Incident> incidents, List<Attacker> attackers, User user) {
-        // 1st) We try to save the inner components of the event
-        try {
-            final Owner owner = event.getTarget().getOwner();
-            if (!owners.contains(owner)) {
-                owner.setCreated(new Date());
-                owner.setCreatedBy(user);
-                ownerService.save(event.getTarget().getOwner());
-                owners.add(owner);
-            }
-            final Target target = event.getTarget();
-            if (!targets.contains(target)) {
-                target.setCreated(new Date());
-                target.setCreatedBy(user);
-                targetService.save(target);
-                targets.add(target);
-            } else {
-                event.setTarget(targets.get(targets.indexOf(target)));
-            }
-            // 2nd) We then save the inner components of the attack
-            final Attack attack = event.getAttack();
-            final Tool tool = attack.getTool();
-            if (tool != null && !tools.contains(tool)) {
-                tool.setCreated(new Date());
-                tool.setCreatedBy(user);
-                toolService.save(tool);
-                tools.add(tool);
-            } else if (tool != null && tools.contains(tool)) {
-                attack.setTool(tools.get(tools.indexOf(tool)));
-            }
-            if (attack.getUnauthorizedResults() != null) {
-                attack.getUnauthorizedResults().setCreated(new Date());
-                attack.getUnauthorizedResults().setCreatedBy(user);
-                unauthorizedResultService.save(attack.getUnauthorizedResults());
-            }
-            
-            // 3rd) And then we do the same with the ones of the incident
-            final Incident incident = attack.getIncident();
-            if (incident != null) {
-                if (incident.getAttackers() != null && !incident.getAttackers().isEmpty()) {
-                    final Set<Attacker> withIds = new HashSet<>();
-                    for (final Attacker attacker : incident.getAttackers()) {
-                        if (!attackers.contains(attacker)) {
-                            attacker.setCreated(new Date());
-                            attacker.setCreatedBy(user);
-                            attackerService.save(attacker);
-                            attackers.add(attacker);
-                            withIds.add(attacker);
-                        } else {
-                            withIds.add(attackers.get(attackers.indexOf(attacker)));
-                        }
-                    }
-                    incident.setAttackers(withIds);
-                }
-
-                // 4th) Now we save the event, attack and incident itself
-                if (StringUtils.isBlank(incident.getName()) || !incidents.contains(incident)) {
-                    incident.setCreated(new Date());
-                    incident.setCreatedBy(user);
-                    incidentService.save(incident);
-                    incidents.add(incident);
-                } else if (incidents.contains(incident)) {
-                    attack.setIncident(incidents.get(incidents.indexOf(incident)));
-                }
-            }
-            attack.setCreated(new Date());
-            attack.setCreatedBy(user);
-            attackService.save(attack);
-            event.setCreated(new Date());
-            event.setCreatedBy(user);
-            eventService.save(event);
-            return null;
-        } catch (final Exception e) {
-            e.printStackTrace();
-            LOGGER.trace("Problem saving data: " + e.getMessage(), e);
-            try {
-                incidentService.delete(event.getAttack().getIncident());
-            } catch (final Exception e1) {
-                LOGGER.trace("Problem deleting incomplete incident:" + e1.getMessage(), e1);
-            }
-            try {
-                attackService.delete(event.getAttack());
-            } catch (final Exception e1) {
-                LOGGER.trace("Problem deleting incomplete attact:" + e1.getMessage(), e1);
-            }
-            try {
-                eventService.delete(event);
-            } catch (final Exception e1) {
-                LOGGER.trace("Problem deleting incomplete event:" + e1.getMessage(), e1);
-            }
-            // In this case we try to delete the created elements
-            return e.getMessage();
-        }
-    }
-    
     @Override
     public void uploadFailed(FailedEvent event) {
         closeTempWriter();
@@ -17,7 +17,6 @@ import org.springframework.stereotype.Component;
 import com.damosais.sid.database.beans.CountryVariableValue;
 import com.damosais.sid.database.beans.FileMappings;
 import com.damosais.sid.database.beans.SocioeconomicVariable;
-import com.damosais.sid.database.beans.User;
 import com.damosais.sid.database.services.CountryVariableValueService;
 import com.damosais.sid.database.services.FileMappigsService;
 import com.damosais.sid.parsers.ExcelSocioEconomicDataReader;
@@ -96,7 +95,14 @@ public class ImportSocioeconomicDataWindow extends Window implements Receiver, U
         sheetsField.addValueChangeListener(changeEvent -> {
             if (changeEvent != null && changeEvent.getProperty() != null && changeEvent.getProperty().getValue() != null) {
                 final String sheetName = changeEvent.getProperty().getValue().toString();
-                final List<String> columns = excelSocioEconomicDataReader.readColumns(sheetName);
+                final List<String> columns;
+                try {
+                    columns = excelSocioEconomicDataReader.readColumns(sheetName);
+                } catch (final IOException e) {
+                    new Notification(FAILURE, "Error reading file: " + e.getLocalizedMessage(), Notification.Type.ERROR_MESSAGE).show(getUI().getPage());
+                    LOGGER.error("Error reading file", e);
+                    return;
+                }
                 for (final ComboBox selector : columnMappings.values()) {
                     selector.removeAllItems();
                     selector.addItems(columns);
@@ -165,7 +171,14 @@ public class ImportSocioeconomicDataWindow extends Window implements Receiver, U
             fileMappingsService.save(fileMappings);
 
             // Then we read the values from the Excel
-            final List<CountryVariableValue> readValues = excelSocioEconomicDataReader.readValues(sheetName, variableMappings);
+            final List<CountryVariableValue> readValues;
+            try {
+                readValues = excelSocioEconomicDataReader.readValues(sheetName, variableMappings);
+            } catch (final IOException e) {
+                new Notification(FAILURE, "Error reading file: " + e.getLocalizedMessage(), Notification.Type.ERROR_MESSAGE).show(getUI().getPage());
+                LOGGER.error("Error reading file", e);
+                return;
+            }
             if (readValues != null && !readValues.isEmpty()) {
                 new Notification("Success", readValues.size() + " value" + (readValues.size() > 1 ? "s" : "") + " read from the Excel file", Notification.Type.TRAY_NOTIFICATION).show(getUI().getPage());
                 processReadValues(readValues);
@@ -234,33 +247,10 @@ public class ImportSocioeconomicDataWindow extends Window implements Receiver, U
      *            the list of CountryVariableValue read from the external source
      */
     private void processReadValues(List<CountryVariableValue> readValues) {
-        // After we received some values is time to do a mix and see which ones are insert and which are updates
-        // 1st) We read the existing values
-        final List<CountryVariableValue> existingValues = new ArrayList<>();
-        existingValues.addAll(countryVariableValueService.list());
-
-        // 2nd) Now we loop through the parsed values and check if they need to become an update or an insert
-        int valuesChanged = 0;
-        final User user = ((WebApplication) getUI()).getUser();
-        for (final CountryVariableValue readValue : readValues) {
-            // 2.1) We try to find the matching value
-            final CountryVariableValue matching = existingValues.contains(readValue) ? existingValues.get(existingValues.indexOf(readValue)) : null;
-            if (matching != null && readValue.getValue().compareTo(matching.getValue()) != 0) {
-                // 2.2) If is a match and the value is different we update the value and save it
-                matching.setValue(readValue.getValue());
-                matching.setUpdatedBy(user);
-                countryVariableValueService.save(matching);
-                valuesChanged++;
-            } else if (matching == null) {
-                // 2.3) If is a new value then we just put the data about its creator
-                readValue.setCreatedBy(user);
-                countryVariableValueService.save(readValue);
-                existingValues.add(readValue);
-                valuesChanged++;
-            }
-        }
+        // 1st) We merge them with the existing ones, which inserts the new ones and updates the ones that changed
+        final int valuesChanged = countryVariableValueService.merge(readValues, ((WebApplication) getUI()).getUser());
 
-        // 3rd) We finally refresh the contents of the table
+        // 2nd) We finally refresh the contents of the table
         if (valuesChanged > 0) {
             new Notification("Success", valuesChanged + " value" + (valuesChanged > 1 ? "s" : "") + " updated from the Excel file", Notification.Type.TRAY_NOTIFICATION).show(getUI().getPage());
         } else {
@@ -0,0 +1,86 @@
+-- Schema of the application as it was created by Hibernate before the migrations were introduced. The databases created before are marked
+-- as being on this version when the migrations run for the first time (flyway.baseline-on-migrate), so this script is only run on new databases
+
+create table attackers (id bigint not null auto_increment, country varchar(255) not null, created datetime, name varchar(255) not null, type varchar(255) not null, last_update datetime, created_by bigint not null, updated_by bigint, primary key (id));
+create table attacks (id bigint not null auto_increment, created datetime, last_update datetime, created_by bigint not null, incident_id bigint, tool_id bigint, unauthorized_results bigint, updated_by bigint, vulnerability_id bigint, primary key (id));
+create table conflict_parties_involved (conflict bigint not null, parties_involved integer);
+create table conflicts (id bigint not null auto_increment, created datetime, end datetime, location integer not null, name varchar(255) not null, start datetime not null, last_update datetime, created_by bigint not null, updated_by bigint, primary key (id));
+create table correlation_hypothesis (id bigint not null auto_increment, created datetime, end_date datetime, sector integer not null, start_date datetime, target_country integer not null, last_update datetime, attack_id bigint, created_by bigint not null, updated_by bigint, primary key (id));
+create table correlation_hypothesis_results (correlation_hypothesis bigint not null, results bigint not null, primary key (correlation_hypothesis, results));
+create table correlation_hypothesis_source_countries (correlation_hypothesis bigint not null, source_countries integer);
+create table correlation_hypothesis_variables (correlation_hypothesis bigint not null, variables integer);
+create table correlation_results (id bigint not null auto_increment, country integer not null, created datetime, events_normality double precision not null, interpolated bit not null, p_value_pearson double precision not null, p_value_spearman double precision not null, pearson_correlation_coefficient double precision not null, spearman_correlation_coefficient double precision not null, standard_error double precision not null, last_update datetime, values_normality double precision not null, variable integer not null, created_by bigint not null, updated_by bigint, primary key (id));
+create table country_variable_values (id bigint not null auto_increment, country varchar(255) not null, created datetime, date datetime not null, last_update datetime, value double precision not null, variable varchar(255) not null, created_by bigint not null, updated_by bigint, primary key (id));
+create table cves (id bigint not null auto_increment, access_complexity varchar(255) not null, access_vector varchar(255) not null, authentication varchar(255) not null, avail_impact varchar(255) not null, conf_impact varchar(255) not null, created datetime, cve_desc longtext not null, cvss_base_score float not null, cvss_exploit_subscore float not null, cvss_impact_subscore float not null, integ_impact varchar(255) not null, modified datetime, name varchar(255) not null, nvd_desc longtext, published datetime not null, severity varchar(255) not null, last_update datetime, created_by bigint not null, updated_by bigint, primary key (id));
+create table events (id bigint not null auto_increment, action varchar(255) not null, created datetime, date datetime not null, last_update datetime, attack_id bigint, created_by bigint not null, target_id bigint not null, updated_by bigint, primary key (id));
+create table file_mappings (id bigint not null auto_increment, file_name varchar(255) not null, sheet_name varchar(255) not null, owner bigint not null, primary key (id));
+create table file_mappings_column_mappings (file_mappings bigint not null, column_mappings varchar(255), column_mappings_key varchar(255), primary key (file_mappings, column_mappings_key));
+create table incident_attackers (incident_id bigint not null, attacker_id bigint not null, primary key (incident_id, attacker_id));
+create table incidents (id bigint not null auto_increment, created datetime, motivation varchar(255), name varchar(255), last_update datetime, created_by bigint not null, updated_by bigint, primary key (id));
+create table loss_types (id bigint not null, admin_security_protection bit not null, availability bit not null, confidentiality bit not null, integrity bit not null, other_security_protection bit not null, user_security_protection bit not null, primary key (id));
+create table owners (id bigint not null auto_increment, country varchar(255) not null, created datetime, name varchar(255) not null, sector varchar(255) not null, last_update datetime, created_by bigint not null, updated_by bigint, primary key (id));
+create table range_types (id bigint not null, local bit not null, local_network bit not null, network bit not null, user_init bit not null, primary key (id));
+create table target_ips (target_id bigint not null, target_ips_id varchar(255));
+create table targets (id bigint not null auto_increment, country varchar(255) not null, created datetime, site_name varchar(255) not null, last_update datetime, created_by bigint not null, owner_id bigint not null, updated_by bigint, primary key (id));
+create table tools (id bigint not null auto_increment, created datetime, name varchar(255), type varchar(255), last_update datetime, created_by bigint not null, updated_by bigint, primary key (id));
+create table unauthorized_results (id bigint not null auto_increment, admin_access bit, average_traffic double precision, confidetiality_level varchar(255), created datetime, down_time bigint, economic_impact double precision, num_registers bigint, peak_traffic double precision, type varchar(255) not null, last_update datetime, user_access bit, created_by bigint not null, updated_by bigint, primary key (id));
+create table users (id bigint not null auto_increment, failed_logins integer not null, name varchar(255) not null, password varchar(255) not null, roles_id varchar(255), salt varchar(255) not null, suspended bit not null, primary key (id));
+create table vulnerabilities (id bigint not null, created datetime, name varchar(255) not null, notes varchar(255), type varchar(255) not null, last_update datetime, created_by bigint not null, updated_by bigint, primary key (id));
+alter table attackers add constraint UK_h9cc87shon8dn4doltn2qlqce unique (name);
+alter table conflicts add constraint UK_swcs9kn9nc2n2kid1lta0vsiq unique (name);
+alter table correlation_hypothesis_results add constraint UK_kv12slp4gjrdwkvo9jvk1yxd6 unique (results);
+alter table country_variable_values add constraint UK_1f6etbsgagp93a58v1xix7g8a unique (variable, country, date);
+alter table cves add constraint UK_2d764pvap97ctd759ybwhr8fs unique (name);
+alter table file_mappings add constraint UK_fxa26jwjhufd71oiwpx63s7u0 unique (owner, file_name, sheet_name);
+alter table incidents add constraint UK_r5yx0uii40i4w16ge1vstaa3w unique (name);
+alter table owners add constraint UK_2j6wve2jb43e32hln9tmftp7a unique (name);
+alter table targets add constraint UK_jn2vpkqciec57rr1qn5j2g951 unique (site_name);
+alter table tools add constraint UK_gn1w3u49lbxxmtqrjfkcn9g3u unique (name);
+alter table users add constraint UK_3g1j96g94xpk3lpxl2qbl985x unique (name);
+alter table vulnerabilities add constraint UK_nj9nkdjbx5ylp49hpan5mc6ui unique (name);
+alter table attackers add constraint FK_otmr8flvhs02o44mwk5igucj2 foreign key (created_by) references users (id);
+alter table attackers add constraint FK_3x3qv97yv00saolvj4hve8t80 foreign key (updated_by) references users (id);
+alter table attacks add constraint FK_kdwn9u77jrwro6599nyudgila foreign key (created_by) references users (id);
+alter table attacks add constraint FK_a3fqg6r02v2puyopavd77e188 foreign key (incident_id) references incidents (id);
+alter table attacks add constraint FK_jp79bpprjrwi8u8dg8fkiw811 foreign key (tool_id) references tools (id);
+alter table attacks add constraint FK_p83s8fjuf83fhrjx8kv3o6pea foreign key (unauthorized_results) references unauthorized_results (id);
+alter table attacks add constraint FK_5u6km6qjoyevq9y5kwtyuaqnt foreign key (updated_by) references users (id);
+alter table attacks add constraint FK_81sqlpfxch6b07s9ebooc6obb foreign key (vulnerability_id) references vulnerabilities (id);
+alter table conflict_parties_involved add constraint FK_ngwgq917o1790xorm0limlu92 foreign key (conflict) references conflicts (id);
+alter table conflicts add constraint FK_aa61rhg0c70o1o1shcu8k5tkp foreign key (created_by) references users (id);
+alter table conflicts add constraint FK_njbm53v78qpkwd382ppera60f foreign key (updated_by) references users (id);
+alter table correlation_hypothesis add constraint FK_salk88um62o27kr6pamlpkv8y foreign key (attack_id) references conflicts (id);
+alter table correlation_hypothesis add constraint FK_cidg005y8dikvtds4tgk1l4x3 foreign key (created_by) references users (id);
+alter table correlation_hypothesis add constraint FK_e6bniq1od6qp8eeghk2s3ebix foreign key (updated_by) references users (id);
+alter table correlation_hypothesis_results add constraint FK_kv12slp4gjrdwkvo9jvk1yxd6 foreign key (results) references correlation_results (id);
+alter table correlation_hypothesis_results add constraint FK_7q5k44us8qshnqx3vopk3xdt4 foreign key (correlation_hypothesis) references correlation_hypothesis (id);
+alter table correlation_hypothesis_source_countries add constraint FK_sipfyhgnsjqr8brpgh9box1bo foreign key (correlation_hypothesis) references correlation_hypothesis (id);
+alter table correlation_hypothesis_variables add constraint FK_1ctxt3c6n9sb24xbb6qor0jw1 foreign key (correlation_hypothesis) references correlation_hypothesis (id);
+alter table correlation_results add constraint FK_1w38p68sy1unj1gynnx6mw1k4 foreign key (created_by) references users (id);
+alter table correlation_results add constraint FK_284s4tkujh9xfdcl4khgj6ykp foreign key (updated_by) references users (id);
+alter table country_variable_values add constraint FK_amixovamjupbh4wln6hq50hfi foreign key (created_by) references users (id);
+alter table country_variable_values add constraint FK_fir85sn5vn3rqp6j3vxiqi3j5 foreign key (updated_by) references users (id);
+alter table cves add constraint FK_aeoa2m7fg2dy0kxaamleemqt2 foreign key (created_by) references users (id);
+alter table cves add constraint FK_eytnv7b0p42xnyma6bkekbgog foreign key (updated_by) references users (id);
+alter table events add constraint FK_5507j1veqavyfe8fiq86vfr63 foreign key (attack_id) references attacks (id);
+alter table events add constraint FK_nytqcvgmm1wsa5kpl6x8ulum0 foreign key (created_by) references users (id);
+alter table events add constraint FK_hb5j3cvh86j3eawurjel5myek foreign key (target_id) references targets (id);
+alter table events add constraint FK_ndsodov0k9mv6ogflfvox8xog foreign key (updated_by) references users (id);
+alter table file_mappings add constraint FK_r9r7dt0msn3tp52db5h24l5p2 foreign key (owner) references users (id);
+alter table file_mappings_column_mappings add constraint FK_9vvj4qfucld5jwv113g2a4c3u foreign key (file_mappings) references file_mappings (id);
+alter table incident_attackers add constraint FK_p167vryvbuxrwo0n1aohyh3b7 foreign key (attacker_id) references attackers (id);
+alter table incident_attackers add constraint FK_n5jq2dptpnuuxiwu4qojhj09f foreign key (incident_id) references incidents (id);
+alter table incidents add constraint FK_cudb4lhuebt6j0uuqooj15nm0 foreign key (created_by) references users (id);
+alter table incidents add constraint FK_42vu6613v0edlxy0fxtb4va20 foreign key (updated_by) references users (id);
+alter table owners add constraint FK_abiuxemtr91clqusuc6s1r55d foreign key (created_by) references users (id);
+alter table owners add constraint FK_kdqmq0opfvniya7bfy3fiih5l foreign key (updated_by) references users (id);
+alter table target_ips add constraint FK_pk24ahb19wum4xvt2h92iblkx foreign key (target_id) references targets (id);
+alter table targets add constraint FK_nq8ro9nouwl4q5fda9esohnn1 foreign key (created_by) references users (id);
+alter table targets add constraint FK_7d65yxedy28kc0wq0kq5swb29 foreign key (owner_id) references owners (id);
+alter table targets add constraint FK_6sl8mv2bo6fnnc2juh95dbxht foreign key (updated_by) references users (id);
+alter table tools add constraint FK_o01g6l4o41mwu32iv8g0269y1 foreign key (created_by) references users (id);
+alter table tools add constraint FK_hycshbsxivynvlyt11dd1id4w foreign key (updated_by) references users (id);
+alter table unauthorized_results add constraint FK_gffjtkgdlxnecuxboc6ffhojr foreign key (created_by) references users (id);
+alter table unauthorized_results add constraint FK_mc94axs1ghilk05vu968u4j0p foreign key (updated_by) references users (id);
+alter table vulnerabilities add constraint FK_fscjn3v6sml3o02v9oxflbnfn foreign key (created_by) references users (id);
+alter table vulnerabilities add constraint FK_m8pwj83q8s7gxja1stojwaie5 foreign key (updated_by) references users (id);
@@ -0,0 +1,17 @@
+-- Columns added to the correlation results after the initial schema: the lag with the strongest coefficient and the sums and bucket data kept to update
+-- the statistics of a result when only some months change. The existing results get a lag of 0 and no statistics, so they are calculated again in full
+-- the next time they are refreshed
+
+alter table correlation_results
+    add column best_lag integer not null default 0,
+    add column best_lag_coefficient double precision not null default 0,
+    add column statistics_start_month bigint,
+    add column values_shift double precision,
+    add column events_shift double precision,
+    add column sum_values double precision,
+    add column sum_events double precision,
+    add column sum_squared_values double precision,
+    add column sum_squared_events double precision,
+    add column sum_products double precision,
+    add column bucket_values longblob,
+    add column bucket_events longblob;
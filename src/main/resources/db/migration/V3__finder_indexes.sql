@@ -0,0 +1,22 @@
+-- Indexes for the columns filtered by the queries of the DAOs. The foreign keys already have an index created by MySQL, but the composite ones also
+-- cover the ordering or the range on the date. The finder of the file mappings by owner, file name and sheet name is already covered by their unique
+-- constraint, as are the values by country and variable ordered by date
+
+-- EventDAO.findByDateBetweenAndTargetCountry and the monthly counts of events: the targets of the country and then their events in the date range
+create index idx_targets_country on targets (country);
+create index idx_events_target_date on events (target_id, date);
+
+-- EventDAO.findByAttack and the events of each attack, which are sorted by date
+create index idx_events_attack_date on events (attack_id, date);
+
+-- AttackDAO.findByIncident
+create index idx_attacks_incident on attacks (incident_id);
+
+-- TargetDAO.findByOwner
+create index idx_targets_owner on targets (owner_id);
+
+-- CountryVariableValueDAO.findByVariableAndDate and findByVariableIn
+create index idx_values_variable_date on country_variable_values (variable, date);
+
+-- CountryVariableValueDAO.findByCountryAndDateBetween
+create index idx_values_country_date on country_variable_values (country, date);
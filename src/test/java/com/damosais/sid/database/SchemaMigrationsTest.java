@@ -0,0 +1,213 @@
+package com.damosais.sid.database;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.ImprovedNamingStrategy;
+import org.hibernate.dialect.MySQL5Dialect;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+/**
+ * This class checks the migrations of the schema on a MySQL database: that both a new database and one created by Hibernate before the migrations end
+ * with the schema the entities expect, and that the queries of the finders use the indexes created for them. The database is given with the system
+ * properties sid.test.datasource.url, sid.test.datasource.username and sid.test.datasource.password and it is emptied by the tests, so it must be used
+ * only for them. Without those properties the tests are skipped
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+public class SchemaMigrationsTest {
+    private static final int COUNTRIES = 20;
+    private static final int VARIABLES = 10;
+    private static final int MONTHS = 120;
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    /**
+     * Connects to the database of the tests or skips them if none was given
+     */
+    @BeforeClass
+    public static void connect() {
+        final String url = System.getProperty("sid.test.datasource.url");
+        Assume.assumeNotNull(url);
+        dataSource = new DriverManagerDataSource(url, System.getProperty("sid.test.datasource.username"), System.getProperty("sid.test.datasource.password"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Checks that the database chooses the expected index to read a table of a query
+     *
+     * @param sql
+     *            The query
+     * @param alias
+     *            The alias of the table in the query
+     * @param index
+     *            The name of the index
+     */
+    private static void assertIndex(String sql, String alias, String index) {
+        for (final Map<String, Object> row : jdbcTemplate.queryForList("explain " + sql)) {
+            if (alias.equals(row.get("table"))) {
+                assertEquals("Index used to read " + alias + " on: " + sql, index, row.get("key"));
+                return;
+            }
+        }
+        throw new AssertionError("The plan of the query does not read " + alias + ": " + sql);
+    }
+
+    /**
+     * Returns Flyway configured as the application does, with the database emptied
+     *
+     * @return Flyway ready to migrate the empty database
+     */
+    private static Flyway cleanDatabase() {
+        final Flyway flyway = new Flyway();
+        flyway.setDataSource(dataSource);
+        flyway.setBaselineOnMigrate(true);
+        flyway.clean();
+        return flyway;
+    }
+
+    /**
+     * Fills the tables read by the finders with enough rows spread over several countries, owners, attacks and months for the database to prefer the
+     * indexes over reading the whole tables, and updates the statistics of the tables
+     */
+    private static void insertData() {
+        // 1st) The user who creates everything, the owners and their targets on each country
+        jdbcTemplate.update("insert into users (failed_logins, name, password, salt, suspended) values (0, 'test', 'test', 'test', 0)");
+        final Long user = jdbcTemplate.queryForObject("select id from users", Long.class);
+        final List<Object[]> owners = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            owners.add(new Object[] { "C" + i % COUNTRIES, "Owner " + i, "ROOT", user });
+        }
+        jdbcTemplate.batchUpdate("insert into owners (country, name, sector, created_by) values (?, ?, ?, ?)", owners);
+        final List<Long> ownerIds = jdbcTemplate.queryForList("select id from owners order by id", Long.class);
+        final List<Object[]> targets = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            targets.add(new Object[] { "C" + i % COUNTRIES, "Target " + i, user, ownerIds.get(i % ownerIds.size()) });
+        }
+        jdbcTemplate.batchUpdate("insert into targets (country, site_name, created_by, owner_id) values (?, ?, ?, ?)", targets);
+        final List<Long> targetIds = jdbcTemplate.queryForList("select id from targets order by id", Long.class);
+
+        // 2nd) The incidents, their attacks (some of them without incident) and the events of the attacks along the months
+        final List<Object[]> incidents = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            incidents.add(new Object[] { "Incident " + i, user });
+        }
+        jdbcTemplate.batchUpdate("insert into incidents (name, created_by) values (?, ?)", incidents);
+        final List<Long> incidentIds = jdbcTemplate.queryForList("select id from incidents order by id", Long.class);
+        final List<Object[]> attacks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            attacks.add(new Object[] { user, i % 20 == 0 ? null : incidentIds.get(i % incidentIds.size()) });
+        }
+        jdbcTemplate.batchUpdate("insert into attacks (created_by, incident_id) values (?, ?)", attacks);
+        final List<Long> attackIds = jdbcTemplate.queryForList("select id from attacks order by id", Long.class);
+        final LocalDate start = LocalDate.of(2005, 1, 1);
+        final List<Object[]> events = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            events.add(new Object[] { "SCAN", Timestamp.valueOf(start.plusDays(i % (MONTHS * 30)).atStartOfDay()), attackIds.get(i % attackIds.size()), user, targetIds.get(i * 7 % targetIds.size()) });
+        }
+        jdbcTemplate.batchUpdate("insert into events (action, date, attack_id, created_by, target_id) values (?, ?, ?, ?, ?)", events);
+
+        // 3rd) A value per month of each variable on each country
+        final List<Object[]> values = new ArrayList<>();
+        for (int country = 0; country < COUNTRIES; country++) {
+            for (int variable = 0; variable < VARIABLES; variable++) {
+                for (int month = 0; month < MONTHS; month++) {
+                    values.add(new Object[] { "C" + country, Timestamp.valueOf(start.plusMonths(month).atStartOfDay()), month, "V" + variable, user });
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into country_variable_values (country, date, value, variable, created_by) values (?, ?, ?, ?, ?)", values);
+
+        // 4th) Finally we update the statistics the database uses to choose the indexes
+        jdbcTemplate.execute("analyze table owners, targets, incidents, attacks, events, country_variable_values");
+    }
+
+    /**
+     * Creates the persistence unit of the entities with Hibernate validating that the database has the schema they need, as the application does
+     */
+    private static void validateEntities() {
+        final LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.damosais.sid.database.beans");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.dialect", MySQL5Dialect.class.getName());
+        properties.put("hibernate.ejb.naming_strategy", ImprovedNamingStrategy.class.getName());
+        properties.put("hibernate.hbm2ddl.auto", "validate");
+        properties.put("hibernate.cache.use_second_level_cache", "false");
+        factory.setJpaPropertyMap(properties);
+        // It fails if any table or column the entities need is missing
+        factory.afterPropertiesSet();
+        factory.destroy();
+    }
+
+    /**
+     * Checks that a database created by Hibernate before the migrations is baselined on the first version and then gets the changes made since then
+     *
+     * @throws SQLException
+     *             If there is a problem creating the initial schema
+     */
+    @Test
+    public void baselinedDatabaseMatchesTheEntities() throws SQLException {
+        final Flyway flyway = cleanDatabase();
+        // The databases created before have the tables of the first version but no history of the migrations
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__initial_schema.sql"));
+        }
+        flyway.migrate();
+        assertEquals("1", flyway.info().applied()[0].getVersion().toString());
+        assertEquals(flyway.info().all()[flyway.info().all().length - 1].getVersion(), flyway.info().current().getVersion());
+        validateEntities();
+    }
+
+    /**
+     * Checks that the queries of the finders read the tables through their indexes
+     */
+    @Test
+    public void findersUseTheIndexes() {
+        cleanDatabase().migrate();
+        insertData();
+        // EventDAO.findByDateBetweenAndTargetCountry: the targets of the country and then their events in the date range
+        final String eventsByCountry = "select e.* from events e join targets t on e.target_id = t.id where t.country = 'C3' and e.date between '2010-01-01' and '2010-12-31'";
+        assertIndex(eventsByCountry, "t", "idx_targets_country");
+        assertIndex(eventsByCountry, "e", "idx_events_target_date");
+        // EventDAO.findByAttack
+        assertIndex("select e.* from events e where e.attack_id = 10 order by e.date", "e", "idx_events_attack_date");
+        // AttackDAO.findByIncident
+        assertIndex("select a.* from attacks a where a.incident_id = 7", "a", "idx_attacks_incident");
+        // TargetDAO.findByOwner
+        assertIndex("select t.* from targets t where t.owner_id = 3", "t", "idx_targets_owner");
+        // CountryVariableValueDAO.findByVariableAndDate
+        assertIndex("select v.* from country_variable_values v where v.variable = 'V2' and v.date = '2010-05-01'", "v", "idx_values_variable_date");
+        // CountryVariableValueDAO.findByCountryAndDateBetween
+        assertIndex("select v.* from country_variable_values v where v.country = 'C5' and v.date between '2009-01-01' and '2010-12-31'", "v", "idx_values_country_date");
+    }
+
+    /**
+     * Checks that the migrations create on a new database the schema the entities need
+     */
+    @Test
+    public void newDatabaseMatchesTheEntities() {
+        cleanDatabase().migrate();
+        validateEntities();
+    }
+}
@@ -0,0 +1,227 @@
+package com.damosais.sid.database.services;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.ImprovedNamingStrategy;
+import org.hibernate.dialect.MySQL5Dialect;
+import org.hibernate.stat.Statistics;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.damosais.sid.database.beans.Action;
+import com.damosais.sid.database.beans.AttackerType;
+import com.damosais.sid.database.beans.Sector;
+import com.damosais.sid.database.beans.SocioeconomicVariable;
+import com.neovisionaries.i18n.CountryCode;
+
+/**
+ * This class checks that the services load the lazy collections of the entities they return with a number of queries which does not depend on the number
+ * of entities, by counting the statements run by Hibernate with twice as many rows. The entities returned are detached, so touching a collection which was
+ * not loaded fails. The database is given with the system properties sid.test.datasource.url, sid.test.datasource.username and
+ * sid.test.datasource.password and it is emptied by the tests, so it must be used only for them. Without those properties the tests are skipped
+ *
+ * @author Pablo Casais Solano
+ * @version 1.0
+ * @since 1.0
+ */
+public class FetchPlanServiceTest {
+    // Rows added of each entity on each round: 25 and 50 are both sizes of the batches Hibernate builds for a batch size of 100, so no round needs an extra one
+    private static final int ROWS = 25;
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static AnnotationConfigApplicationContext context;
+    private static Statistics statistics;
+
+    /**
+     * This class creates the persistence unit, the DAOs and the services as the application does, with the statistics of Hibernate enabled and without
+     * the second level cache so every read reaches the database
+     */
+    @Configuration
+    @EnableJpaRepositories("com.damosais.sid.database.dao")
+    @ComponentScan("com.damosais.sid.database.services")
+    static class Context {
+        @Bean
+        public static PropertySourcesPlaceholderConfigurer placeholderConfigurer() {
+            return new PropertySourcesPlaceholderConfigurer();
+        }
+
+        @Bean
+        public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
+            final LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan("com.damosais.sid.database.beans");
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            final Map<String, Object> properties = new HashMap<>();
+            properties.put("hibernate.dialect", MySQL5Dialect.class.getName());
+            properties.put("hibernate.ejb.naming_strategy", ImprovedNamingStrategy.class.getName());
+            properties.put("hibernate.hbm2ddl.auto", "validate");
+            properties.put("hibernate.cache.use_second_level_cache", "false");
+            properties.put("hibernate.generate_statistics", "true");
+            factory.setJpaPropertyMap(properties);
+            return factory;
+        }
+
+        @Bean
+        public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+
+    /**
+     * Connects to the database of the tests, creates its schema and starts the services, or skips the tests if no database was given
+     */
+    @BeforeClass
+    public static void connect() {
+        final String url = System.getProperty("sid.test.datasource.url");
+        Assume.assumeNotNull(url);
+        dataSource = new DriverManagerDataSource(url, System.getProperty("sid.test.datasource.username"), System.getProperty("sid.test.datasource.password"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        final Flyway flyway = new Flyway();
+        flyway.setDataSource(dataSource);
+        flyway.clean();
+        flyway.migrate();
+        jdbcTemplate.update("insert into users (failed_logins, name, password, salt, suspended) values (0, 'test', 'test', 'test', 0)");
+        context = new AnnotationConfigApplicationContext(Context.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Stops the services
+     */
+    @AfterClass
+    public static void disconnect() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    /**
+     * Counts the statements run to load some entities and to touch the collections the screens and the correlations use from them
+     *
+     * @param query
+     *            The call to the service loading the entities
+     * @param touch
+     *            The access to the collections of each entity
+     * @param <T>
+     *            The type of the entities
+     * @return The number of statements run
+     */
+    private static <T> long countStatements(Supplier<? extends Iterable<T>> query, Consumer<T> touch) {
+        statistics.clear();
+        final Iterable<T> loaded = query.get();
+        loaded.forEach(touch);
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Adds a round of rows of each entity, each one with a different target, attack, incident, attacker and conflict so every association has to be
+     * loaded for each of them. The identifier of each row is the highest of its table as the rows are inserted one by one
+     *
+     * @param first
+     *            The number of the first row of the round
+     */
+    private static void insertRows(int first) {
+        final Long user = jdbcTemplate.queryForObject("select id from users", Long.class);
+        final Timestamp date = Timestamp.valueOf("2015-06-01 00:00:00");
+        for (int i = first; i < first + ROWS; i++) {
+            final CountryCode country = CountryCode.values()[i + 1];
+            // 1st) The owner and the target with its IPs
+            jdbcTemplate.update("insert into owners (country, name, sector, created_by) values (?, ?, ?, ?)", country.name(), "Owner " + i, Sector.ROOT.name(), user);
+            final Long owner = jdbcTemplate.queryForObject("select max(id) from owners", Long.class);
+            jdbcTemplate.update("insert into targets (country, site_name, created_by, owner_id) values (?, ?, ?, ?)", country.name(), "Target " + i, user, owner);
+            final Long target = jdbcTemplate.queryForObject("select max(id) from targets", Long.class);
+            jdbcTemplate.update("insert into target_ips (target_id, target_ips_id) values (?, ?), (?, ?)", target, "10.0.0." + i, target, "10.0.1." + i);
+
+            // 2nd) The incident with its attacker, its attack and the event of the attack
+            jdbcTemplate.update("insert into attackers (country, name, type, created_by) values (?, ?, ?, ?)", country.name(), "Attacker " + i, AttackerType.HACKER.name(), user);
+            final Long attacker = jdbcTemplate.queryForObject("select max(id) from attackers", Long.class);
+            jdbcTemplate.update("insert into incidents (name, created_by) values (?, ?)", "Incident " + i, user);
+            final Long incident = jdbcTemplate.queryForObject("select max(id) from incidents", Long.class);
+            jdbcTemplate.update("insert into incident_attackers (incident_id, attacker_id) values (?, ?)", incident, attacker);
+            jdbcTemplate.update("insert into attacks (created_by, incident_id) values (?, ?)", user, incident);
+            final Long attack = jdbcTemplate.queryForObject("select max(id) from attacks", Long.class);
+            jdbcTemplate.update("insert into events (action, date, attack_id, created_by, target_id) values (?, ?, ?, ?, ?)", Action.SCAN.name(), date, attack, user, target);
+
+            // 3rd) The conflict with its parties and a hypothesis on it with its source countries and variables
+            jdbcTemplate.update("insert into conflicts (location, name, start, created_by) values (?, ?, ?, ?)", country.ordinal(), "Conflict " + i, date, user);
+            final Long conflict = jdbcTemplate.queryForObject("select max(id) from conflicts", Long.class);
+            jdbcTemplate.update("insert into conflict_parties_involved (conflict, parties_involved) values (?, ?), (?, ?)", conflict, country.ordinal(), conflict, CountryCode.values()[i + 2].ordinal());
+            jdbcTemplate.update("insert into correlation_hypothesis (sector, target_country, start_date, end_date, attack_id, created_by) values (?, ?, ?, ?, ?, ?)", Sector.ROOT.ordinal(), country.ordinal(), date, date, conflict, user);
+            final Long hypothesis = jdbcTemplate.queryForObject("select max(id) from correlation_hypothesis", Long.class);
+            jdbcTemplate.update("insert into correlation_hypothesis_source_countries (correlation_hypothesis, source_countries) values (?, ?)", hypothesis, CountryCode.values()[i + 2].ordinal());
+            jdbcTemplate.update("insert into correlation_hypothesis_variables (correlation_hypothesis, variables) values (?, ?)", hypothesis, SocioeconomicVariable.values()[0].ordinal());
+        }
+    }
+
+    /**
+     * Counts the statements run by each of the services loading entities with lazy collections
+     *
+     * @return The number of statements run by each service
+     */
+    private static Map<String, Long> countStatementsPerService() {
+        final Map<String, Long> statements = new HashMap<>();
+        final TargetService targetService = context.getBean(TargetService.class);
+        statements.put("targets", countStatements(targetService::list, target -> target.getIps().size()));
+        final EventService eventService = context.getBean(EventService.class);
+        statements.put("events", countStatements(eventService::list, event -> {
+            event.getTarget().getIps().size();
+            event.getAttack().getIncident().getAttackers().size();
+        }));
+        statements.put("page of events", countStatements(() -> eventService.list(null, new PageRequest(0, 2 * ROWS)), event -> event.getTarget().getIps().size()));
+        final IncidentService incidentService = context.getBean(IncidentService.class);
+        statements.put("incidents", countStatements(incidentService::list, incident -> incident.getAttackers().size()));
+        statements.put("page of incidents", countStatements(() -> incidentService.list(null, new PageRequest(0, 2 * ROWS)), incident -> incident.getAttackers().size()));
+        final AttackService attackService = context.getBean(AttackService.class);
+        statements.put("attacks", countStatements(attackService::list, attack -> attack.getIncident().getAttackers().size()));
+        statements.put("page of attacks", countStatements(() -> attackService.list(null, new PageRequest(0, 2 * ROWS)), attack -> attack.getEvents().forEach(event -> event.getTarget().getIps().size())));
+        final ConflictService conflictService = context.getBean(ConflictService.class);
+        statements.put("conflicts", countStatements(conflictService::list, conflict -> conflict.getPartiesInvolved().size()));
+        final CorrelationHypothesisService correlationHypothesisService = context.getBean(CorrelationHypothesisService.class);
+        statements.put("hypotheses", countStatements(correlationHypothesisService::list, hypothesis -> {
+            hypothesis.getSourceCountries().size();
+            hypothesis.getVariables().size();
+            hypothesis.getResults().size();
+            hypothesis.getEffectiveSourceCountries().size();
+        }));
+        return statements;
+    }
+
+    /**
+     * Checks that loading twice as many entities runs the same number of statements
+     */
+    @Test
+    public void statementsDoNotGrowWithTheRows() {
+        insertRows(0);
+        final Map<String, Long> statements = countStatementsPerService();
+        insertRows(ROWS);
+        final Map<String, Long> statementsWithTwiceTheRows = countStatementsPerService();
+        for (final String service : statements.keySet()) {
+            assertEquals("Statements run loading the " + service + " with " + 2 * ROWS + " rows", statements.get(service), statementsWithTwiceTheRows.get(service));
+        }
+    }
+}